@@ -0,0 +1,51 @@
+package com.spectralogic.migrationtracker.benchmark;
+
+import com.spectralogic.migrationtracker.api.dto.CustomerPhases;
+import com.spectralogic.migrationtracker.api.dto.DashboardStats;
+import com.spectralogic.migrationtracker.api.dto.PhaseProgress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DashboardService calls behind the /api/dashboard endpoints; most compute progress for every active phase
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardBenchmark {
+
+    @Benchmark
+    public DashboardStats stats(TrackerState state) {
+        return state.dashboardService.getStats();
+    }
+
+    @Benchmark
+    public List<PhaseProgress> activePhases(TrackerState state) {
+        return state.dashboardService.getActivePhases();
+    }
+
+    @Benchmark
+    public List<CustomerPhases> activePhasesByCustomer(TrackerState state) {
+        return state.dashboardService.getActivePhasesByCustomer();
+    }
+
+    @Benchmark
+    public List<PhaseProgress> phasesNeedingAttention(TrackerState state) {
+        return state.dashboardService.getPhasesNeedingAttention();
+    }
+
+    @Benchmark
+    public List<Object> recentActivity(TrackerState state) {
+        return state.dashboardService.getRecentActivity();
+    }
+}
@@ -0,0 +1,48 @@
+package com.spectralogic.migrationtracker.benchmark;
+
+import com.spectralogic.migrationtracker.api.dto.ExportOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full phase export (progress, data points, forecast) in each format ReportService.exportPhase supports
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"json", "csv", "html", "pdf"})
+    public String format;
+
+    private ExportOptions options;
+
+    @Setup
+    public void setUp() {
+        options = new ExportOptions();
+        options.setFormat(format);
+        options.setIncludeCharts(true);
+        options.setIncludeForecast(true);
+        options.setIncludeRawData(true);
+    }
+
+    @Benchmark
+    public byte[] export(TrackerState state) throws IOException {
+        return state.reportService.exportPhase(state.nextPhaseId(), options);
+    }
+}
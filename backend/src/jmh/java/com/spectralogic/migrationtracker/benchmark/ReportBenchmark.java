@@ -0,0 +1,34 @@
+package com.spectralogic.migrationtracker.benchmark;
+
+import com.spectralogic.migrationtracker.api.dto.Forecast;
+import com.spectralogic.migrationtracker.api.dto.PhaseProgress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress and forecast of one phase, as computed for the phase page and (per phase) for the dashboard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Benchmark
+    public PhaseProgress phaseProgress(TrackerState state) {
+        return state.reportService.getPhaseProgress(state.nextPhaseId());
+    }
+
+    @Benchmark
+    public Forecast forecast(TrackerState state) {
+        return state.reportService.getForecast(state.nextPhaseId());
+    }
+}
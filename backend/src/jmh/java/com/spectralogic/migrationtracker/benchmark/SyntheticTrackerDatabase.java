@@ -0,0 +1,208 @@
+package com.spectralogic.migrationtracker.benchmark;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Seeds a tracker SQLite database with synthetic customers, projects and phases, each with a REFERENCE point,
+ * one DATA point per day and per-bucket bucket_data rows for its source and target storage domains
+ * (the same shape as scripts/load_test_data.sql, scaled up).
+ *
+ * Bucket totals add up to the migration_data totals, so ReportService takes its normal path without mismatch warnings.
+ * Can also be run on its own to create a database for manual testing:
+ *   java -cp ... SyntheticTrackerDatabase <file> [phases] [days] [buckets]
+ */
+public class SyntheticTrackerDatabase {
+
+    private static final int PHASES_PER_CUSTOMER = 3;
+    private static final long BYTES_PER_OBJECT = 1024L * 1024L;
+
+    private final int phases;
+    private final int days;
+    private final int buckets;
+    private final LocalDate startDate;
+
+    public SyntheticTrackerDatabase(int phases, int days, int buckets) {
+        this.phases = phases;
+        this.days = days;
+        this.buckets = buckets;
+        // End today, so dashboard "recent activity" and forecasts see current data
+        this.startDate = LocalDate.now().minusDays(days);
+    }
+
+    /**
+     * Create the base tables the application expects to exist (the repositories add their own columns and tables)
+     */
+    public static void createSchema(JdbcTemplate jdbc) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS customer (id text UNIQUE NOT NULL, name text NOT NULL, " +
+            "created_at date NOT NULL, last_updated date NOT NULL, active bool)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS migration_project (id text UNIQUE NOT NULL, name text UNIQUE NOT NULL, " +
+            "customer_id text NOT NULL, type text NOT NULL, created_at date NOT NULL, last_updated date NOT NULL, active bool NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS migration_phase (id text UNIQUE NOT NULL, name text NOT NULL, type text NOT NULL, " +
+            "migration_id text NOT NULL, source text NOT NULL, target text NOT NULL, created_at date NOT NULL, " +
+            "last_updated date NOT NULL, target_tape_partition text)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS migration_data (id text UNIQUE NOT NULL, created_at date NOT NULL, " +
+            "last_updated date NOT NULL, timestamp date NOT NULL, migration_phase_id text NOT NULL, user_id text, " +
+            "source_objects INTEGER, source_size INTEGER, target_objects INTEGER, target_size INTEGER, " +
+            "type text CHECK(type in ('REFERENCE', 'DATA')) NOT NULL DEFAULT 'DATA', target_scratch_tapes INTEGER)");
+    }
+
+    public static String phaseId(int phase) {
+        return "bench-phase-" + phase;
+    }
+
+    /**
+     * Insert the synthetic data in one transaction. Expects the schema and the repository columns to exist.
+     */
+    public void seed(JdbcTemplate jdbc) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insertCustomersAndProjects(connection);
+                insertPhases(connection);
+                insertData(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void insertCustomersAndProjects(Connection connection) throws SQLException {
+        int customers = (phases + PHASES_PER_CUSTOMER - 1) / PHASES_PER_CUSTOMER;
+        try (PreparedStatement customer = connection.prepareStatement(
+                 "INSERT INTO customer (id, name, created_at, last_updated, active) VALUES (?, ?, ?, ?, 1)");
+             PreparedStatement project = connection.prepareStatement(
+                 "INSERT INTO migration_project (id, name, customer_id, type, created_at, last_updated, active) " +
+                 "VALUES (?, ?, ?, 'IOM_BUCKET', ?, ?, 1)")) {
+            for (int c = 0; c < customers; c++) {
+                customer.setString(1, "bench-customer-" + c);
+                customer.setString(2, "Customer " + c);
+                customer.setString(3, startDate.toString());
+                customer.setString(4, startDate.toString());
+                customer.addBatch();
+
+                project.setString(1, "bench-project-" + c);
+                project.setString(2, "Project " + c);
+                project.setString(3, "bench-customer-" + c);
+                project.setString(4, startDate.toString());
+                project.setString(5, startDate.toString());
+                project.addBatch();
+            }
+            customer.executeBatch();
+            project.executeBatch();
+        }
+    }
+
+    private void insertPhases(Connection connection) throws SQLException {
+        try (PreparedStatement phase = connection.prepareStatement(
+                 "INSERT INTO migration_phase (id, name, type, migration_id, source, target, created_at, last_updated, active) " +
+                 "VALUES (?, ?, 'IOM_BUCKET', ?, ?, ?, ?, ?, 1)")) {
+            for (int p = 0; p < phases; p++) {
+                phase.setString(1, phaseId(p));
+                phase.setString(2, "phase-" + p);
+                phase.setString(3, "bench-project-" + (p / PHASES_PER_CUSTOMER));
+                phase.setString(4, sourceDomain(p));
+                phase.setString(5, targetDomain(p));
+                phase.setString(6, startDate.toString());
+                phase.setString(7, startDate.toString());
+                phase.addBatch();
+            }
+            phase.executeBatch();
+        }
+    }
+
+    /**
+     * Day 0 is the REFERENCE point (nothing migrated yet); days 1..days are DATA points with the target growing
+     * linearly towards (but not reaching) the source.
+     */
+    private void insertData(Connection connection) throws SQLException {
+        try (PreparedStatement data = connection.prepareStatement(
+                 "INSERT INTO migration_data (id, created_at, last_updated, timestamp, migration_phase_id, source_objects, " +
+                 "source_size, target_objects, target_size, source_tape_count, target_tape_count, type) " +
+                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement bucket = connection.prepareStatement(
+                 "INSERT INTO bucket_data (id, created_at, last_updated, timestamp, migration_phase_id, bucket_name, source, " +
+                 "storage_domain, object_count, size_bytes) VALUES (?, ?, ?, ?, ?, ?, 'blackpearl', ?, ?, ?)")) {
+            for (int p = 0; p < phases; p++) {
+                for (int day = 0; day <= days; day++) {
+                    String date = startDate.plusDays(day).toString();
+                    long sourceObjects = 0L;
+                    long targetObjects = 0L;
+                    for (int b = 0; b < buckets; b++) {
+                        long bucketSource = 1000L * (b + 1) + p;
+                        long bucketTarget = bucketSource * day / (days + days / 4 + 1);
+                        sourceObjects += bucketSource;
+                        targetObjects += bucketTarget;
+                        addBucket(bucket, p, day, b, date, sourceDomain(p), bucketSource);
+                        addBucket(bucket, p, day, b, date, targetDomain(p), bucketTarget);
+                    }
+                    data.setString(1, "bench-data-" + p + "-" + day);
+                    data.setString(2, date);
+                    data.setString(3, date);
+                    data.setString(4, date);
+                    data.setString(5, phaseId(p));
+                    data.setLong(6, sourceObjects);
+                    data.setLong(7, sourceObjects * BYTES_PER_OBJECT);
+                    data.setLong(8, targetObjects);
+                    data.setLong(9, targetObjects * BYTES_PER_OBJECT);
+                    data.setLong(10, 10L + buckets);
+                    data.setLong(11, 1L + (long) day * buckets / Math.max(1, days));
+                    data.setString(12, day == 0 ? "REFERENCE" : "DATA");
+                    data.addBatch();
+                }
+                data.executeBatch();
+                bucket.executeBatch();
+            }
+        }
+    }
+
+    private static void addBucket(PreparedStatement bucket, int phase, int day, int b, String date,
+                                  String storageDomain, long objects) throws SQLException {
+        bucket.setString(1, "bench-bucket-" + phase + "-" + day + "-" + b + "-" + storageDomain);
+        bucket.setString(2, date);
+        bucket.setString(3, date);
+        bucket.setString(4, date);
+        bucket.setString(5, phaseId(phase));
+        bucket.setString(6, "bucket-" + b);
+        bucket.setString(7, storageDomain);
+        bucket.setLong(8, objects);
+        bucket.setLong(9, objects * BYTES_PER_OBJECT);
+        bucket.addBatch();
+    }
+
+    private static String sourceDomain(int phase) {
+        return "source-domain-" + phase;
+    }
+
+    private static String targetDomain(int phase) {
+        return "target-domain-" + phase;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticTrackerDatabase <file> [phases] [days] [buckets]");
+            System.exit(1);
+        }
+        int phases = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 90;
+        int buckets = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:sqlite:" + args[0]);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TrackerState.createTables(jdbc);
+        new SyntheticTrackerDatabase(phases, days, buckets).seed(jdbc);
+        System.out.printf("Seeded %s: %d phases, %d days, %d buckets%n", args[0], phases, days, buckets);
+    }
+}
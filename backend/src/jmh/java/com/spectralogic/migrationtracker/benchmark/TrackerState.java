@@ -0,0 +1,115 @@
+package com.spectralogic.migrationtracker.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.spectralogic.migrationtracker.config.LogSampler;
+import com.spectralogic.migrationtracker.config.PostgreSQLConfig;
+import com.spectralogic.migrationtracker.repository.BucketDataRepository;
+import com.spectralogic.migrationtracker.repository.BucketSizeHistogramRepository;
+import com.spectralogic.migrationtracker.repository.CustomerRepository;
+import com.spectralogic.migrationtracker.repository.MigrationDataRepository;
+import com.spectralogic.migrationtracker.repository.PhaseRepository;
+import com.spectralogic.migrationtracker.repository.ProjectRepository;
+import com.spectralogic.migrationtracker.service.CustomerService;
+import com.spectralogic.migrationtracker.service.DashboardService;
+import com.spectralogic.migrationtracker.service.ProjectService;
+import com.spectralogic.migrationtracker.service.ReportService;
+import com.spectralogic.migrationtracker.service.SizeHistogramService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A seeded synthetic tracker database (see {@link SyntheticTrackerDatabase}) and the services under test,
+ * wired by hand the way Spring wires them. Size it with -p phases=... -p days=... -p buckets=...
+ */
+@State(Scope.Benchmark)
+public class TrackerState {
+
+    @Param("20")
+    public int phases;
+
+    @Param("90")
+    public int days;
+
+    @Param("10")
+    public int buckets;
+
+    ReportService reportService;
+    DashboardService dashboardService;
+
+    private Path databaseFile;
+    private HikariDataSource dataSource;
+    private int nextPhase;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Log at WARN like a quiet production backend; the default logback configuration would log DEBUG to the console
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        databaseFile = Files.createTempFile("migration-tracker-benchmark", ".db");
+        // Same pool settings as DatabaseConfig
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile);
+        config.setMaximumPoolSize(5);
+        config.setMinimumIdle(1);
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("busy_timeout", "30000");
+        dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        createTables(jdbc);
+        new SyntheticTrackerDatabase(phases, days, buckets).seed(jdbc);
+
+        PhaseRepository phaseRepository = new PhaseRepository(jdbc);
+        ProjectRepository projectRepository = new ProjectRepository(jdbc);
+        MigrationDataRepository dataRepository = new MigrationDataRepository(jdbc);
+        BucketDataRepository bucketDataRepository = new BucketDataRepository(jdbc);
+        ProjectService projectService = new ProjectService(projectRepository, phaseRepository);
+        CustomerService customerService = new CustomerService(new CustomerRepository(jdbc), projectRepository, phaseRepository);
+
+        reportService = new ReportService(phaseRepository, dataRepository, projectService, customerService,
+            new PostgreSQLConfig(), bucketDataRepository,
+            new SizeHistogramService(new BucketSizeHistogramRepository(jdbc), phaseRepository),
+            new SimpleMeterRegistry(), new LogSampler());
+        dashboardService = new DashboardService(reportService, jdbc);
+    }
+
+    /**
+     * Base tables plus the columns and tables the repositories create on startup
+     */
+    static void createTables(JdbcTemplate jdbc) {
+        SyntheticTrackerDatabase.createSchema(jdbc);
+        new PhaseRepository(jdbc);
+        new MigrationDataRepository(jdbc);
+        new BucketDataRepository(jdbc).ensureTableExists();
+    }
+
+    /**
+     * Cycle through the phases so every invocation doesn't hit the same rows
+     */
+    String nextPhaseId() {
+        nextPhase = (nextPhase + 1) % phases;
+        return SyntheticTrackerDatabase.phaseId(nextPhase);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataSource.close();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+}
@@ -2,6 +2,8 @@ package com.spectralogic.migrationtracker.api;
 
 import com.spectralogic.migrationtracker.service.DatabaseService;
 import com.spectralogic.migrationtracker.service.PostgreSQLRestoreService;
+import com.spectralogic.migrationtracker.service.RestoreJob;
+import com.spectralogic.migrationtracker.service.RestoreJobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -11,7 +13,9 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/database")
@@ -21,16 +25,17 @@ public class DatabaseController {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseController.class);
     
     private final DatabaseService databaseService;
-    private final PostgreSQLRestoreService postgreSQLRestoreService;
+    private final RestoreJobService restoreJobService;
 
-    public DatabaseController(DatabaseService databaseService, PostgreSQLRestoreService postgreSQLRestoreService) {
+    public DatabaseController(DatabaseService databaseService, RestoreJobService restoreJobService) {
         this.databaseService = databaseService;
-        this.postgreSQLRestoreService = postgreSQLRestoreService;
+        this.restoreJobService = restoreJobService;
     }
 
     /**
-     * Upload and restore PostgreSQL database backup (BlackPearl or Rio)
+     * Upload a PostgreSQL database backup (BlackPearl or Rio) and queue it for restore
      * Accepts: .dump, .sql, .tar, .tar.gz, .zip, .zst files
+     * Returns 202 with a jobId; poll /restore-postgres/jobs/{jobId} for progress
      */
     @PostMapping("/restore-postgres")
     public ResponseEntity<Map<String, Object>> restorePostgreSQLDatabase(
@@ -55,23 +60,12 @@ public class DatabaseController {
             String filename = file.getOriginalFilename();
             logger.info("Received PostgreSQL database restore request: type={}, customerId={}, file={}", databaseType, customerId, filename);
 
-            PostgreSQLRestoreService.RestoreResult result = postgreSQLRestoreService.restoreDatabase(databaseType, customerId, file);
+            RestoreJob job = restoreJobService.submit(databaseType, customerId, file);
             
-            response.put("success", result.isSuccess());
-            if (result.isSuccess()) {
-                response.put("message", result.getMessage());
-            } else {
-                response.put("error", result.getError());
-            }
-            response.put("filename", result.getFilename());
-            response.put("databaseType", result.getDatabaseType());
-            response.put("format", result.getFormat());
-            
-            if (result.isSuccess()) {
-                return ResponseEntity.ok(response);
-            } else {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-            }
+            response.putAll(toResponse(job));
+            response.put("success", true);
+            response.put("message", "Restore queued");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
             
         } catch (IllegalArgumentException e) {
             logger.error("Invalid request: {}", e.getMessage());
@@ -93,6 +87,45 @@ public class DatabaseController {
         }
     }
 
+    /**
+     * List PostgreSQL restore jobs, newest first
+     */
+    @GetMapping("/restore-postgres/jobs")
+    public ResponseEntity<List<Map<String, Object>>> getRestoreJobs() {
+        return ResponseEntity.ok(restoreJobService.getJobs().stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get status and stage progress of a PostgreSQL restore job
+     */
+    @GetMapping("/restore-postgres/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getRestoreJob(@PathVariable String jobId) {
+        return restoreJobService.getJob(jobId)
+            .map(job -> ResponseEntity.ok(toResponse(job)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a queued or running PostgreSQL restore job
+     */
+    @DeleteMapping("/restore-postgres/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancelRestoreJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        if (restoreJobService.getJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean cancelled = restoreJobService.cancel(jobId);
+        response.put("success", cancelled);
+        if (!cancelled) {
+            response.put("error", "Restore job has already finished");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Restore job cancelled");
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Upload and restore SQLite tracker database backup
      * Accepts: .db, .zip, .tar.gz, .gz files
@@ -139,6 +172,37 @@ public class DatabaseController {
         }
     }
 
+    private Map<String, Object> toResponse(RestoreJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("stage", job.getStage());
+        response.put("completedStages", job.getCompletedStages());
+        response.put("databaseType", job.getDatabaseType());
+        response.put("customerId", job.getCustomerId());
+        response.put("filename", job.getFilename());
+        response.put("submittedAt", job.getSubmittedAt());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+
+        PostgreSQLRestoreService.RestoreResult result = job.getResult();
+        if (result != null) {
+            response.put("success", result.isSuccess());
+            if (result.isSuccess()) {
+                response.put("message", result.getMessage());
+            } else {
+                response.put("error", result.getError());
+            }
+            response.put("format", result.getFormat());
+            response.put("analyzedTables", result.getAnalyzedTables());
+            response.put("analyzeMillis", result.getAnalyzeMillis());
+            response.put("prewarmedRelations", result.getPrewarmedRelations());
+            response.put("prewarmedBlocks", result.getPrewarmedBlocks());
+            response.put("prewarmMillis", result.getPrewarmMillis());
+        }
+        return response;
+    }
+
     /**
      * Get database information
      */
@@ -0,0 +1,91 @@
+package com.spectralogic.migrationtracker.api;
+
+import com.spectralogic.migrationtracker.service.DatabaseCircuitBreaker;
+import com.spectralogic.migrationtracker.service.QueryDiagnosticsService;
+import com.spectralogic.migrationtracker.service.QueryGovernor;
+import com.spectralogic.migrationtracker.service.QueryOperationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    private final QueryDiagnosticsService queryDiagnosticsService;
+    private final QueryOperationService queryOperationService;
+    private final DatabaseCircuitBreaker databaseCircuitBreaker;
+    private final QueryGovernor queryGovernor;
+
+    public DiagnosticsController(QueryDiagnosticsService queryDiagnosticsService, QueryOperationService queryOperationService,
+                                 DatabaseCircuitBreaker databaseCircuitBreaker, QueryGovernor queryGovernor) {
+        this.queryDiagnosticsService = queryDiagnosticsService;
+        this.queryOperationService = queryOperationService;
+        this.databaseCircuitBreaker = databaseCircuitBreaker;
+        this.queryGovernor = queryGovernor;
+    }
+
+    /**
+     * Latency histograms of customer database statements and the most recent slow queries (with plans)
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<QueryDiagnosticsService.QueryReport> getQueries(
+            @RequestParam(required = false) String statementHash,
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        return ResponseEntity.ok(queryDiagnosticsService.getReport(statementHash, Math.max(1, Math.min(limit, 500))));
+    }
+
+    /**
+     * Reset the in-memory statistics (persisted slow queries are kept)
+     */
+    @DeleteMapping("/queries")
+    public ResponseEntity<Void> resetQueries() {
+        queryDiagnosticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Operations (gathers, bucket listings, catalog refreshes) currently running queries against customer databases
+     */
+    @GetMapping("/operations")
+    public ResponseEntity<List<QueryOperationService.QueryOperation>> getOperations() {
+        return ResponseEntity.ok(queryOperationService.getRunning());
+    }
+
+    /**
+     * Cancel an operation's running statement and the rest of its queries.
+     * Clients send the id they chose in the X-Operation-Id header when they give up on a request.
+     */
+    @DeleteMapping("/operations/{id}")
+    public ResponseEntity<Void> cancelOperation(@PathVariable String id) {
+        return queryOperationService.cancel(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Customer databases known to be reachable or unreachable (circuit breaker state)
+     */
+    @GetMapping("/databases")
+    public ResponseEntity<List<DatabaseCircuitBreaker.DatabaseStatus>> getDatabases() {
+        return ResponseEntity.ok(databaseCircuitBreaker.getStatus());
+    }
+
+    /**
+     * Forget the circuit breaker state so every database is probed again
+     */
+    @DeleteMapping("/databases")
+    public ResponseEntity<Void> resetDatabases() {
+        databaseCircuitBreaker.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Per-host limit on concurrent heavy queries: running, queued and wait times
+     */
+    @GetMapping("/governor")
+    public ResponseEntity<List<QueryGovernor.HostStatus>> getGovernor() {
+        return ResponseEntity.ok(queryGovernor.getStatus());
+    }
+}
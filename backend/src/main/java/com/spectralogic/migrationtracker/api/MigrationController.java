@@ -1,11 +1,18 @@
 package com.spectralogic.migrationtracker.api;
 
+import com.spectralogic.migrationtracker.api.dto.BackfillRequest;
 import com.spectralogic.migrationtracker.api.dto.Bucket;
+import com.spectralogic.migrationtracker.api.dto.BucketPage;
 import com.spectralogic.migrationtracker.api.dto.GatherDataRequest;
+import com.spectralogic.migrationtracker.api.dto.GatherProjectRequest;
 import com.spectralogic.migrationtracker.model.BucketData;
 import com.spectralogic.migrationtracker.model.MigrationData;
+import com.spectralogic.migrationtracker.model.TapePartitionData;
 import com.spectralogic.migrationtracker.service.BucketService;
+import com.spectralogic.migrationtracker.service.CatalogService;
 import com.spectralogic.migrationtracker.service.MigrationService;
+import com.spectralogic.migrationtracker.service.ObjectSketchService;
+import com.spectralogic.migrationtracker.service.PostRestoreOptimizer;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/migration")
@@ -20,10 +28,17 @@ public class MigrationController {
 
     private final MigrationService service;
     private final BucketService bucketService;
+    private final CatalogService catalogService;
+    private final ObjectSketchService objectSketchService;
+    private final PostRestoreOptimizer postRestoreOptimizer;
 
-    public MigrationController(MigrationService service, BucketService bucketService) {
+    public MigrationController(MigrationService service, BucketService bucketService, CatalogService catalogService,
+                               ObjectSketchService objectSketchService, PostRestoreOptimizer postRestoreOptimizer) {
         this.service = service;
         this.bucketService = bucketService;
+        this.catalogService = catalogService;
+        this.objectSketchService = objectSketchService;
+        this.postRestoreOptimizer = postRestoreOptimizer;
     }
 
     @PostMapping("/gather-data")
@@ -32,11 +47,49 @@ public class MigrationController {
             request.getProjectId(),
             request.getPhaseId(),
             request.getDate(),
-            request.getSelectedBuckets()
+            request.getSelectedBuckets(),
+            request.getIncremental(),
+            request.getSketch()
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(data);
     }
 
+    /**
+     * Gather all active phases of a project for one date; phases sharing a storage domain share its scan
+     */
+    @PostMapping("/gather-data/project")
+    public ResponseEntity<MigrationService.ProjectGatherResult> gatherProject(@RequestBody GatherProjectRequest request) {
+        MigrationService.ProjectGatherResult result = service.gatherProject(
+            request.getProjectId(),
+            request.getDate(),
+            request.getSelectedBuckets(),
+            request.getIncremental(),
+            request.getSketch()
+        );
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    /**
+     * Reconstruct a phase's daily data points for a past date range in one pass (days with data are skipped)
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<?> backfill(@RequestBody BackfillRequest request) {
+        try {
+            MigrationService.BackfillResult result = service.backfill(
+                request.getProjectId(),
+                request.getPhaseId(),
+                request.getDateFrom(),
+                request.getDateTo()
+            );
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // Nothing to reconstruct from (e.g. no per-copy write time for the target side) - say why
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/data")
     public ResponseEntity<List<MigrationData>> getData(@RequestParam String phaseId) {
         return ResponseEntity.ok(service.getDataByPhase(phaseId));
@@ -54,25 +107,71 @@ public class MigrationController {
         }
     }
 
+    /**
+     * estimate=true returns approximate counts/sizes (from PostgreSQL statistics and sampling) when there is no catalog snapshot
+     */
     @GetMapping("/buckets/customer")
     public ResponseEntity<List<Bucket>> getBucketsForCustomer(
             @RequestParam String customerId,
-            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType) {
-        return ResponseEntity.ok(bucketService.getBucketsForCustomer(customerId, databaseType));
+            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType,
+            @RequestParam(required = false, defaultValue = "false") boolean estimate) {
+        return ResponseEntity.ok(bucketService.getBucketsForCustomer(customerId, databaseType, estimate));
+    }
+
+    /**
+     * Paginated bucket listing: prefix filter, sort by name/size/count, keyset cursor from the previous page's nextCursor
+     */
+    @GetMapping("/buckets/customer/page")
+    public ResponseEntity<BucketPage> getBucketPage(
+            @RequestParam String customerId,
+            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false, defaultValue = "name") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "100") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean estimate) {
+        try {
+            return ResponseEntity.ok(bucketService.getBucketPage(customerId, databaseType, prefix, sort, cursor, limit, estimate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/buckets/size")
     public ResponseEntity<Bucket> getBucketSize(
             @RequestParam String customerId,
             @RequestParam String bucketName,
-            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType) {
-        Bucket bucket = bucketService.getBucketSize(customerId, bucketName, databaseType);
+            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType,
+            @RequestParam(required = false, defaultValue = "false") boolean estimate) {
+        Bucket bucket = bucketService.getBucketSize(customerId, bucketName, databaseType, estimate);
         if (bucket == null) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(bucket);
     }
 
+    /**
+     * Re-snapshot storage domains, buckets and tape partitions from PostgreSQL into the SQLite catalog
+     * (done automatically after a restore)
+     */
+    @PostMapping("/catalog/refresh")
+    public ResponseEntity<CatalogService.CatalogRefreshResult> refreshCatalog(
+            @RequestParam String customerId,
+            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType) {
+        return ResponseEntity.ok(catalogService.refreshCatalog(customerId, databaseType));
+    }
+
+    /**
+     * Rebuild the per-bucket and per-storage domain summaries in the customer's restored PostgreSQL database
+     * (built automatically after a restore)
+     */
+    @PostMapping("/summaries/refresh")
+    public ResponseEntity<PostRestoreOptimizer.OptimizeResult> refreshSummaries(
+            @RequestParam String customerId,
+            @RequestParam(required = false, defaultValue = "blackpearl") String databaseType) {
+        return ResponseEntity.ok(postRestoreOptimizer.refreshSummaries(customerId, databaseType));
+    }
+
     @GetMapping("/bucket-data")
     public ResponseEntity<List<BucketData>> getBucketData(
             @RequestParam String phaseId,
@@ -90,6 +189,29 @@ public class MigrationController {
         return ResponseEntity.ok(data);
     }
 
+    /**
+     * Tapes and bytes per tape partition of the phase's storage domains, per gather
+     */
+    @GetMapping("/tape-partition-data")
+    public ResponseEntity<List<TapePartitionData>> getTapePartitionData(@RequestParam String phaseId) {
+        return ResponseEntity.ok(service.getTapePartitionDataByPhase(phaseId));
+    }
+
+    /**
+     * Estimated objects on the phase's source and target, on both and in either, merged from the sketches of a
+     * sketch-mode gather (the latest one if no date is given)
+     */
+    @GetMapping("/sketch-counts")
+    public ResponseEntity<ObjectSketchService.SketchCounts> getSketchCounts(
+            @RequestParam String phaseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(objectSketchService.getCounts(phaseId, date));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/data")
     public ResponseEntity<Void> deleteDataPoint(
             @RequestParam String phaseId,
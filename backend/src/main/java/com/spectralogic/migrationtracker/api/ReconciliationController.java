@@ -0,0 +1,102 @@
+package com.spectralogic.migrationtracker.api;
+
+import com.spectralogic.migrationtracker.model.ReconciliationBucket;
+import com.spectralogic.migrationtracker.model.ReconciliationRun;
+import com.spectralogic.migrationtracker.service.ReconciliationJob;
+import com.spectralogic.migrationtracker.service.ReconciliationService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Object-level reconciliation of a phase's source and target storage domains
+ */
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService service;
+
+    public ReconciliationController(ReconciliationService service) {
+        this.service = service;
+    }
+
+    /**
+     * Queue a reconciliation of a phase; poll the returned job for progress
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ReconciliationJob> startReconciliation(@RequestParam String phaseId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(service.submit(phaseId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Queued, running and recently finished jobs, newest first
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ReconciliationJob>> getJobs() {
+        return ResponseEntity.ok(service.getJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReconciliationJob> getJob(@PathVariable String jobId) {
+        return service.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Void> cancelJob(@PathVariable String jobId) {
+        if (service.getJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return service.cancel(jobId) ? ResponseEntity.noContent().build() : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Finished runs of a phase (the run id is the job id), newest first
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<ReconciliationRun>> getRuns(@RequestParam String phaseId) {
+        return ResponseEntity.ok(service.getRuns(phaseId));
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ReconciliationRun> getRun(@PathVariable String runId) {
+        return service.getRun(runId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Differences per bucket, the buckets with the most missing objects first
+     */
+    @GetMapping("/runs/{runId}/buckets")
+    public ResponseEntity<List<ReconciliationBucket>> getBuckets(@PathVariable String runId) {
+        return ResponseEntity.ok(service.getBuckets(runId));
+    }
+
+    /**
+     * The differing objects as gzipped CSV (difference, bucket_name, object_name, source_size, target_size)
+     */
+    @GetMapping("/runs/{runId}/objects")
+    public ResponseEntity<Resource> downloadObjects(@PathVariable String runId) {
+        return service.getSpillFile(runId)
+            .map(file -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.parseMediaType("application/gzip"));
+                headers.setContentDispositionFormData("attachment", file.getFileName().toString());
+                return ResponseEntity.ok().headers(headers).<Resource>body(new FileSystemResource(file));
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
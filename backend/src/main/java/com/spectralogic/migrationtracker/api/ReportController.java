@@ -5,6 +5,7 @@ import com.spectralogic.migrationtracker.api.dto.Forecast;
 import com.spectralogic.migrationtracker.api.dto.PhaseProgress;
 import com.spectralogic.migrationtracker.model.MigrationData;
 import com.spectralogic.migrationtracker.service.ReportService;
+import com.spectralogic.migrationtracker.service.SizeHistogramService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -46,6 +47,19 @@ public class ReportController {
         return ResponseEntity.ok(service.getForecast(phaseId));
     }
 
+    /**
+     * Blob size histograms of the phase's source and target, per bucket and in total, from one gather date
+     * (the latest with histograms if no date is given)
+     */
+    @GetMapping("/phases/{phaseId}/size-histogram")
+    public ResponseEntity<SizeHistogramService.SizeHistogramReport> getSizeHistogram(
+            @PathVariable String phaseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return service.getSizeHistogram(phaseId, date)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/phases/{phaseId}/export")
     public ResponseEntity<byte[]> exportPhase(@PathVariable String phaseId, @RequestBody ExportOptions options) {
         try {
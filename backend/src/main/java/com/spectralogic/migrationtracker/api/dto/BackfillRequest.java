@@ -0,0 +1,43 @@
+package com.spectralogic.migrationtracker.api.dto;
+
+import java.time.LocalDate;
+
+public class BackfillRequest {
+    private String projectId;
+    private String phaseId;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+
+    // Getters and Setters
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getPhaseId() {
+        return phaseId;
+    }
+
+    public void setPhaseId(String phaseId) {
+        this.phaseId = phaseId;
+    }
+
+    public LocalDate getDateFrom() {
+        return dateFrom;
+    }
+
+    public void setDateFrom(LocalDate dateFrom) {
+        this.dateFrom = dateFrom;
+    }
+
+    public LocalDate getDateTo() {
+        return dateTo;
+    }
+
+    public void setDateTo(LocalDate dateTo) {
+        this.dateTo = dateTo;
+    }
+}
@@ -5,6 +5,7 @@ public class Bucket {
     private String source; // "blackpearl" or "rio"
     private Long objectCount;
     private Long sizeBytes;
+    private boolean approximate; // counts/sizes estimated from statistics and sampling
 
     public Bucket() {
     }
@@ -47,4 +48,12 @@ public class Bucket {
     public void setSizeBytes(Long sizeBytes) {
         this.sizeBytes = sizeBytes;
     }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
 }
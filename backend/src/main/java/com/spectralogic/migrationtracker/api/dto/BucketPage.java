@@ -0,0 +1,75 @@
+package com.spectralogic.migrationtracker.api.dto;
+
+import java.util.List;
+
+/**
+ * One page of a customer's buckets. Pass nextCursor back as cursor to get the following page.
+ */
+public class BucketPage {
+
+    public enum Sort { NAME, SIZE, COUNT }
+
+    private List<Bucket> buckets;
+    private String nextCursor;
+    private boolean hasMore;
+    private Sort sort;
+    private String prefix;
+    private Long totalCount; // matching buckets; only known when served from the catalog
+    private String source; // "catalog" or "postgres"
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
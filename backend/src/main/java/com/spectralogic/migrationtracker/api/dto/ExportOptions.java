@@ -9,6 +9,7 @@ public class ExportOptions {
     private Boolean includeCharts;
     private Boolean includeForecast;
     private Boolean includeRawData;
+    private Boolean includeSizeHistogram;
 
     public ExportOptions() {
     }
@@ -60,4 +61,12 @@ public class ExportOptions {
     public void setIncludeRawData(Boolean includeRawData) {
         this.includeRawData = includeRawData;
     }
+
+    public Boolean getIncludeSizeHistogram() {
+        return includeSizeHistogram;
+    }
+
+    public void setIncludeSizeHistogram(Boolean includeSizeHistogram) {
+        this.includeSizeHistogram = includeSizeHistogram;
+    }
 }
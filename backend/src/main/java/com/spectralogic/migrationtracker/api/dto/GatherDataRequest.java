@@ -8,6 +8,8 @@ public class GatherDataRequest {
     private String phaseId;
     private LocalDate date;
     private List<String> selectedBuckets;
+    private Boolean incremental; // null = migration.gather.incremental.enabled
+    private Boolean sketch; // null = migration.gather.sketch.enabled
 
     // Getters and Setters
     public String getProjectId() {
@@ -41,4 +43,20 @@ public class GatherDataRequest {
     public void setSelectedBuckets(List<String> selectedBuckets) {
         this.selectedBuckets = selectedBuckets;
     }
+
+    public Boolean getIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public Boolean getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(Boolean sketch) {
+        this.sketch = sketch;
+    }
 }
@@ -0,0 +1,54 @@
+package com.spectralogic.migrationtracker.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class GatherProjectRequest {
+    private String projectId;
+    private LocalDate date;
+    private Map<String, List<String>> selectedBuckets; // phase id -> buckets; phases not listed gather the whole storage domain
+    private Boolean incremental; // null = migration.gather.incremental.enabled
+    private Boolean sketch; // null = migration.gather.sketch.enabled
+
+    // Getters and Setters
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Map<String, List<String>> getSelectedBuckets() {
+        return selectedBuckets;
+    }
+
+    public void setSelectedBuckets(Map<String, List<String>> selectedBuckets) {
+        this.selectedBuckets = selectedBuckets;
+    }
+
+    public Boolean getIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public Boolean getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(Boolean sketch) {
+        this.sketch = sketch;
+    }
+}
@@ -2,6 +2,7 @@ package com.spectralogic.migrationtracker.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -76,9 +77,10 @@ public class DatabaseConfig {
     }
 
     @Bean
-    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, MeterRegistry meterRegistry) {
+        // Times every repository call (migration.sqlite)
         @SuppressWarnings("null")
-        JdbcTemplate template = new JdbcTemplate(dataSource);
+        JdbcTemplate template = new MeteredJdbcTemplate(dataSource, meterRegistry);
         return template;
     }
 }
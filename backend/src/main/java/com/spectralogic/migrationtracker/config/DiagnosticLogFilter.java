@@ -0,0 +1,43 @@
+package com.spectralogic.migrationtracker.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Logback turbo filter that lets DEBUG events through for requests sent with the X-Diagnostic-Log header
+ * (marked in the MDC by {@link RequestLoggingFilter}), so detail can be turned on for one request
+ * instead of setting the whole application to DEBUG. Registered in logback-spring.xml.
+ */
+public class DiagnosticLogFilter extends TurboFilter {
+
+    static final String MDC_KEY = "diagnostic";
+
+    private List<String> loggers = List.of("com.spectralogic.migrationtracker", "org.springframework.jdbc");
+
+    /**
+     * Comma-separated logger name prefixes enabled for diagnostic requests
+     */
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || !level.isGreaterOrEqual(Level.DEBUG) || !"true".equals(MDC.get(MDC_KEY))) {
+            return FilterReply.NEUTRAL;
+        }
+        for (String prefix : loggers) {
+            if (logger.getName().startsWith(prefix)) {
+                return FilterReply.ACCEPT;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
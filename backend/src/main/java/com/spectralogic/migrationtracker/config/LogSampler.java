@@ -0,0 +1,73 @@
+package com.spectralogic.migrationtracker.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limit for log lines that repeat on hot paths (per-bucket detail, the same warning for a phase on every
+ * dashboard load): each key may log a limited number of lines per interval, and the next line that gets through
+ * reports how many were suppressed. Diagnostic requests (X-Diagnostic-Log) are never limited.
+ */
+@Component
+public class LogSampler {
+
+    private static final int MAX_KEYS = 10_000;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Value("${migration.logging.sample.interval-seconds:300}")
+    private long intervalSeconds;
+
+    @Value("${migration.logging.sample.detail-lines:20}")
+    private int detailLines;
+
+    /**
+     * allow() with the configured number of detail lines (per-bucket lines of one gather, ...)
+     */
+    public long allowDetail(String key) {
+        return allow(key, detailLines);
+    }
+
+    /**
+     * @param limit lines allowed for this key per interval
+     * @return -1 if the line should be skipped, otherwise the number of lines skipped since the last one logged
+     */
+    public long allow(String key, int limit) {
+        if ("true".equals(MDC.get(DiagnosticLogFilter.MDC_KEY))) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        if (windows.size() > MAX_KEYS) {
+            windows.values().removeIf(window -> now - window.start >= intervalSeconds * 1000);
+        }
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        synchronized (window) {
+            if (now - window.start >= intervalSeconds * 1000) {
+                window.start = now;
+                window.logged = 0;
+            }
+            if (window.logged >= limit) {
+                window.suppressed++;
+                return -1;
+            }
+            window.logged++;
+            long suppressed = window.suppressed;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    private static class Window {
+        private long start;
+        private int logged;
+        private long suppressed;
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.spectralogic.migrationtracker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JdbcTemplate for the tracker's SQLite database that times every repository query and update as
+ * migration.sqlite, tagged with the statement type and the (first) table it reads or writes.
+ * The query/queryForObject/queryForList and update(sql, args...) variants funnel into the methods overridden here;
+ * DDL run through execute() is not timed.
+ */
+class MeteredJdbcTemplate extends JdbcTemplate {
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([a-z_][a-z0-9_]*)");
+    private static final int MAX_CACHED_STATEMENTS = 1000;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, String[]> statementTags = new ConcurrentHashMap<>();
+
+    MeteredJdbcTemplate(DataSource dataSource, MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) {
+        return timed(sql, () -> super.query(sql, rse));
+    }
+
+    @Override
+    public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+        return timed(sql, () -> super.query(sql, pss, rse));
+    }
+
+    @Override
+    public int update(String sql, PreparedStatementSetter pss) {
+        return timed(sql, () -> super.update(sql, pss));
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+        return timed(sql, () -> super.batchUpdate(sql, pss));
+    }
+
+    private <T> T timed(String sql, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            String[] tags = tags(sql);
+            long nanos = sample.stop(meterRegistry.timer("migration.sqlite", "operation", tags[0], "table", tags[1], "outcome", outcome));
+            RequestLogSummary.add("sqlite", 1);
+            RequestLogSummary.add("sqliteUs", nanos / 1_000);
+        }
+    }
+
+    /**
+     * {operation, table} for a statement; repository SQL is mostly constant, so the parse is cached
+     */
+    private String[] tags(String sql) {
+        String[] tags = statementTags.get(sql);
+        if (tags != null) {
+            return tags;
+        }
+        String lower = sql.trim().toLowerCase(Locale.ROOT);
+        String operation = lower.split("\\s+", 2)[0];
+        if (operation.equals("with")) {
+            operation = "select";
+        }
+        Matcher table = TABLE.matcher(lower);
+        tags = new String[]{operation, table.find() ? table.group(1) : "none"};
+        if (statementTags.size() < MAX_CACHED_STATEMENTS) {
+            statementTags.put(sql, tags);
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,42 @@
+package com.spectralogic.migrationtracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters for the HTTP request being handled on this thread (phases computed, buckets scanned, SQLite statements, ...).
+ * {@link RequestLoggingFilter} writes them as one summary line when the request completes, instead of the hot paths
+ * logging a line per phase or bucket. Outside a request, add() does nothing.
+ */
+public final class RequestLogSummary {
+
+    private static final ThreadLocal<Map<String, Long>> counters = new ThreadLocal<>();
+
+    private RequestLogSummary() {
+    }
+
+    public static void add(String name, long amount) {
+        Map<String, Long> current = counters.get();
+        if (current != null) {
+            current.merge(name, amount, Long::sum);
+        }
+    }
+
+    static void start() {
+        counters.set(new LinkedHashMap<>());
+    }
+
+    /**
+     * The counters of the finished request, as key=value pairs
+     */
+    static String finish() {
+        Map<String, Long> current = counters.get();
+        counters.remove();
+        if (current == null || current.isEmpty()) {
+            return "";
+        }
+        StringBuilder summary = new StringBuilder();
+        current.forEach((name, value) -> summary.append(' ').append(name).append('=').append(value));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.spectralogic.migrationtracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Gives each API request a request id (the X-Operation-Id the client sent, or a generated one) in the logging MDC,
+ * turns on DEBUG logging for the request when it carries X-Diagnostic-Log: true (see {@link DiagnosticLogFilter}),
+ * and logs one summary line per request with its status, duration and {@link RequestLogSummary} counters.
+ */
+@Component
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+    public static final String DIAGNOSTIC_HEADER = "X-Diagnostic-Log";
+    static final String REQUEST_ID_KEY = "requestId";
+
+    @Value("${migration.logging.diagnostic-header.enabled:true}")
+    private boolean diagnosticHeaderEnabled;
+
+    @Value("${migration.logging.request-summary.enabled:true}")
+    private boolean requestSummaryEnabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Static frontend files, actuator and swagger don't need request logging
+        return !request.getRequestURI().contains("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader("X-Operation-Id");
+        if (requestId == null || requestId.isBlank()) {
+            requestId = UUID.randomUUID().toString().substring(0, 8);
+        }
+        boolean diagnostic = diagnosticHeaderEnabled && "true".equalsIgnoreCase(request.getHeader(DIAGNOSTIC_HEADER));
+
+        MDC.put(REQUEST_ID_KEY, requestId);
+        if (diagnostic) {
+            MDC.put(DiagnosticLogFilter.MDC_KEY, "true");
+        }
+        RequestLogSummary.start();
+        long startTime = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            String counters = RequestLogSummary.finish();
+            if (requestSummaryEnabled || diagnostic) {
+                logger.info("{} {} status={} ms={}{}", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    (System.nanoTime() - startTime) / 1_000_000, counters);
+            }
+            MDC.remove(DiagnosticLogFilter.MDC_KEY);
+            MDC.remove(REQUEST_ID_KEY);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Blob size histogram of one bucket on a storage domain (or of the whole domain, under its name, when a gather
+ * had no buckets selected), recorded by a full gather
+ */
+public class BucketSizeHistogram {
+    private String migrationPhaseId;
+    private LocalDate timestamp;
+    private String storageDomain;
+    private String bucketName;
+    private String histogram; // encoded, see SizeHistogram.encode
+
+    // Getters and Setters
+    public String getMigrationPhaseId() {
+        return migrationPhaseId;
+    }
+
+    public void setMigrationPhaseId(String migrationPhaseId) {
+        this.migrationPhaseId = migrationPhaseId;
+    }
+
+    public LocalDate getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDate timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getStorageDomain() {
+        return storageDomain;
+    }
+
+    public void setStorageDomain(String storageDomain) {
+        this.storageDomain = storageDomain;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,64 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * HyperLogLog sketch of the object ids of one bucket on a storage domain, recorded by a gather in sketch mode
+ */
+public class BucketSketch {
+    private String migrationPhaseId;
+    private LocalDate timestamp;
+    private String storageDomain;
+    private String bucketName;
+    private int precision;
+    private byte[] registers; // deflated, see HyperLogLog.toBytes
+
+    // Getters and Setters
+    public String getMigrationPhaseId() {
+        return migrationPhaseId;
+    }
+
+    public void setMigrationPhaseId(String migrationPhaseId) {
+        this.migrationPhaseId = migrationPhaseId;
+    }
+
+    public LocalDate getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDate timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getStorageDomain() {
+        return storageDomain;
+    }
+
+    public void setStorageDomain(String storageDomain) {
+        this.storageDomain = storageDomain;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+}
@@ -0,0 +1,74 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Totals from the last gather of a phase/storage domain/bucket, used as the starting point for incremental gathers.
+ * bucketName is empty for a whole-storage-domain gather.
+ */
+public class GatherBaseline {
+    private String migrationPhaseId;
+    private String storageDomain;
+    private String bucketName;
+    private long objectCount;
+    private long sizeBytes;
+    private LocalDate gatheredOn;
+    private LocalDate fullGatheredOn; // last full (non-incremental) recount
+
+    // Getters and Setters
+    public String getMigrationPhaseId() {
+        return migrationPhaseId;
+    }
+
+    public void setMigrationPhaseId(String migrationPhaseId) {
+        this.migrationPhaseId = migrationPhaseId;
+    }
+
+    public String getStorageDomain() {
+        return storageDomain;
+    }
+
+    public void setStorageDomain(String storageDomain) {
+        this.storageDomain = storageDomain;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public long getObjectCount() {
+        return objectCount;
+    }
+
+    public void setObjectCount(long objectCount) {
+        this.objectCount = objectCount;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDate getGatheredOn() {
+        return gatheredOn;
+    }
+
+    public void setGatheredOn(LocalDate gatheredOn) {
+        this.gatheredOn = gatheredOn;
+    }
+
+    public LocalDate getFullGatheredOn() {
+        return fullGatheredOn;
+    }
+
+    public void setFullGatheredOn(LocalDate fullGatheredOn) {
+        this.fullGatheredOn = fullGatheredOn;
+    }
+}
@@ -0,0 +1,71 @@
+package com.spectralogic.migrationtracker.model;
+
+/**
+ * Differences found in one bucket by a reconciliation
+ */
+public class ReconciliationBucket {
+    private String runId;
+    private String bucketName;
+    private long matched;
+    private long missing;
+    private long extra;
+    private long sizeMismatch;
+    private long missingBytes;
+
+    // Getters and Setters
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public void setMissing(long missing) {
+        this.missing = missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public void setExtra(long extra) {
+        this.extra = extra;
+    }
+
+    public long getSizeMismatch() {
+        return sizeMismatch;
+    }
+
+    public void setSizeMismatch(long sizeMismatch) {
+        this.sizeMismatch = sizeMismatch;
+    }
+
+    public long getMissingBytes() {
+        return missingBytes;
+    }
+
+    public void setMissingBytes(long missingBytes) {
+        this.missingBytes = missingBytes;
+    }
+}
@@ -0,0 +1,155 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished reconciliation of a phase's source and target storage domains: object counts and the
+ * differences found. The differing objects themselves are in the spill file (gzipped CSV).
+ */
+public class ReconciliationRun {
+    private String id;
+    private String migrationPhaseId;
+    private String sourceDomain;
+    private String targetDomain;
+    private String status; // COMPLETED, FAILED or CANCELLED
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long sourceObjects;
+    private long targetObjects;
+    private long matched;
+    private long missing; // on the source, not on the target
+    private long extra; // on the target, not on the source
+    private long sizeMismatch;
+    private long missingBytes; // source bytes of missing objects
+    private String spillFile;
+    private String error;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getMigrationPhaseId() {
+        return migrationPhaseId;
+    }
+
+    public void setMigrationPhaseId(String migrationPhaseId) {
+        this.migrationPhaseId = migrationPhaseId;
+    }
+
+    public String getSourceDomain() {
+        return sourceDomain;
+    }
+
+    public void setSourceDomain(String sourceDomain) {
+        this.sourceDomain = sourceDomain;
+    }
+
+    public String getTargetDomain() {
+        return targetDomain;
+    }
+
+    public void setTargetDomain(String targetDomain) {
+        this.targetDomain = targetDomain;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getSourceObjects() {
+        return sourceObjects;
+    }
+
+    public void setSourceObjects(long sourceObjects) {
+        this.sourceObjects = sourceObjects;
+    }
+
+    public long getTargetObjects() {
+        return targetObjects;
+    }
+
+    public void setTargetObjects(long targetObjects) {
+        this.targetObjects = targetObjects;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public void setMissing(long missing) {
+        this.missing = missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public void setExtra(long extra) {
+        this.extra = extra;
+    }
+
+    public long getSizeMismatch() {
+        return sizeMismatch;
+    }
+
+    public void setSizeMismatch(long sizeMismatch) {
+        this.sizeMismatch = sizeMismatch;
+    }
+
+    public long getMissingBytes() {
+        return missingBytes;
+    }
+
+    public void setMissingBytes(long missingBytes) {
+        this.missingBytes = missingBytes;
+    }
+
+    public String getSpillFile() {
+        return spillFile;
+    }
+
+    public void setSpillFile(String spillFile) {
+        this.spillFile = spillFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,83 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer database statement that took longer than the slow-query threshold, with its EXPLAIN (ANALYZE, BUFFERS)
+ * output when one was captured.
+ */
+public class SlowQuery {
+    private String id;
+    private LocalDateTime capturedAt;
+    private String databaseKey; // host:port/database
+    private String statementHash; // groups executions of the same statement across databases
+    private String statement;
+    private long elapsedMillis;
+    private long rowCount;
+    private String plan; // null if no plan was captured for this execution
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+
+    public void setCapturedAt(LocalDateTime capturedAt) {
+        this.capturedAt = capturedAt;
+    }
+
+    public String getDatabaseKey() {
+        return databaseKey;
+    }
+
+    public void setDatabaseKey(String databaseKey) {
+        this.databaseKey = databaseKey;
+    }
+
+    public String getStatementHash() {
+        return statementHash;
+    }
+
+    public void setStatementHash(String statementHash) {
+        this.statementHash = statementHash;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public void setStatement(String statement) {
+        this.statement = statement;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
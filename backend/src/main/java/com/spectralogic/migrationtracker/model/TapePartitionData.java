@@ -0,0 +1,65 @@
+package com.spectralogic.migrationtracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Tapes and bytes of a phase's source or target storage domain in one tape partition, per gather.
+ * sizeBytes is null when the gather didn't scan the domain (incremental gathers).
+ */
+public class TapePartitionData {
+    private String migrationPhaseId;
+    private LocalDate timestamp;
+    private String storageDomain;
+    private String tapePartition;
+    private long tapeCount;
+    private Long sizeBytes;
+
+    // Getters and Setters
+    public String getMigrationPhaseId() {
+        return migrationPhaseId;
+    }
+
+    public void setMigrationPhaseId(String migrationPhaseId) {
+        this.migrationPhaseId = migrationPhaseId;
+    }
+
+    public LocalDate getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDate timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getStorageDomain() {
+        return storageDomain;
+    }
+
+    public void setStorageDomain(String storageDomain) {
+        this.storageDomain = storageDomain;
+    }
+
+    public String getTapePartition() {
+        return tapePartition;
+    }
+
+    public void setTapePartition(String tapePartition) {
+        this.tapePartition = tapePartition;
+    }
+
+    public long getTapeCount() {
+        return tapeCount;
+    }
+
+    public void setTapeCount(long tapeCount) {
+        this.tapeCount = tapeCount;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+}
@@ -6,11 +6,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -177,6 +179,24 @@ public class BucketDataRepository {
         return data;
     }
 
+    /**
+     * Insert new bucket data in one transaction (batched; no existence check per row)
+     */
+    @Transactional
+    public void insertAll(List<BucketData> data) {
+        List<Object[]> args = new ArrayList<>(data.size());
+        for (BucketData item : data) {
+            args.add(new Object[]{
+                item.getId(), item.getCreatedAt().toString(), item.getLastUpdated().toString(), item.getTimestamp().toString(),
+                item.getMigrationPhaseId(), item.getBucketName(), item.getSource(), item.getStorageDomain(),
+                item.getObjectCount(), item.getSizeBytes(), item.getUserId()
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO bucket_data (id, created_at, last_updated, timestamp, migration_phase_id, bucket_name, source, storage_domain, object_count, size_bytes, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            args);
+    }
+
     public void deleteByPhaseId(String phaseId) {
         jdbcTemplate.update("DELETE FROM bucket_data WHERE migration_phase_id = ?", phaseId);
     }
@@ -0,0 +1,94 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.BucketSizeHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-bucket blob size histograms, recorded by full gathers
+ */
+@Repository
+public class BucketSizeHistogramRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(BucketSizeHistogramRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public BucketSizeHistogramRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTableExists() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS bucket_size_histogram (" +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  timestamp TEXT NOT NULL," +
+                "  storage_domain TEXT NOT NULL," +
+                "  bucket_name TEXT NOT NULL," +
+                "  histogram TEXT NOT NULL," +
+                "  PRIMARY KEY (migration_phase_id, timestamp, storage_domain, bucket_name)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring bucket_size_histogram table exists: {}", e.getMessage(), e);
+        }
+    }
+
+    public List<BucketSizeHistogram> findByPhaseIdAndTimestamp(String phaseId, LocalDate timestamp) {
+        return jdbcTemplate.query(
+            "SELECT * FROM bucket_size_histogram WHERE migration_phase_id = ? AND timestamp = ? ORDER BY storage_domain, bucket_name",
+            (rs, rowNum) -> {
+                BucketSizeHistogram histogram = new BucketSizeHistogram();
+                histogram.setMigrationPhaseId(rs.getString("migration_phase_id"));
+                histogram.setTimestamp(LocalDate.parse(rs.getString("timestamp")));
+                histogram.setStorageDomain(rs.getString("storage_domain"));
+                histogram.setBucketName(rs.getString("bucket_name"));
+                histogram.setHistogram(rs.getString("histogram"));
+                return histogram;
+            },
+            phaseId,
+            timestamp.toString()
+        );
+    }
+
+    /**
+     * Latest date of a phase with histograms, or null
+     */
+    public LocalDate findLatestTimestamp(String phaseId) {
+        String timestamp = jdbcTemplate.queryForObject(
+            "SELECT MAX(timestamp) FROM bucket_size_histogram WHERE migration_phase_id = ?", String.class, phaseId);
+        return timestamp != null ? LocalDate.parse(timestamp) : null;
+    }
+
+    /**
+     * Store a gather's histograms, replacing any for the same phase/date/storage domain/bucket
+     */
+    @Transactional
+    public void saveAll(List<BucketSizeHistogram> histograms) {
+        List<Object[]> args = new ArrayList<>(histograms.size());
+        for (BucketSizeHistogram histogram : histograms) {
+            args.add(new Object[]{histogram.getMigrationPhaseId(), histogram.getTimestamp().toString(),
+                histogram.getStorageDomain(), histogram.getBucketName(), histogram.getHistogram()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO bucket_size_histogram (migration_phase_id, timestamp, storage_domain, bucket_name, histogram) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            args);
+    }
+
+    public void deleteByPhaseIdAndTimestamp(String phaseId, LocalDate timestamp) {
+        jdbcTemplate.update(
+            "DELETE FROM bucket_size_histogram WHERE migration_phase_id = ? AND timestamp = ?",
+            phaseId,
+            timestamp.toString()
+        );
+    }
+}
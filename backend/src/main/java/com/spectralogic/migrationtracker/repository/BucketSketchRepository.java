@@ -0,0 +1,96 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.BucketSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-bucket HyperLogLog sketches of object ids, recorded by gathers in sketch mode
+ */
+@Repository
+public class BucketSketchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(BucketSketchRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public BucketSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTableExists() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS bucket_sketch (" +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  timestamp TEXT NOT NULL," +
+                "  storage_domain TEXT NOT NULL," +
+                "  bucket_name TEXT NOT NULL," +
+                "  precision INTEGER NOT NULL," +
+                "  registers BLOB NOT NULL," +
+                "  PRIMARY KEY (migration_phase_id, timestamp, storage_domain, bucket_name)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring bucket_sketch table exists: {}", e.getMessage(), e);
+        }
+    }
+
+    public List<BucketSketch> findByPhaseIdAndTimestamp(String phaseId, LocalDate timestamp) {
+        return jdbcTemplate.query(
+            "SELECT * FROM bucket_sketch WHERE migration_phase_id = ? AND timestamp = ? ORDER BY storage_domain, bucket_name",
+            (rs, rowNum) -> {
+                BucketSketch sketch = new BucketSketch();
+                sketch.setMigrationPhaseId(rs.getString("migration_phase_id"));
+                sketch.setTimestamp(LocalDate.parse(rs.getString("timestamp")));
+                sketch.setStorageDomain(rs.getString("storage_domain"));
+                sketch.setBucketName(rs.getString("bucket_name"));
+                sketch.setPrecision(rs.getInt("precision"));
+                sketch.setRegisters(rs.getBytes("registers"));
+                return sketch;
+            },
+            phaseId,
+            timestamp.toString()
+        );
+    }
+
+    /**
+     * Latest date of a phase with sketches, or null
+     */
+    public LocalDate findLatestTimestamp(String phaseId) {
+        String timestamp = jdbcTemplate.queryForObject(
+            "SELECT MAX(timestamp) FROM bucket_sketch WHERE migration_phase_id = ?", String.class, phaseId);
+        return timestamp != null ? LocalDate.parse(timestamp) : null;
+    }
+
+    /**
+     * Store a gather's sketches, replacing any for the same phase/date/storage domain/bucket
+     */
+    @Transactional
+    public void saveAll(List<BucketSketch> sketches) {
+        List<Object[]> args = new ArrayList<>(sketches.size());
+        for (BucketSketch sketch : sketches) {
+            args.add(new Object[]{sketch.getMigrationPhaseId(), sketch.getTimestamp().toString(), sketch.getStorageDomain(),
+                sketch.getBucketName(), sketch.getPrecision(), sketch.getRegisters()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO bucket_sketch (migration_phase_id, timestamp, storage_domain, bucket_name, precision, registers) " +
+            "VALUES (?, ?, ?, ?, ?, ?)",
+            args);
+    }
+
+    public void deleteByPhaseIdAndTimestamp(String phaseId, LocalDate timestamp) {
+        jdbcTemplate.update(
+            "DELETE FROM bucket_sketch WHERE migration_phase_id = ? AND timestamp = ?",
+            phaseId,
+            timestamp.toString()
+        );
+    }
+}
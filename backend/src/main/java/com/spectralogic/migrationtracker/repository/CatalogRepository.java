@@ -0,0 +1,227 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.api.dto.Bucket;
+import com.spectralogic.migrationtracker.api.dto.BucketPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * SQLite snapshot of a customer's PostgreSQL catalog (storage domains, buckets, tape partitions).
+ * Populated after a restore so UI endpoints don't have to query PostgreSQL.
+ */
+@Repository
+public class CatalogRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTablesExist() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS catalog_snapshot (" +
+                "  customer_id TEXT NOT NULL," +
+                "  database_type TEXT NOT NULL," +
+                "  database_name TEXT," +
+                "  captured_at TEXT NOT NULL," +
+                "  PRIMARY KEY (customer_id, database_type)" +
+                ")");
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS catalog_storage_domain (" +
+                "  customer_id TEXT NOT NULL," +
+                "  database_type TEXT NOT NULL," +
+                "  name TEXT NOT NULL," +
+                "  PRIMARY KEY (customer_id, database_type, name)" +
+                ")");
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS catalog_bucket (" +
+                "  customer_id TEXT NOT NULL," +
+                "  database_type TEXT NOT NULL," +
+                "  name TEXT NOT NULL," +
+                "  object_count INTEGER," +
+                "  size_bytes INTEGER," +
+                "  PRIMARY KEY (customer_id, database_type, name)" +
+                ")");
+            // Keyset pagination by size/count (the primary key covers pagination by name)
+            jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_catalog_bucket_size ON catalog_bucket (customer_id, database_type, size_bytes DESC, name)");
+            jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_catalog_bucket_count ON catalog_bucket (customer_id, database_type, object_count DESC, name)");
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS catalog_tape_partition (" +
+                "  customer_id TEXT NOT NULL," +
+                "  database_type TEXT NOT NULL," +
+                "  name TEXT NOT NULL," +
+                "  PRIMARY KEY (customer_id, database_type, name)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring catalog tables exist: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replace the snapshot for a customer/database type in one transaction
+     */
+    @Transactional
+    public void replaceSnapshot(String customerId, String databaseType, String databaseName,
+                                List<String> storageDomains, List<Bucket> buckets, List<String> tapePartitions) {
+        String type = databaseType.toLowerCase();
+        jdbcTemplate.update("DELETE FROM catalog_storage_domain WHERE customer_id = ? AND database_type = ?", customerId, type);
+        jdbcTemplate.update("DELETE FROM catalog_bucket WHERE customer_id = ? AND database_type = ?", customerId, type);
+        jdbcTemplate.update("DELETE FROM catalog_tape_partition WHERE customer_id = ? AND database_type = ?", customerId, type);
+
+        jdbcTemplate.batchUpdate(
+            "INSERT OR IGNORE INTO catalog_storage_domain (customer_id, database_type, name) VALUES (?, ?, ?)",
+            toNameArgs(customerId, type, storageDomains));
+        jdbcTemplate.batchUpdate(
+            "INSERT OR IGNORE INTO catalog_tape_partition (customer_id, database_type, name) VALUES (?, ?, ?)",
+            toNameArgs(customerId, type, tapePartitions));
+
+        List<Object[]> bucketArgs = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            bucketArgs.add(new Object[]{customerId, type, bucket.getName(), bucket.getObjectCount(), bucket.getSizeBytes()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO catalog_bucket (customer_id, database_type, name, object_count, size_bytes) VALUES (?, ?, ?, ?, ?)",
+            bucketArgs);
+
+        jdbcTemplate.update(
+            "INSERT OR REPLACE INTO catalog_snapshot (customer_id, database_type, database_name, captured_at) VALUES (?, ?, ?, ?)",
+            customerId, type, databaseName, LocalDateTime.now().toString());
+    }
+
+    /**
+     * When the snapshot for a customer/database type was captured, if there is one
+     */
+    public Optional<String> findSnapshotTime(String customerId, String databaseType) {
+        List<String> results = jdbcTemplate.query(
+            "SELECT captured_at FROM catalog_snapshot WHERE customer_id = ? AND database_type = ?",
+            (rs, rowNum) -> rs.getString("captured_at"),
+            customerId, databaseType.toLowerCase()
+        );
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    public List<String> findStorageDomains(String customerId, String databaseType) {
+        return jdbcTemplate.query(
+            "SELECT name FROM catalog_storage_domain WHERE customer_id = ? AND database_type = ? ORDER BY name COLLATE NOCASE",
+            (rs, rowNum) -> rs.getString("name"),
+            customerId, databaseType.toLowerCase()
+        );
+    }
+
+    public List<String> findTapePartitions(String customerId, String databaseType) {
+        return jdbcTemplate.query(
+            "SELECT name FROM catalog_tape_partition WHERE customer_id = ? AND database_type = ? ORDER BY name COLLATE NOCASE",
+            (rs, rowNum) -> rs.getString("name"),
+            customerId, databaseType.toLowerCase()
+        );
+    }
+
+    public List<Bucket> findBuckets(String customerId, String databaseType) {
+        String type = databaseType.toLowerCase();
+        return jdbcTemplate.query(
+            "SELECT name, object_count, size_bytes FROM catalog_bucket WHERE customer_id = ? AND database_type = ? ORDER BY name",
+            (rs, rowNum) -> new Bucket(rs.getString("name"), type, rs.getLong("object_count"), rs.getLong("size_bytes")),
+            customerId, type
+        );
+    }
+
+    public Optional<Bucket> findBucket(String customerId, String databaseType, String bucketName) {
+        String type = databaseType.toLowerCase();
+        List<Bucket> results = jdbcTemplate.query(
+            "SELECT name, object_count, size_bytes FROM catalog_bucket WHERE customer_id = ? AND database_type = ? AND name = ?",
+            (rs, rowNum) -> new Bucket(rs.getString("name"), type, rs.getLong("object_count"), rs.getLong("size_bytes")),
+            customerId, type, bucketName
+        );
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * One page of buckets, keyset-paginated: by name ascending, or by size/count descending with name as tie-breaker.
+     * afterName/afterValue are the last row of the previous page (null for the first page).
+     */
+    public List<Bucket> findBucketPage(String customerId, String databaseType, String prefix, BucketPage.Sort sort,
+                                       String afterName, Long afterValue, int limit) {
+        String type = databaseType.toLowerCase();
+        StringBuilder sql = new StringBuilder(
+            "SELECT name, object_count, size_bytes FROM catalog_bucket WHERE customer_id = ? AND database_type = ?");
+        List<Object> args = new ArrayList<>(List.of(customerId, type));
+        appendPrefixFilter(sql, args, prefix);
+
+        String sortColumn = sortColumn(sort);
+        if (afterName != null) {
+            if (sortColumn == null) {
+                sql.append(" AND name > ?");
+                args.add(afterName);
+            } else {
+                sql.append(" AND (").append(sortColumn).append(" < ? OR (").append(sortColumn).append(" = ? AND name > ?))");
+                args.add(afterValue);
+                args.add(afterValue);
+                args.add(afterName);
+            }
+        }
+        sql.append(sortColumn == null ? " ORDER BY name" : " ORDER BY " + sortColumn + " DESC, name");
+        sql.append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(),
+            (rs, rowNum) -> new Bucket(rs.getString("name"), type, rs.getLong("object_count"), rs.getLong("size_bytes")),
+            args.toArray());
+    }
+
+    /**
+     * Number of buckets in the snapshot, optionally only those starting with a prefix
+     */
+    public long countBuckets(String customerId, String databaseType, String prefix) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM catalog_bucket WHERE customer_id = ? AND database_type = ?");
+        List<Object> args = new ArrayList<>(List.of(customerId, databaseType.toLowerCase()));
+        appendPrefixFilter(sql, args, prefix);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Case-sensitive prefix match; the name >= prefix bound lets SQLite use the primary key range
+     */
+    private void appendPrefixFilter(StringBuilder sql, List<Object> args, String prefix) {
+        if (prefix != null && !prefix.isEmpty()) {
+            sql.append(" AND name >= ? AND substr(name, 1, ?) = ?");
+            args.add(prefix);
+            args.add(prefix.codePointCount(0, prefix.length()));
+            args.add(prefix);
+        }
+    }
+
+    private String sortColumn(BucketPage.Sort sort) {
+        switch (sort) {
+            case SIZE:
+                return "size_bytes";
+            case COUNT:
+                return "object_count";
+            default:
+                return null;
+        }
+    }
+
+    private List<Object[]> toNameArgs(String customerId, String databaseType, List<String> names) {
+        List<Object[]> args = new ArrayList<>(names.size());
+        for (String name : names) {
+            args.add(new Object[]{customerId, databaseType, name});
+        }
+        return args;
+    }
+}
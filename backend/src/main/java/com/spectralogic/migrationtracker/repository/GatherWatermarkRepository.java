@@ -0,0 +1,123 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.GatherBaseline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * High-water marks for incremental gathers: the last totals per (phase, storage domain, bucket)
+ * and, per tape, the highest blob_tape.order_index already counted.
+ */
+@Repository
+public class GatherWatermarkRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatherWatermarkRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public GatherWatermarkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTablesExist() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS gather_baseline (" +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  storage_domain TEXT NOT NULL," +
+                "  bucket_name TEXT NOT NULL," +
+                "  object_count INTEGER NOT NULL," +
+                "  size_bytes INTEGER NOT NULL," +
+                "  gathered_on TEXT NOT NULL," +
+                "  full_gathered_on TEXT NOT NULL," +
+                "  PRIMARY KEY (migration_phase_id, storage_domain, bucket_name)" +
+                ")");
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS gather_watermark (" +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  storage_domain TEXT NOT NULL," +
+                "  bucket_name TEXT NOT NULL," +
+                "  tape_id TEXT NOT NULL," +
+                "  max_order_index INTEGER NOT NULL," +
+                "  PRIMARY KEY (migration_phase_id, storage_domain, bucket_name, tape_id)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring gather watermark tables exist: {}", e.getMessage(), e);
+        }
+    }
+
+    public Optional<GatherBaseline> findBaseline(String phaseId, String storageDomain, String bucketName) {
+        List<GatherBaseline> results = jdbcTemplate.query(
+            "SELECT * FROM gather_baseline WHERE migration_phase_id = ? AND storage_domain = ? AND bucket_name = ?",
+            (rs, rowNum) -> {
+                GatherBaseline baseline = new GatherBaseline();
+                baseline.setMigrationPhaseId(rs.getString("migration_phase_id"));
+                baseline.setStorageDomain(rs.getString("storage_domain"));
+                baseline.setBucketName(rs.getString("bucket_name"));
+                baseline.setObjectCount(rs.getLong("object_count"));
+                baseline.setSizeBytes(rs.getLong("size_bytes"));
+                baseline.setGatheredOn(LocalDate.parse(rs.getString("gathered_on")));
+                baseline.setFullGatheredOn(LocalDate.parse(rs.getString("full_gathered_on")));
+                return baseline;
+            },
+            phaseId, storageDomain, bucketName
+        );
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * tape id -> highest blob_tape.order_index counted so far
+     */
+    public Map<String, Long> findWatermarks(String phaseId, String storageDomain, String bucketName) {
+        Map<String, Long> marks = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT tape_id, max_order_index FROM gather_watermark WHERE migration_phase_id = ? AND storage_domain = ? AND bucket_name = ?",
+            rs -> {
+                marks.put(rs.getString("tape_id"), rs.getLong("max_order_index"));
+            },
+            phaseId, storageDomain, bucketName
+        );
+        return marks;
+    }
+
+    /**
+     * Save the baseline and watermarks. A full gather replaces all watermarks; an incremental one only advances them.
+     */
+    @Transactional
+    public void save(GatherBaseline baseline, Map<String, Long> marks, boolean replaceMarks) {
+        if (replaceMarks) {
+            jdbcTemplate.update(
+                "DELETE FROM gather_watermark WHERE migration_phase_id = ? AND storage_domain = ? AND bucket_name = ?",
+                baseline.getMigrationPhaseId(), baseline.getStorageDomain(), baseline.getBucketName());
+        }
+
+        List<Object[]> args = new ArrayList<>(marks.size());
+        for (Map.Entry<String, Long> mark : marks.entrySet()) {
+            args.add(new Object[]{baseline.getMigrationPhaseId(), baseline.getStorageDomain(), baseline.getBucketName(),
+                mark.getKey(), mark.getValue()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO gather_watermark (migration_phase_id, storage_domain, bucket_name, tape_id, max_order_index) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            args);
+
+        jdbcTemplate.update(
+            "INSERT OR REPLACE INTO gather_baseline " +
+            "(migration_phase_id, storage_domain, bucket_name, object_count, size_bytes, gathered_on, full_gathered_on) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            baseline.getMigrationPhaseId(), baseline.getStorageDomain(), baseline.getBucketName(),
+            baseline.getObjectCount(), baseline.getSizeBytes(),
+            baseline.getGatheredOn().toString(), baseline.getFullGatheredOn().toString());
+    }
+}
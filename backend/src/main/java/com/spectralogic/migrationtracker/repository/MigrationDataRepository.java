@@ -4,10 +4,12 @@ import com.spectralogic.migrationtracker.model.MigrationData;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -177,6 +179,27 @@ public class MigrationDataRepository {
         return data;
     }
     
+    /**
+     * Insert new data points in one transaction (batched; no existence check per row)
+     */
+    @Transactional
+    public void insertAll(List<MigrationData> data) {
+        ensureColumnsExist();
+        List<Object[]> args = new ArrayList<>(data.size());
+        for (MigrationData item : data) {
+            args.add(new Object[]{
+                item.getId(), item.getCreatedAt(), item.getLastUpdated(), item.getTimestamp(), item.getMigrationPhaseId(),
+                item.getUserId(), item.getSourceObjects(), item.getSourceSize(), item.getTargetObjects(), item.getTargetSize(),
+                item.getSourceTapeCount() != null ? item.getSourceTapeCount() : 0L,
+                item.getTargetTapeCount() != null ? item.getTargetTapeCount() : 0L,
+                item.getType(), item.getTargetScratchTapes()
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO migration_data (id, created_at, last_updated, timestamp, migration_phase_id, user_id, source_objects, source_size, target_objects, target_size, source_tape_count, target_tape_count, type, target_scratch_tapes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            args);
+    }
+
     private void ensureColumnsExist() {
         try {
             // Check if source_tape_count column exists
@@ -0,0 +1,153 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.ReconciliationBucket;
+import com.spectralogic.migrationtracker.model.ReconciliationRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finished reconciliation runs and their per-bucket differences
+ */
+@Repository
+public class ReconciliationRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<ReconciliationRun> RUN_MAPPER = (rs, rowNum) -> {
+        ReconciliationRun run = new ReconciliationRun();
+        run.setId(rs.getString("id"));
+        run.setMigrationPhaseId(rs.getString("migration_phase_id"));
+        run.setSourceDomain(rs.getString("source_domain"));
+        run.setTargetDomain(rs.getString("target_domain"));
+        run.setStatus(rs.getString("status"));
+        run.setStartedAt(LocalDateTime.parse(rs.getString("started_at")));
+        run.setFinishedAt(LocalDateTime.parse(rs.getString("finished_at")));
+        run.setSourceObjects(rs.getLong("source_objects"));
+        run.setTargetObjects(rs.getLong("target_objects"));
+        run.setMatched(rs.getLong("matched"));
+        run.setMissing(rs.getLong("missing"));
+        run.setExtra(rs.getLong("extra"));
+        run.setSizeMismatch(rs.getLong("size_mismatch"));
+        run.setMissingBytes(rs.getLong("missing_bytes"));
+        run.setSpillFile(rs.getString("spill_file"));
+        run.setError(rs.getString("error"));
+        return run;
+    };
+
+    public ReconciliationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTablesExist() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS reconciliation_run (" +
+                "  id TEXT PRIMARY KEY," +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  source_domain TEXT NOT NULL," +
+                "  target_domain TEXT NOT NULL," +
+                "  status TEXT NOT NULL," +
+                "  started_at TEXT NOT NULL," +
+                "  finished_at TEXT NOT NULL," +
+                "  source_objects INTEGER NOT NULL," +
+                "  target_objects INTEGER NOT NULL," +
+                "  matched INTEGER NOT NULL," +
+                "  missing INTEGER NOT NULL," +
+                "  extra INTEGER NOT NULL," +
+                "  size_mismatch INTEGER NOT NULL," +
+                "  missing_bytes INTEGER NOT NULL," +
+                "  spill_file TEXT," +
+                "  error TEXT" +
+                ")");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reconciliation_run_phase ON reconciliation_run(migration_phase_id, started_at)");
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS reconciliation_bucket (" +
+                "  run_id TEXT NOT NULL," +
+                "  bucket_name TEXT NOT NULL," +
+                "  matched INTEGER NOT NULL," +
+                "  missing INTEGER NOT NULL," +
+                "  extra INTEGER NOT NULL," +
+                "  size_mismatch INTEGER NOT NULL," +
+                "  missing_bytes INTEGER NOT NULL," +
+                "  PRIMARY KEY (run_id, bucket_name)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring reconciliation tables exist: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Store a finished run with its bucket rows
+     */
+    @Transactional
+    public void save(ReconciliationRun run, List<ReconciliationBucket> buckets) {
+        jdbcTemplate.update(
+            "INSERT OR REPLACE INTO reconciliation_run (id, migration_phase_id, source_domain, target_domain, status, started_at, " +
+            "finished_at, source_objects, target_objects, matched, missing, extra, size_mismatch, missing_bytes, spill_file, error) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            run.getId(), run.getMigrationPhaseId(), run.getSourceDomain(), run.getTargetDomain(), run.getStatus(),
+            run.getStartedAt().toString(), run.getFinishedAt().toString(), run.getSourceObjects(), run.getTargetObjects(),
+            run.getMatched(), run.getMissing(), run.getExtra(), run.getSizeMismatch(), run.getMissingBytes(),
+            run.getSpillFile(), run.getError());
+        List<Object[]> args = new ArrayList<>(buckets.size());
+        for (ReconciliationBucket bucket : buckets) {
+            args.add(new Object[]{run.getId(), bucket.getBucketName(), bucket.getMatched(), bucket.getMissing(),
+                bucket.getExtra(), bucket.getSizeMismatch(), bucket.getMissingBytes()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO reconciliation_bucket (run_id, bucket_name, matched, missing, extra, size_mismatch, missing_bytes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            args);
+    }
+
+    public Optional<ReconciliationRun> findById(String id) {
+        List<ReconciliationRun> runs = jdbcTemplate.query("SELECT * FROM reconciliation_run WHERE id = ?", RUN_MAPPER, id);
+        return runs.isEmpty() ? Optional.empty() : Optional.of(runs.get(0));
+    }
+
+    /**
+     * Runs of a phase, newest first
+     */
+    public List<ReconciliationRun> findByPhaseId(String phaseId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM reconciliation_run WHERE migration_phase_id = ? ORDER BY started_at DESC", RUN_MAPPER, phaseId);
+    }
+
+    /**
+     * Buckets of a run, the ones with the most missing objects first
+     */
+    public List<ReconciliationBucket> findBuckets(String runId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM reconciliation_bucket WHERE run_id = ? ORDER BY missing DESC, size_mismatch DESC, bucket_name",
+            (rs, rowNum) -> {
+                ReconciliationBucket bucket = new ReconciliationBucket();
+                bucket.setRunId(rs.getString("run_id"));
+                bucket.setBucketName(rs.getString("bucket_name"));
+                bucket.setMatched(rs.getLong("matched"));
+                bucket.setMissing(rs.getLong("missing"));
+                bucket.setExtra(rs.getLong("extra"));
+                bucket.setSizeMismatch(rs.getLong("size_mismatch"));
+                bucket.setMissingBytes(rs.getLong("missing_bytes"));
+                return bucket;
+            },
+            runId);
+    }
+
+    @Transactional
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM reconciliation_bucket WHERE run_id = ?", id);
+        jdbcTemplate.update("DELETE FROM reconciliation_run WHERE id = ?", id);
+    }
+}
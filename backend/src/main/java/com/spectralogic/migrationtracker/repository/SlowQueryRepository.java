@@ -0,0 +1,93 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.SlowQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Slow customer database statements and their query plans, kept so plans can be compared across gathers and restores
+ */
+@Repository
+public class SlowQueryRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<SlowQuery> ROW_MAPPER = (rs, rowNum) -> {
+        SlowQuery query = new SlowQuery();
+        query.setId(rs.getString("id"));
+        query.setCapturedAt(LocalDateTime.parse(rs.getString("captured_at")));
+        query.setDatabaseKey(rs.getString("database_key"));
+        query.setStatementHash(rs.getString("statement_hash"));
+        query.setStatement(rs.getString("statement"));
+        query.setElapsedMillis(rs.getLong("elapsed_ms"));
+        query.setRowCount(rs.getLong("row_count"));
+        query.setPlan(rs.getString("plan"));
+        return query;
+    };
+
+    public SlowQueryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTableExists() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS slow_query (" +
+                "  id TEXT PRIMARY KEY," +
+                "  captured_at TEXT NOT NULL," +
+                "  database_key TEXT NOT NULL," +
+                "  statement_hash TEXT NOT NULL," +
+                "  statement TEXT NOT NULL," +
+                "  elapsed_ms INTEGER NOT NULL," +
+                "  row_count INTEGER NOT NULL," +
+                "  plan TEXT" +
+                ")");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_slow_query_captured ON slow_query(captured_at)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_slow_query_statement ON slow_query(statement_hash, captured_at)");
+        } catch (Exception e) {
+            logger.error("Error ensuring slow_query table exists: {}", e.getMessage(), e);
+        }
+    }
+
+    public SlowQuery save(SlowQuery query) {
+        if (query.getId() == null) {
+            query.setId(UUID.randomUUID().toString());
+        }
+        jdbcTemplate.update(
+            "INSERT INTO slow_query (id, captured_at, database_key, statement_hash, statement, elapsed_ms, row_count, plan) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            query.getId(), query.getCapturedAt().toString(), query.getDatabaseKey(), query.getStatementHash(),
+            query.getStatement(), query.getElapsedMillis(), query.getRowCount(), query.getPlan());
+        return query;
+    }
+
+    /**
+     * Most recent slow queries first, optionally only those of one statement
+     */
+    public List<SlowQuery> findRecent(String statementHash, int limit) {
+        if (statementHash != null) {
+            return jdbcTemplate.query(
+                "SELECT * FROM slow_query WHERE statement_hash = ? ORDER BY captured_at DESC LIMIT ?",
+                ROW_MAPPER, statementHash, limit);
+        }
+        return jdbcTemplate.query("SELECT * FROM slow_query ORDER BY captured_at DESC LIMIT ?", ROW_MAPPER, limit);
+    }
+
+    /**
+     * Keep only the newest rows
+     */
+    public int prune(int keep) {
+        return jdbcTemplate.update(
+            "DELETE FROM slow_query WHERE id NOT IN (SELECT id FROM slow_query ORDER BY captured_at DESC LIMIT ?)", keep);
+    }
+}
@@ -0,0 +1,87 @@
+package com.spectralogic.migrationtracker.repository;
+
+import com.spectralogic.migrationtracker.model.TapePartitionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-tape-partition tape counts and bytes recorded by each gather
+ */
+@Repository
+public class TapePartitionDataRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TapePartitionDataRepository.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public TapePartitionDataRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureTableExists() {
+        try {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS tape_partition_data (" +
+                "  migration_phase_id TEXT NOT NULL," +
+                "  timestamp TEXT NOT NULL," +
+                "  storage_domain TEXT NOT NULL," +
+                "  tape_partition TEXT NOT NULL," +
+                "  tape_count INTEGER NOT NULL," +
+                "  size_bytes INTEGER," +
+                "  PRIMARY KEY (migration_phase_id, timestamp, storage_domain, tape_partition)" +
+                ")");
+        } catch (Exception e) {
+            logger.error("Error ensuring tape_partition_data table exists: {}", e.getMessage(), e);
+        }
+    }
+
+    public List<TapePartitionData> findByPhaseId(String phaseId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM tape_partition_data WHERE migration_phase_id = ? ORDER BY timestamp DESC, storage_domain, tape_partition",
+            (rs, rowNum) -> {
+                TapePartitionData data = new TapePartitionData();
+                data.setMigrationPhaseId(rs.getString("migration_phase_id"));
+                data.setTimestamp(LocalDate.parse(rs.getString("timestamp")));
+                data.setStorageDomain(rs.getString("storage_domain"));
+                data.setTapePartition(rs.getString("tape_partition"));
+                data.setTapeCount(rs.getLong("tape_count"));
+                long sizeBytes = rs.getLong("size_bytes");
+                data.setSizeBytes(rs.wasNull() ? null : sizeBytes);
+                return data;
+            },
+            phaseId
+        );
+    }
+
+    /**
+     * Store a gather's partition rows, replacing any for the same phase/date/storage domain/partition
+     */
+    @Transactional
+    public void saveAll(List<TapePartitionData> data) {
+        List<Object[]> args = new ArrayList<>(data.size());
+        for (TapePartitionData item : data) {
+            args.add(new Object[]{item.getMigrationPhaseId(), item.getTimestamp().toString(), item.getStorageDomain(),
+                item.getTapePartition(), item.getTapeCount(), item.getSizeBytes()});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT OR REPLACE INTO tape_partition_data (migration_phase_id, timestamp, storage_domain, tape_partition, tape_count, size_bytes) " +
+            "VALUES (?, ?, ?, ?, ?, ?)",
+            args);
+    }
+
+    public void deleteByPhaseIdAndTimestamp(String phaseId, LocalDate timestamp) {
+        jdbcTemplate.update(
+            "DELETE FROM tape_partition_data WHERE migration_phase_id = ? AND timestamp = ?",
+            phaseId,
+            timestamp.toString()
+        );
+    }
+}
@@ -1,54 +1,56 @@
 package com.spectralogic.migrationtracker.service;
 
 import com.spectralogic.migrationtracker.api.dto.Bucket;
+import com.spectralogic.migrationtracker.api.dto.BucketPage;
 import com.spectralogic.migrationtracker.config.PostgreSQLConfig;
 import com.spectralogic.migrationtracker.model.Customer;
+import com.spectralogic.migrationtracker.repository.CatalogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class BucketService {
 
     private static final Logger logger = LoggerFactory.getLogger(BucketService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
     private final PostgreSQLConfig postgresConfig;
     private final CustomerService customerService;
+    private final CatalogRepository catalogRepository;
+    private final QueryOperationService queryOperationService;
+    private final CustomerDatabaseConnector customerDatabaseConnector;
+    private final PostRestoreOptimizer postRestoreOptimizer;
 
-    @Value("${postgres.blackpearl.host:localhost}")
-    private String blackpearlHost;
+    @Value("${migration.buckets.estimate-sample-pages:2000}")
+    private int estimateSamplePages;
 
-    @Value("${postgres.blackpearl.port:5432}")
-    private int blackpearlPort;
+    @Value("${migration.buckets.query-timeout:300}")
+    private int listingQueryTimeout;
 
-    @Value("${postgres.blackpearl.username:postgres}")
-    private String blackpearlUsername;
-
-    @Value("${postgres.blackpearl.password:}")
-    private String blackpearlPassword;
-
-    @Value("${postgres.rio.host:localhost}")
-    private String rioHost;
-
-    @Value("${postgres.rio.port:5432}")
-    private int rioPort;
-
-    @Value("${postgres.rio.username:postgres}")
-    private String rioUsername;
-
-    @Value("${postgres.rio.password:}")
-    private String rioPassword;
-
-    public BucketService(PostgreSQLConfig postgresConfig, CustomerService customerService) {
+    public BucketService(PostgreSQLConfig postgresConfig, CustomerService customerService, CatalogRepository catalogRepository,
+                         QueryOperationService queryOperationService, CustomerDatabaseConnector customerDatabaseConnector,
+                         PostRestoreOptimizer postRestoreOptimizer) {
         this.postgresConfig = postgresConfig;
         this.customerService = customerService;
+        this.catalogRepository = catalogRepository;
+        this.queryOperationService = queryOperationService;
+        this.customerDatabaseConnector = customerDatabaseConnector;
+        this.postRestoreOptimizer = postRestoreOptimizer;
     }
 
     public List<Bucket> getBlackPearlBuckets() {
@@ -234,82 +236,100 @@ public class BucketService {
     }
 
     /**
-     * Get buckets for a specific customer from their customer-specific database
+     * Get buckets for a specific customer
+     * Served from the SQLite catalog snapshot taken after restore; queries PostgreSQL only if there is no snapshot
      */
     public List<Bucket> getBucketsForCustomer(String customerId, String databaseType) {
+        return getBucketsForCustomer(customerId, databaseType, false);
+    }
+
+    /**
+     * Get buckets for a specific customer, optionally estimating counts/sizes instead of aggregating them
+     * when PostgreSQL has to be queried. Catalog snapshots are exact and always preferred.
+     */
+    public List<Bucket> getBucketsForCustomer(String customerId, String databaseType, boolean estimate) {
+        if (catalogRepository.findSnapshotTime(customerId, databaseType).isPresent()) {
+            logger.debug("Serving buckets for customer {} ({}) from catalog", customerId, databaseType);
+            return catalogRepository.findBuckets(customerId, databaseType);
+        }
+        logger.info("No catalog snapshot for customer {} ({}), querying PostgreSQL{}", customerId, databaseType,
+            estimate ? " (estimate)" : "");
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("List buckets for customer " + customerId, listingQueryTimeout)) {
+            return estimate ? estimateBucketsForCustomer(customerId, databaseType) : queryBucketsForCustomer(customerId, databaseType);
+        }
+    }
+
+    /**
+     * Get buckets for a specific customer from their customer-specific database
+     */
+    public List<Bucket> queryBucketsForCustomer(String customerId, String databaseType) {
+        try {
+            return queryBuckets(customerId, databaseType, false);
+        } catch (Exception e) {
+            logger.error("Error fetching buckets for customer {}: {}", customerId, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Buckets for the catalog snapshot: throws instead of returning a partial or empty list when the database
+     * can't be reached or the bucket query fails or times out. Only a missing ds3.bucket table falls back to the
+     * other table patterns.
+     */
+    public List<Bucket> queryBucketsForCatalog(String customerId, String databaseType) {
+        return queryBuckets(customerId, databaseType, true);
+    }
+
+    /**
+     * @param strict throw on failures rather than logging them and returning what was found
+     */
+    private List<Bucket> queryBuckets(String customerId, String databaseType, boolean strict) {
         List<Bucket> buckets = new ArrayList<>();
+
+        JdbcTemplate jdbc = connectToCustomerDatabase(customerId, databaseType);
+        if (jdbc == null) {
+            if (strict) {
+                throw new IllegalStateException("Could not connect to the " + databaseType + " database for customer " + customerId);
+            }
+            return buckets; // Return empty list
+        }
+
+        // Query buckets - try multiple patterns
+        List<Map<String, Object>> results = new ArrayList<>();
         
+        // Try 1: ds3.bucket with ds3.s3_object and ds3.blob (most accurate for BlackPearl),
+        // precomputed by the post-restore summary where the restored copy has one
+        String ds3Query = postRestoreOptimizer.hasBucketSummary(jdbc)
+            ? "SELECT name, object_count, size_bytes FROM " + PostRestoreOptimizer.BUCKET_SUMMARY + " ORDER BY name"
+            : "SELECT b.name, COUNT(DISTINCT so.id) as object_count, COALESCE(SUM(bl.length), 0) as size_bytes " +
+              "FROM ds3.bucket b " +
+              "LEFT JOIN ds3.s3_object so ON so.bucket_id = b.id " +
+              "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
+              "GROUP BY b.name ORDER BY b.name";
         try {
-            Customer customer = customerService.findById(customerId);
-            String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
-            
-            // Construct customer-specific database name
-            String databaseName;
-            String host;
-            int port;
-            String username;
-            String password;
-            
-            if (databaseType.equalsIgnoreCase("blackpearl")) {
-                databaseName = "tapesystem_" + customerName;
-                host = blackpearlHost;
-                port = blackpearlPort;
-                username = blackpearlUsername;
-                password = blackpearlPassword != null ? blackpearlPassword : "";
-            } else {
-                databaseName = "rio_db_" + customerName;
-                host = rioHost;
-                port = rioPort;
-                username = rioUsername;
-                password = rioPassword != null ? rioPassword : "";
-            }
-            
-            logger.info("Querying buckets from {} database: {}@{}:{}/{}", 
-                databaseType, username, host, port, databaseName);
-            
-            // Create data source for customer-specific database
-            DriverManagerDataSource dataSource = new DriverManagerDataSource();
-            dataSource.setDriverClassName("org.postgresql.Driver");
-            dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName));
-            dataSource.setUsername(username);
-            dataSource.setPassword(password);
-            
-            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
-            
-            // Try customer-specific database first, fallback to generic
-            String actualDatabaseName = databaseName;
-            try {
-                jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                logger.debug("Successfully connected to customer-specific database: {}", databaseName);
-            } catch (Exception e) {
-                logger.warn("Cannot connect to customer-specific database {}: {}. Trying generic database as fallback.", databaseName, e.getMessage());
-                String genericDatabaseName = databaseType.equalsIgnoreCase("blackpearl") ? "tapesystem" : "rio_db";
-                try {
-                    dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, genericDatabaseName));
-                    jdbc = new JdbcTemplate(dataSource);
-                    jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                    actualDatabaseName = genericDatabaseName;
-                    logger.info("Successfully connected to generic database: {}. Using this for bucket queries.", genericDatabaseName);
-                } catch (Exception e2) {
-                    logger.error("Cannot connect to either customer-specific database {} or generic database {}: {}. Please ensure the database has been restored.", 
-                        databaseName, genericDatabaseName, e2.getMessage());
-                    return buckets; // Return empty list
+            results = jdbc.query(
+                ds3Query,
+                (rs, rowNum) -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("name", rs.getString("name"));
+                    row.put("objectCount", rs.getLong("object_count"));
+                    row.put("sizeBytes", rs.getLong("size_bytes"));
+                    return row;
                 }
+            );
+            logger.info("Successfully queried buckets from ds3.bucket: {} buckets found", results.size());
+        } catch (RuntimeException e) {
+            if (strict && !isUndefinedTable(e)) {
+                throw e;
             }
+            logger.debug("Query ds3.bucket failed: {}", e.getMessage());
             
-            logger.info("Querying buckets from database: {}@{}:{}/{}", username, host, port, actualDatabaseName);
-            
-            // Query buckets - try multiple patterns
-            List<Map<String, Object>> results = new ArrayList<>();
-            
-            // Try 1: ds3.bucket with ds3.s3_object and ds3.blob (most accurate for BlackPearl)
+            // Try 2: Direct buckets table
             try {
                 results = jdbc.query(
-                    "SELECT b.name, COUNT(DISTINCT so.id) as object_count, COALESCE(SUM(bl.length), 0) as size_bytes " +
-                    "FROM ds3.bucket b " +
-                    "LEFT JOIN ds3.s3_object so ON so.bucket_id = b.id " +
-                    "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
-                    "GROUP BY b.name ORDER BY b.name",
+                    "SELECT name, COALESCE(object_count, 0) as object_count, COALESCE(size_bytes, 0) as size_bytes " +
+                    "FROM buckets ORDER BY name",
                     (rs, rowNum) -> {
                         Map<String, Object> row = new HashMap<>();
                         row.put("name", rs.getString("name"));
@@ -318,15 +338,15 @@ public class BucketService {
                         return row;
                     }
                 );
-                logger.info("Successfully queried buckets from ds3.bucket: {} buckets found", results.size());
-            } catch (Exception e) {
-                logger.debug("Query ds3.bucket failed: {}", e.getMessage());
+                logger.info("Successfully queried buckets from 'buckets' table: {} buckets found", results.size());
+            } catch (Exception e2) {
+                logger.debug("Query buckets table failed: {}", e2.getMessage());
                 
-                // Try 2: Direct buckets table
+                // Try 3: Aggregate from objects table
                 try {
                     results = jdbc.query(
-                        "SELECT name, COALESCE(object_count, 0) as object_count, COALESCE(size_bytes, 0) as size_bytes " +
-                        "FROM buckets ORDER BY name",
+                        "SELECT bucket_name as name, COUNT(*) as object_count, SUM(size) as size_bytes " +
+                        "FROM objects GROUP BY bucket_name ORDER BY bucket_name",
                         (rs, rowNum) -> {
                             Map<String, Object> row = new HashMap<>();
                             row.put("name", rs.getString("name"));
@@ -335,53 +355,387 @@ public class BucketService {
                             return row;
                         }
                     );
-                    logger.info("Successfully queried buckets from 'buckets' table: {} buckets found", results.size());
-                } catch (Exception e2) {
-                    logger.debug("Query buckets table failed: {}", e2.getMessage());
-                    
-                    // Try 3: Aggregate from objects table
-                    try {
-                        results = jdbc.query(
-                            "SELECT bucket_name as name, COUNT(*) as object_count, SUM(size) as size_bytes " +
-                            "FROM objects GROUP BY bucket_name ORDER BY bucket_name",
-                            (rs, rowNum) -> {
-                                Map<String, Object> row = new HashMap<>();
-                                row.put("name", rs.getString("name"));
-                                row.put("objectCount", rs.getLong("object_count"));
-                                row.put("sizeBytes", rs.getLong("size_bytes"));
-                                return row;
-                            }
-                        );
-                        logger.info("Successfully queried buckets from 'objects' table: {} buckets found", results.size());
-                    } catch (Exception e3) {
-                        logger.error("All bucket query patterns failed for customer {}: {}", customerId, e3.getMessage());
+                    logger.info("Successfully queried buckets from 'objects' table: {} buckets found", results.size());
+                } catch (Exception e3) {
+                    if (strict) {
+                        throw new IllegalStateException("No bucket table found for customer " + customerId, e3);
                     }
+                    logger.error("All bucket query patterns failed for customer {}: {}", customerId, e3.getMessage());
                 }
             }
-            
-            for (Map<String, Object> row : results) {
-                Bucket bucket = new Bucket();
-                bucket.setName((String) row.get("name"));
-                bucket.setSource(databaseType.toLowerCase());
-                bucket.setObjectCount((Long) row.get("objectCount"));
-                bucket.setSizeBytes((Long) row.get("sizeBytes"));
-                buckets.add(bucket);
-            }
-        } catch (Exception e) {
-            logger.error("Error fetching buckets for customer {}: {}", customerId, e.getMessage(), e);
         }
         
+        for (Map<String, Object> row : results) {
+            Bucket bucket = new Bucket();
+            bucket.setName((String) row.get("name"));
+            bucket.setSource(databaseType.toLowerCase());
+            bucket.setObjectCount((Long) row.get("objectCount"));
+            bucket.setSizeBytes((Long) row.get("sizeBytes"));
+            buckets.add(bucket);
+        }
+
         return buckets;
     }
 
+    /**
+     * Whether a query failed because its table doesn't exist (SQLSTATE 42P01), i.e. another schema
+     */
+    private static boolean isUndefinedTable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && "42P01".equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One page of a customer's buckets, filtered by name prefix and sorted by name, size or object count.
+     * Served from the catalog snapshot; without one, queries PostgreSQL for just the requested page.
+     */
+    public BucketPage getBucketPage(String customerId, String databaseType, String prefix, String sort, String cursor,
+                                    int limit, boolean estimate) {
+        BucketPage.Sort pageSort = parseSort(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor, pageSort);
+        String namePrefix = prefix != null && !prefix.isEmpty() ? prefix : null;
+
+        BucketPage page = new BucketPage();
+        List<Bucket> rows;
+        // Fetch one extra row to know whether there is a next page
+        if (catalogRepository.findSnapshotTime(customerId, databaseType).isPresent()) {
+            rows = catalogRepository.findBucketPage(customerId, databaseType, namePrefix, pageSort,
+                after != null ? after.name : null, after != null ? after.value : null, pageSize + 1);
+            page.setTotalCount(catalogRepository.countBuckets(customerId, databaseType, namePrefix));
+            page.setSource("catalog");
+        } else {
+            logger.info("No catalog snapshot for customer {} ({}), querying PostgreSQL for a page of buckets", customerId, databaseType);
+            try (QueryOperationService.QueryOperation operation =
+                     queryOperationService.begin("List a page of buckets for customer " + customerId, listingQueryTimeout)) {
+                rows = estimate
+                    ? pageInMemory(estimateBucketsForCustomer(customerId, databaseType), namePrefix, pageSort, after, pageSize + 1)
+                    : queryBucketPage(customerId, databaseType, namePrefix, pageSort, after, pageSize + 1);
+            }
+            page.setSource("postgres");
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Bucket> buckets = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        page.setBuckets(buckets);
+        page.setHasMore(hasMore);
+        page.setNextCursor(hasMore ? PageCursor.of(buckets.get(buckets.size() - 1), pageSort).encode() : null);
+        page.setSort(pageSort);
+        page.setPrefix(namePrefix);
+        return page;
+    }
+
+    /**
+     * Query one page of buckets from PostgreSQL. Sorting by name only aggregates the buckets on the page;
+     * sorting by size/count has to aggregate every bucket but still returns only the page.
+     * Falls back to paging the full listing for databases without the ds3 schema.
+     */
+    private List<Bucket> queryBucketPage(String customerId, String databaseType, String prefix, BucketPage.Sort sort,
+                                         PageCursor after, int limit) {
+        JdbcTemplate jdbc = connectToCustomerDatabase(customerId, databaseType);
+        if (jdbc == null) {
+            return new ArrayList<>();
+        }
+
+        List<Object> args = new ArrayList<>();
+        String prefixFilter = "";
+        if (prefix != null) {
+            prefixFilter = " AND left(b.name, ?) = ?";
+            args.add(prefix.codePointCount(0, prefix.length()));
+            args.add(prefix);
+        }
+
+        // The post-restore bucket summary has the counts already; otherwise aggregate ds3.blob
+        boolean summary = postRestoreOptimizer.hasBucketSummary(jdbc);
+        String sql;
+        if (sort == BucketPage.Sort.NAME && summary) {
+            String keyset = "";
+            if (after != null) {
+                keyset = " AND b.name > ?";
+                args.add(after.name);
+            }
+            args.add(limit);
+            sql = "SELECT b.name, b.object_count, b.size_bytes FROM " + PostRestoreOptimizer.BUCKET_SUMMARY + " b " +
+                "WHERE TRUE" + prefixFilter + keyset + " ORDER BY b.name LIMIT ?";
+        } else if (sort == BucketPage.Sort.NAME) {
+            String keyset = "";
+            if (after != null) {
+                keyset = " AND b.name > ?";
+                args.add(after.name);
+            }
+            args.add(limit);
+            sql = "WITH page AS (SELECT b.id, b.name FROM ds3.bucket b WHERE TRUE" + prefixFilter + keyset + " ORDER BY b.name LIMIT ?) " +
+                "SELECT p.name, COUNT(DISTINCT so.id) as object_count, COALESCE(SUM(bl.length), 0) as size_bytes " +
+                "FROM page p " +
+                "LEFT JOIN ds3.s3_object so ON so.bucket_id = p.id " +
+                "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
+                "GROUP BY p.name ORDER BY p.name";
+        } else {
+            String sortColumn = sort == BucketPage.Sort.SIZE ? "size_bytes" : "object_count";
+            String keyset = "";
+            if (after != null) {
+                keyset = " WHERE (" + sortColumn + " < ? OR (" + sortColumn + " = ? AND name > ?))";
+                args.add(after.value);
+                args.add(after.value);
+                args.add(after.name);
+            }
+            args.add(limit);
+            String buckets = summary
+                ? "SELECT b.name, b.object_count, b.size_bytes FROM " + PostRestoreOptimizer.BUCKET_SUMMARY + " b " +
+                  "WHERE TRUE" + prefixFilter
+                : "SELECT b.name, COUNT(DISTINCT so.id) as object_count, COALESCE(SUM(bl.length), 0) as size_bytes " +
+                  "FROM ds3.bucket b " +
+                  "LEFT JOIN ds3.s3_object so ON so.bucket_id = b.id " +
+                  "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
+                  "WHERE TRUE" + prefixFilter + " GROUP BY b.name";
+            sql = "SELECT name, object_count, size_bytes FROM (" + buckets + ") t" + keyset +
+                " ORDER BY " + sortColumn + " DESC, name LIMIT ?";
+        }
+
+        try {
+            return jdbc.query(sql,
+                (rs, rowNum) -> new Bucket(rs.getString("name"), databaseType.toLowerCase(), rs.getLong("object_count"), rs.getLong("size_bytes")),
+                args.toArray());
+        } catch (Exception e) {
+            logger.debug("Paged ds3.bucket query failed: {}. Paging the full bucket listing instead.", e.getMessage());
+            return pageInMemory(queryBucketsForCustomer(customerId, databaseType), prefix, sort, after, limit);
+        }
+    }
+
+    private List<Bucket> pageInMemory(List<Bucket> buckets, String prefix, BucketPage.Sort sort, PageCursor after, int limit) {
+        Comparator<Bucket> order = Comparator.comparing(Bucket::getName);
+        if (sort != BucketPage.Sort.NAME) {
+            order = Comparator.comparing((Bucket bucket) -> PageCursor.sortValue(bucket, sort)).reversed().thenComparing(order);
+        }
+        Bucket afterBucket = null;
+        if (after != null) {
+            afterBucket = new Bucket(after.name, null,
+                sort == BucketPage.Sort.COUNT ? after.value : 0L, sort == BucketPage.Sort.SIZE ? after.value : 0L);
+        }
+
+        List<Bucket> page = new ArrayList<>();
+        for (Bucket bucket : buckets.stream().sorted(order).collect(Collectors.toList())) {
+            if (prefix != null && !bucket.getName().startsWith(prefix)) {
+                continue;
+            }
+            if (afterBucket != null && order.compare(bucket, afterBucket) <= 0) {
+                continue;
+            }
+            page.add(bucket);
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    private BucketPage.Sort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return BucketPage.Sort.NAME;
+        }
+        try {
+            return BucketPage.Sort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + sort + " (expected name, size or count)");
+        }
+    }
+
+    /**
+     * Connect to the customer-specific database, falling back to the generic one (data directory restores),
+     * through the same connector as gathers so both read the same database. Returns null if neither is reachable.
+     */
+    private JdbcTemplate connectToCustomerDatabase(String customerId, String databaseType) {
+        Customer customer = customerService.findById(customerId);
+        String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
+        CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+        if (database == null) {
+            logger.error("Cannot connect to the {} database for customer {}. Please ensure the database has been restored.",
+                databaseType, customerId);
+            return null;
+        }
+        logger.info("Querying buckets from database: {}", database.getKey());
+        return database.getJdbc();
+    }
+
+    /**
+     * Opaque keyset cursor: the sort value (size/count sorts only) and name of the last bucket on a page
+     */
+    private static class PageCursor {
+        private final String name;
+        private final Long value;
+
+        private PageCursor(String name, Long value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        static PageCursor of(Bucket bucket, BucketPage.Sort sort) {
+            return new PageCursor(bucket.getName(), sort == BucketPage.Sort.NAME ? null : sortValue(bucket, sort));
+        }
+
+        static long sortValue(Bucket bucket, BucketPage.Sort sort) {
+            Long value = sort == BucketPage.Sort.SIZE ? bucket.getSizeBytes() : bucket.getObjectCount();
+            return value != null ? value : 0L;
+        }
+
+        String encode() {
+            String raw = value != null ? value + ":" + name : name;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor, BucketPage.Sort sort) {
+            if (cursor == null || cursor.isEmpty()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (sort == BucketPage.Sort.NAME) {
+                    return new PageCursor(raw, null);
+                }
+                int separator = raw.indexOf(':');
+                return new PageCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor for sort " + sort.name().toLowerCase());
+            }
+        }
+    }
+
     /**
      * Get bucket size for a specific customer and bucket name
      */
-    public Bucket getBucketSize(String customerId, String bucketName, String databaseType) {
-        List<Bucket> buckets = getBucketsForCustomer(customerId, databaseType);
+    public Bucket getBucketSize(String customerId, String bucketName, String databaseType, boolean estimate) {
+        if (catalogRepository.findSnapshotTime(customerId, databaseType).isPresent()) {
+            return catalogRepository.findBucket(customerId, databaseType, bucketName).orElse(null);
+        }
+        List<Bucket> buckets;
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Size of bucket " + bucketName + " for customer " + customerId, listingQueryTimeout)) {
+            buckets = estimate
+                ? estimateBucketsForCustomer(customerId, databaseType)
+                : queryBucketsForCustomer(customerId, databaseType);
+        }
         return buckets.stream()
             .filter(b -> b.getName().equals(bucketName))
             .findFirst()
             .orElse(null);
     }
+
+    /**
+     * Approximate per-bucket object counts and sizes without a full aggregation.
+     * Object counts come from the pg_stats most-common-values frequencies of s3_object.bucket_id where available,
+     * otherwise from a block sample of s3_object; sizes from a block sample of blob. Samples are scaled up by
+     * pg_class.reltuples (or the sampling fraction if the table has not been analyzed).
+     * Results are marked approximate; gathers always record exact counts.
+     */
+    private List<Bucket> estimateBucketsForCustomer(String customerId, String databaseType) {
+        JdbcTemplate jdbc = connectToCustomerDatabase(customerId, databaseType);
+        if (jdbc == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            Map<String, double[]> tableStats = new HashMap<>(); // relname -> {reltuples, pages}
+            jdbc.query(
+                "SELECT c.relname, c.reltuples, pg_relation_size(c.oid) / current_setting('block_size')::int AS pages " +
+                "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = 'ds3' AND c.relname IN ('s3_object', 'blob')",
+                rs -> {
+                    tableStats.put(rs.getString("relname"), new double[]{rs.getDouble("reltuples"), rs.getDouble("pages")});
+                });
+
+            Map<String, String> bucketNames = new LinkedHashMap<>();
+            jdbc.query("SELECT id::text AS id, name FROM ds3.bucket ORDER BY name",
+                rs -> {
+                    bucketNames.put(rs.getString("id"), rs.getString("name"));
+                });
+
+            // Object counts: most common bucket_ids straight from the planner statistics
+            double objectRows = tableStats.getOrDefault("s3_object", new double[]{-1, 0})[0];
+            Map<String, Double> objectCounts = new HashMap<>();
+            if (objectRows > 0) {
+                jdbc.query(
+                    "SELECT most_common_vals::text AS vals, most_common_freqs FROM pg_stats " +
+                    "WHERE schemaname = 'ds3' AND tablename = 's3_object' AND attname = 'bucket_id'",
+                    rs -> {
+                        String vals = rs.getString("vals");
+                        Array freqs = rs.getArray("most_common_freqs");
+                        if (vals == null || freqs == null) {
+                            return;
+                        }
+                        String[] ids = vals.replaceAll("[{}\"]", "").split(",");
+                        Object[] frequencies = (Object[]) freqs.getArray();
+                        for (int i = 0; i < ids.length && i < frequencies.length; i++) {
+                            objectCounts.put(ids[i], ((Number) frequencies[i]).doubleValue() * objectRows);
+                        }
+                    });
+            }
+
+            // Remaining buckets: sample s3_object
+            Map<String, double[]> objectSample = sample(jdbc,
+                "SELECT bucket_id::text AS bucket_id, COUNT(*) AS sampled, 0 AS sampled_bytes " +
+                "FROM ds3.s3_object TABLESAMPLE SYSTEM (%s) REPEATABLE (0) GROUP BY bucket_id",
+                tableStats.get("s3_object"));
+            objectSample.forEach((bucketId, estimate) -> objectCounts.putIfAbsent(bucketId, estimate[0]));
+
+            // Sizes: sample blob, joined to its object for the bucket
+            Map<String, double[]> blobSample = sample(jdbc,
+                "SELECT so.bucket_id::text AS bucket_id, COUNT(*) AS sampled, COALESCE(SUM(bl.length), 0) AS sampled_bytes " +
+                "FROM ds3.blob bl TABLESAMPLE SYSTEM (%s) REPEATABLE (0) " +
+                "JOIN ds3.s3_object so ON so.id = bl.object_id GROUP BY so.bucket_id",
+                tableStats.get("blob"));
+
+            List<Bucket> buckets = new ArrayList<>();
+            for (Map.Entry<String, String> entry : bucketNames.entrySet()) {
+                Bucket bucket = new Bucket();
+                bucket.setName(entry.getValue());
+                bucket.setSource(databaseType.toLowerCase());
+                bucket.setObjectCount(Math.round(objectCounts.getOrDefault(entry.getKey(), 0.0)));
+                double[] sizeEstimate = blobSample.get(entry.getKey());
+                bucket.setSizeBytes(sizeEstimate != null ? Math.round(sizeEstimate[1]) : 0L);
+                bucket.setApproximate(true);
+                buckets.add(bucket);
+            }
+            logger.info("Estimated sizes of {} buckets for customer {} in {} ms", buckets.size(), customerId,
+                System.currentTimeMillis() - startTime);
+            return buckets;
+        } catch (Exception e) {
+            logger.warn("Could not estimate bucket sizes for customer {}: {}. Falling back to exact counts.", customerId, e.getMessage());
+            return queryBucketsForCustomer(customerId, databaseType);
+        }
+    }
+
+    /**
+     * Run a per-bucket TABLESAMPLE query and scale it to the whole table.
+     * Returns bucket_id -> {estimated rows, estimated bytes}.
+     *
+     * @param stats {reltuples, pages} of the sampled table, or null if unknown
+     */
+    private Map<String, double[]> sample(JdbcTemplate jdbc, String sqlTemplate, double[] stats) {
+        double reltuples = stats != null ? stats[0] : -1;
+        double pages = stats != null ? stats[1] : 0;
+        // Read about estimateSamplePages pages: SYSTEM sampling picks whole pages with this probability
+        double percent = pages > 0 ? Math.min(100.0, Math.max(0.0001, estimateSamplePages * 100.0 / pages)) : 100.0;
+
+        Map<String, double[]> sampled = new HashMap<>();
+        double[] sampledRows = {0};
+        jdbc.query(String.format(Locale.ROOT, sqlTemplate, String.format(Locale.ROOT, "%.4f", percent)),
+            rs -> {
+                double rows = rs.getLong("sampled");
+                sampled.put(rs.getString("bucket_id"), new double[]{rows, rs.getDouble("sampled_bytes")});
+                sampledRows[0] += rows;
+            });
+
+        // Prefer the analyzed row count; otherwise scale by the sampling fraction
+        double scale = reltuples > 0 && sampledRows[0] > 0 ? reltuples / sampledRows[0] : 100.0 / percent;
+        for (double[] values : sampled.values()) {
+            values[0] *= scale;
+            values[1] *= scale;
+        }
+        return sampled;
+    }
 }
@@ -0,0 +1,121 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.api.dto.Bucket;
+import com.spectralogic.migrationtracker.repository.CatalogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Snapshots a customer's PostgreSQL catalog (storage domains, buckets with counts/sizes, tape partitions) into SQLite.
+ * Runs after each successful restore; StorageDomainService and BucketService then serve the UI from the snapshot.
+ */
+@Service
+public class CatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    private final StorageDomainService storageDomainService;
+    private final BucketService bucketService;
+    private final CatalogRepository catalogRepository;
+    private final QueryOperationService queryOperationService;
+
+    @Value("${migration.catalog.query-timeout:1800}")
+    private int catalogQueryTimeout;
+
+    public CatalogService(StorageDomainService storageDomainService, BucketService bucketService,
+                          CatalogRepository catalogRepository, QueryOperationService queryOperationService) {
+        this.storageDomainService = storageDomainService;
+        this.bucketService = bucketService;
+        this.catalogRepository = catalogRepository;
+        this.queryOperationService = queryOperationService;
+    }
+
+    /**
+     * Query PostgreSQL and replace the SQLite catalog snapshot for a customer/database type
+     */
+    public CatalogRefreshResult refreshCatalog(String customerId, String databaseType) {
+        long startTime = System.currentTimeMillis();
+        logger.info("Refreshing catalog snapshot for customer {} ({})", customerId, databaseType);
+
+        StorageDomainService.StorageDomains storageDomains;
+        List<Bucket> buckets;
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Refresh catalog for customer " + customerId, catalogQueryTimeout)) {
+            storageDomains = storageDomainService.queryStorageDomains(customerId, databaseType);
+            if (storageDomains.getDatabaseName() == null) {
+                // Connection failed - keep the previous snapshot rather than replacing it with nothing
+                throw new IllegalStateException("Could not connect to the " + databaseType + " database for customer " + customerId);
+            }
+            // Throws on a failed or timed-out query, so a partial list never replaces the snapshot
+            buckets = bucketService.queryBucketsForCatalog(customerId, databaseType);
+            // A cancelled refresh has partial results - keep the previous snapshot
+            operation.throwIfCancelled();
+        }
+
+        catalogRepository.replaceSnapshot(customerId, databaseType, storageDomains.getDatabaseName(),
+            storageDomains.getDomains(), buckets, storageDomains.getTapePartitions());
+
+        CatalogRefreshResult result = new CatalogRefreshResult();
+        result.setDatabaseName(storageDomains.getDatabaseName());
+        result.setStorageDomainCount(storageDomains.getDomains().size());
+        result.setBucketCount(buckets.size());
+        result.setTapePartitionCount(storageDomains.getTapePartitions().size());
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        logger.info("Catalog snapshot for customer {} ({}) from {}: {} storage domains, {} buckets, {} tape partitions in {} ms",
+            customerId, databaseType, result.getDatabaseName(), result.getStorageDomainCount(), result.getBucketCount(),
+            result.getTapePartitionCount(), result.getElapsedMillis());
+        return result;
+    }
+
+    public static class CatalogRefreshResult {
+        private String databaseName;
+        private int storageDomainCount;
+        private int bucketCount;
+        private int tapePartitionCount;
+        private long elapsedMillis;
+
+        public String getDatabaseName() {
+            return databaseName;
+        }
+
+        public void setDatabaseName(String databaseName) {
+            this.databaseName = databaseName;
+        }
+
+        public int getStorageDomainCount() {
+            return storageDomainCount;
+        }
+
+        public void setStorageDomainCount(int storageDomainCount) {
+            this.storageDomainCount = storageDomainCount;
+        }
+
+        public int getBucketCount() {
+            return bucketCount;
+        }
+
+        public void setBucketCount(int bucketCount) {
+            this.bucketCount = bucketCount;
+        }
+
+        public int getTapePartitionCount() {
+            return tapePartitionCount;
+        }
+
+        public void setTapePartitionCount(int tapePartitionCount) {
+            this.tapePartitionCount = tapePartitionCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public void setElapsedMillis(long elapsedMillis) {
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
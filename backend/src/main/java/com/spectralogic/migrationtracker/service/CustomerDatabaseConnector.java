@@ -0,0 +1,157 @@
+package com.spectralogic.migrationtracker.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Opens instrumented JdbcTemplates on a customer's restored BlackPearl/Rio database
+ * (the connection settings of postgres.blackpearl.* / postgres.rio.*).
+ */
+@Service
+public class CustomerDatabaseConnector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerDatabaseConnector.class);
+
+    private final QueryDiagnosticsService queryDiagnosticsService;
+    private final DatabaseCircuitBreaker databaseCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${postgres.blackpearl.host:localhost}")
+    private String blackpearlHost;
+
+    @Value("${postgres.blackpearl.port:5432}")
+    private int blackpearlPort;
+
+    @Value("${postgres.blackpearl.username:postgres}")
+    private String blackpearlUsername;
+
+    @Value("${postgres.blackpearl.password:}")
+    private String blackpearlPassword;
+
+    @Value("${postgres.rio.host:localhost}")
+    private String rioHost;
+
+    @Value("${postgres.rio.port:5432}")
+    private int rioPort;
+
+    @Value("${postgres.rio.username:postgres}")
+    private String rioUsername;
+
+    @Value("${postgres.rio.password:}")
+    private String rioPassword;
+
+    public CustomerDatabaseConnector(QueryDiagnosticsService queryDiagnosticsService,
+                                     DatabaseCircuitBreaker databaseCircuitBreaker,
+                                     MeterRegistry meterRegistry) {
+        this.queryDiagnosticsService = queryDiagnosticsService;
+        this.databaseCircuitBreaker = databaseCircuitBreaker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Connect to a customer's BlackPearl/Rio database: the customer-specific one (tapesystem_/rio_db_ + customer name),
+     * or the generic one if that can't be reached. Null if neither can.
+     *
+     * @param countFallback count a fallback to the generic database in migration.gather.generic.fallback
+     */
+    public CustomerDatabase connect(String customerName, String databaseType, boolean countFallback) {
+        // Construct customer-specific database name
+        String databaseName;
+        String host;
+        int port;
+        String username;
+        String password;
+
+        if (databaseType.equalsIgnoreCase("blackpearl")) {
+            databaseName = "tapesystem_" + customerName;
+            host = blackpearlHost;
+            port = blackpearlPort;
+            username = blackpearlUsername;
+            password = blackpearlPassword != null ? blackpearlPassword : "";
+        } else {
+            databaseName = "rio_db_" + customerName;
+            host = rioHost;
+            port = rioPort;
+            username = rioUsername;
+            password = rioPassword != null ? rioPassword : "";
+        }
+
+        // Create data source for customer-specific database
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName));
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+
+        JdbcTemplate jdbc = queryDiagnosticsService.newJdbcTemplate(dataSource);
+
+        // Try customer-specific database first, fallback to generic
+        try {
+            databaseCircuitBreaker.probe(jdbc, host, port, databaseName);
+            logger.debug("Successfully connected to customer-specific database: {}", databaseName);
+            return new CustomerDatabase(jdbc, databaseName, String.format("%s:%d/%s", host, port, databaseName));
+        } catch (Exception e) {
+            logger.warn("Cannot connect to customer-specific database {}: {}. Trying generic database.", databaseName, e.getMessage());
+            if (countFallback) {
+                meterRegistry.counter("migration.gather.generic.fallback", "database", databaseType.toLowerCase()).increment();
+            }
+        }
+        String genericDatabaseName = databaseType.equalsIgnoreCase("blackpearl") ? "tapesystem" : "rio_db";
+        dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, genericDatabaseName));
+        jdbc = queryDiagnosticsService.newJdbcTemplate(dataSource);
+        try {
+            databaseCircuitBreaker.probe(jdbc, host, port, genericDatabaseName);
+            logger.info("Successfully connected to generic database: {}", genericDatabaseName);
+            return new CustomerDatabase(jdbc, genericDatabaseName, String.format("%s:%d/%s", host, port, genericDatabaseName));
+        } catch (Exception e) {
+            logger.error("Cannot connect to either customer-specific or generic database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * "blackpearl" or "rio" for a storage domain name
+     */
+    public static String determineDatabaseType(String storageDomain) {
+        // Simple heuristic: if it contains "rio" or "Rio", assume Rio, otherwise BlackPearl
+        if (storageDomain != null && storageDomain.toLowerCase().contains("rio")) {
+            return "rio";
+        }
+        return "blackpearl";
+    }
+
+    /**
+     * A connected customer database
+     */
+    public static class CustomerDatabase {
+        private final JdbcTemplate jdbc;
+        private final String name;
+        private final String key; // host:port/name
+
+        CustomerDatabase(JdbcTemplate jdbc, String name, String key) {
+            this.jdbc = jdbc;
+            this.name = name;
+            this.key = key;
+        }
+
+        public JdbcTemplate getJdbc() {
+            return jdbc;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * host:port/name
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+}
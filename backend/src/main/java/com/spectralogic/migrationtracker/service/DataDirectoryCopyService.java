@@ -0,0 +1,251 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies PostgreSQL data directories.
+ * Walks the source tree once, creates directories up front and copies files in parallel
+ * with FileChannel.transferTo so the kernel moves the bytes (no user-space buffer).
+ */
+@Service
+public class DataDirectoryCopyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataDirectoryCopyService.class);
+
+    @Value("${postgres.restore.copy-threads:0}")
+    private int copyThreads;
+
+    @Value("${postgres.restore.copy-progress-interval-seconds:10}")
+    private int progressIntervalSeconds;
+
+    /**
+     * Copy source into target, preserving POSIX permissions and modification times.
+     * When deleteExtraneous is set, entries in target that do not exist in source are removed (like rsync --delete).
+     */
+    public CopyStats copy(Path source, Path target, boolean deleteExtraneous) throws IOException {
+        long startTime = System.currentTimeMillis();
+        List<Path> files = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        AtomicLong totalBytes = new AtomicLong();
+
+        // Single walk: create directories, link symlinks, and collect regular files
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path targetDir = target.resolve(source.relativize(dir).toString());
+                // A file or symlink where the source has a directory is replaced, as rsync does
+                if (Files.exists(targetDir, LinkOption.NOFOLLOW_LINKS) && !Files.isDirectory(targetDir, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.delete(targetDir);
+                }
+                Files.createDirectories(targetDir);
+                directories.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetPath = target.resolve(source.relativize(file).toString());
+                // ... and so is a directory where the source has a file or symlink
+                if (Files.isDirectory(targetPath, LinkOption.NOFOLLOW_LINKS)) {
+                    deleteRecursively(targetPath);
+                }
+                if (attrs.isSymbolicLink()) {
+                    Files.deleteIfExists(targetPath);
+                    Files.createSymbolicLink(targetPath, Files.readSymbolicLink(file));
+                } else if (attrs.isRegularFile()) {
+                    files.add(file);
+                    totalBytes.addAndGet(attrs.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        if (deleteExtraneous) {
+            deleteExtraneous(source, target);
+        }
+
+        logger.info("Copying {} files ({} bytes) from {} to {} using {} threads",
+            files.size(), totalBytes.get(), source, target, getThreadCount());
+
+        AtomicLong copiedBytes = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(getThreadCount());
+        ScheduledExecutorService progressReporter = Executors.newSingleThreadScheduledExecutor();
+        long interval = Math.max(1, progressIntervalSeconds);
+        progressReporter.scheduleAtFixedRate(
+            () -> logProgress(copiedBytes.get(), totalBytes.get(), startTime), interval, interval, TimeUnit.SECONDS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> {
+                    copyFile(file, target.resolve(source.relativize(file).toString()), copiedBytes);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException("Failed to copy data directory: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Data directory copy interrupted", e);
+        } finally {
+            progressReporter.shutdownNow();
+            executor.shutdownNow();
+        }
+
+        // Directory permissions last, deepest first, so read-only directories don't block the copy
+        for (int i = directories.size() - 1; i >= 0; i--) {
+            Path dir = directories.get(i);
+            copyAttributes(dir, target.resolve(source.relativize(dir).toString()));
+        }
+
+        CopyStats stats = new CopyStats(files.size(), copiedBytes.get(), System.currentTimeMillis() - startTime);
+        logger.info("Copied {} files ({} bytes) in {} ms ({} MB/s)",
+            stats.getFileCount(), stats.getBytesCopied(), stats.getElapsedMillis(), String.format("%.1f", stats.getMegabytesPerSecond()));
+        return stats;
+    }
+
+    private void copyFile(Path sourceFile, Path targetFile, AtomicLong copiedBytes) throws IOException {
+        try (FileChannel in = FileChannel.open(sourceFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(targetFile, StandardOpenOption.WRITE,
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            // transferTo may move fewer bytes than requested, so loop until done
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                copiedBytes.addAndGet(transferred);
+            }
+            // A short file in a data directory is silent corruption - fail the copy instead
+            if (position < size) {
+                throw new IOException("Copied only " + position + " of " + size + " bytes of " + sourceFile +
+                    " (did the file shrink during the copy?)");
+            }
+        }
+        copyAttributes(sourceFile, targetFile);
+    }
+
+    private void copyAttributes(Path sourcePath, Path targetPath) throws IOException {
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(sourcePath, PosixFileAttributeView.class);
+        PosixFileAttributeView targetView = Files.getFileAttributeView(targetPath, PosixFileAttributeView.class);
+        if (sourceView != null && targetView != null) {
+            Set<PosixFilePermission> permissions = sourceView.readAttributes().permissions();
+            targetView.setPermissions(permissions);
+        }
+        Files.setLastModifiedTime(targetPath, Files.getLastModifiedTime(sourcePath));
+    }
+
+    /**
+     * Remove entries under target that have no counterpart under source
+     */
+    private void deleteExtraneous(Path source, Path target) throws IOException {
+        List<Path> extraneous = new ArrayList<>();
+        Files.walkFileTree(target, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(target) && !Files.exists(source.resolve(target.relativize(dir).toString()), LinkOption.NOFOLLOW_LINKS)) {
+                    extraneous.add(dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!Files.exists(source.resolve(target.relativize(file).toString()), LinkOption.NOFOLLOW_LINKS)) {
+                    extraneous.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        for (Path path : extraneous) {
+            logger.debug("Deleting extraneous path: {}", path);
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                deleteRecursively(path);
+            } else {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Delete a directory and everything under it, deepest first (symlinks are removed, not followed)
+     */
+    private void deleteRecursively(Path dir) throws IOException {
+        try (var stream = Files.walk(dir)) {
+            List<Path> nested = stream.sorted(Comparator.reverseOrder()).toList();
+            for (Path nestedPath : nested) {
+                Files.delete(nestedPath);
+            }
+        }
+    }
+
+    private void logProgress(long copiedBytes, long totalBytes, long startTime) {
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+        double megabytesPerSecond = (copiedBytes / (1024.0 * 1024.0)) / (elapsedMillis / 1000.0);
+        int percent = totalBytes > 0 ? (int) (copiedBytes * 100 / totalBytes) : 100;
+        logger.info("Data directory copy progress: {}% ({} of {} bytes, {} MB/s)",
+            percent, copiedBytes, totalBytes, String.format("%.1f", megabytesPerSecond));
+    }
+
+    private int getThreadCount() {
+        if (copyThreads > 0) {
+            return copyThreads;
+        }
+        return Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static class CopyStats {
+        private final int fileCount;
+        private final long bytesCopied;
+        private final long elapsedMillis;
+
+        public CopyStats(int fileCount, long bytesCopied, long elapsedMillis) {
+            this.fileCount = fileCount;
+            this.bytesCopied = bytesCopied;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public long getBytesCopied() {
+            return bytesCopied;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getMegabytesPerSecond() {
+            return (bytesCopied / (1024.0 * 1024.0)) / (Math.max(1, elapsedMillis) / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which customer databases (host, port, database) are reachable, so the customer-specific then generic
+ * database fallback doesn't pay a failed connect on every request.
+ *
+ * A failed probe opens the breaker for cooldown-seconds: probes of that database fail immediately without connecting.
+ * After the cooldown one probe is let through again (half-open); other callers fail immediately until it finishes.
+ * A successful probe is trusted for success-ttl-seconds.
+ */
+@Service
+public class DatabaseCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    private final Map<String, DatabaseState> states = new ConcurrentHashMap<>();
+
+    @Value("${migration.jdbc.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.jdbc.circuit-breaker.cooldown-seconds:60}")
+    private long cooldownSeconds;
+
+    @Value("${migration.jdbc.circuit-breaker.success-ttl-seconds:30}")
+    private long successTtlSeconds;
+
+    /**
+     * Check that a database can be queried, replacing a plain "SELECT 1".
+     * Throws IllegalStateException right away while the database is known to be unreachable.
+     */
+    public void probe(JdbcTemplate jdbc, String host, int port, String databaseName) {
+        if (!enabled) {
+            jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
+            return;
+        }
+        String key = String.format("%s:%d/%s", host, port, databaseName);
+        DatabaseState state = states.computeIfAbsent(key, DatabaseState::new);
+        long now = System.currentTimeMillis();
+
+        synchronized (state) {
+            if (state.openUntil > now) {
+                throw new IllegalStateException("Skipping " + key + ", unreachable since " + state.lastFailureAt +
+                    " (" + state.lastError + ")");
+            }
+            if (state.lastSuccess > 0 && now - state.lastSuccess < successTtlSeconds * 1000) {
+                return;
+            }
+            if (state.failures > 0) {
+                // Half-open: only one caller finds out whether the database is back
+                if (state.probing) {
+                    throw new IllegalStateException("Skipping " + key + ", unreachable since " + state.lastFailureAt +
+                        " and being probed again (" + state.lastError + ")");
+                }
+                state.probing = true;
+            }
+        }
+
+        try {
+            jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
+        } catch (CannotGetJdbcConnectionException e) {
+            // Only connection failures count; a cancelled or timed out probe says nothing about the database
+            synchronized (state) {
+                state.failures++;
+                state.lastSuccess = 0;
+                state.lastError = e.getMessage();
+                state.lastFailureAt = LocalDateTime.now();
+                state.openUntil = System.currentTimeMillis() + cooldownSeconds * 1000;
+            }
+            logger.warn("Database {} unreachable, skipping it for {} s: {}", key, cooldownSeconds, e.getMessage());
+            throw e;
+        } finally {
+            synchronized (state) {
+                state.probing = false;
+            }
+        }
+        synchronized (state) {
+            if (state.failures > 0) {
+                logger.info("Database {} reachable again after {} failed probes", key, state.failures);
+            }
+            state.failures = 0;
+            state.openUntil = 0;
+            state.lastError = null;
+            state.lastSuccess = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Forget everything, e.g. after a restore created or replaced a database
+     */
+    public void reset() {
+        states.clear();
+        logger.debug("Database circuit breaker reset");
+    }
+
+    /**
+     * What is currently remembered about each database
+     */
+    public List<DatabaseStatus> getStatus() {
+        long now = System.currentTimeMillis();
+        List<DatabaseStatus> statuses = new ArrayList<>();
+        for (DatabaseState state : states.values()) {
+            synchronized (state) {
+                DatabaseStatus status = new DatabaseStatus();
+                status.setDatabase(state.key);
+                status.setOpen(state.openUntil > now);
+                status.setConsecutiveFailures(state.failures);
+                status.setLastError(state.lastError);
+                status.setLastFailureAt(state.lastFailureAt);
+                status.setRetryInSeconds(Math.max(0, (state.openUntil - now) / 1000));
+                statuses.add(status);
+            }
+        }
+        statuses.sort(Comparator.comparing(DatabaseStatus::getDatabase));
+        return statuses;
+    }
+
+    private static class DatabaseState {
+        private final String key;
+        private int failures;
+        private long openUntil;
+        private long lastSuccess;
+        private String lastError;
+        private LocalDateTime lastFailureAt;
+        private boolean probing; // the half-open probe is running
+
+        DatabaseState(String key) {
+            this.key = key;
+        }
+    }
+
+    public static class DatabaseStatus {
+        private String database;
+        private boolean open; // true = skipped until retryInSeconds
+        private int consecutiveFailures;
+        private String lastError;
+        private LocalDateTime lastFailureAt;
+        private long retryInSeconds;
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(String database) {
+            this.database = database;
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        public void setOpen(boolean open) {
+            this.open = open;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public void setConsecutiveFailures(int consecutiveFailures) {
+            this.consecutiveFailures = consecutiveFailures;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public void setLastError(String lastError) {
+            this.lastError = lastError;
+        }
+
+        public LocalDateTime getLastFailureAt() {
+            return lastFailureAt;
+        }
+
+        public void setLastFailureAt(LocalDateTime lastFailureAt) {
+            this.lastFailureAt = lastFailureAt;
+        }
+
+        public long getRetryInSeconds() {
+            return retryInSeconds;
+        }
+
+        public void setRetryInSeconds(long retryInSeconds) {
+            this.retryInSeconds = retryInSeconds;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-bucket scans of a storage domain, shared by the phases that gather it: keyed by (customer database,
+ * storage domain, tape partition, gather date), so a project whose phases share a source or target domain
+ * scans it once per date.
+ * A scan that is still running is waited for rather than started again. Entries expire after ttl-seconds,
+ * and are dropped after a restore or when a data point of their date is deleted (so it can be gathered again).
+ */
+@Service
+public class GatherResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatherResultCache.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${migration.gather.shared-scan.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    /**
+     * The cached scan, or the result of running it (at most one scan runs per key)
+     *
+     * @param databaseKey identifies the database (host:port/name)
+     * @param tapePartition the partition the scan is limited to, or null
+     * @param sketch a sketch-mode scan (estimated counts); not shared with exact gathers
+     */
+    public DomainScan getScan(String databaseKey, String storageDomain, String tapePartition, LocalDate date,
+                              boolean sketch, Supplier<DomainScan> scan) {
+        String partitionKey = tapePartition != null ? tapePartition.trim().toLowerCase(Locale.ROOT) : "";
+        String key = databaseKey + "|" + storageDomain.toLowerCase(Locale.ROOT) + "|" + partitionKey + "|" + date +
+            (sketch ? "|sketch" : "");
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now - entry.createdAt >= ttlSeconds * 1000);
+
+        Entry created = new Entry(date, now);
+        Entry existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            logger.debug("Sharing scan of storage domain '{}' in {} for {}", storageDomain, databaseKey, date);
+            try {
+                return existing.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            DomainScan result = scan.get();
+            created.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the scans of one gather date
+     */
+    public void evict(LocalDate date) {
+        entries.values().removeIf(entry -> entry.date.equals(date));
+    }
+
+    /**
+     * Drop all scans (after a restore)
+     */
+    public void reset() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private final LocalDate date;
+        private final long createdAt;
+        private final CompletableFuture<DomainScan> result = new CompletableFuture<>();
+
+        Entry(LocalDate date, long createdAt) {
+            this.date = date;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Objects and bytes per bucket on a storage domain's tapes, and bytes per storage domain member.
+     * Sketch-mode scans also carry each bucket's object id sketch; both kinds can carry each bucket's blob size histogram.
+     */
+    public static class DomainScan {
+        private final Map<String, long[]> buckets = new HashMap<>();
+        private final Map<String, Long> memberBytes = new HashMap<>();
+        private final Map<String, HyperLogLog> sketches = new HashMap<>();
+        private final Map<String, SizeHistogram> histograms = new HashMap<>();
+        private boolean summary;
+
+        /**
+         * Add a row of a grouped scan (bucket_name, member_id, size_class, blobs, objects, bytes): a bucket's totals,
+         * a member's bytes, or a bucket's size class (skipped unless histograms are wanted)
+         */
+        public void addRow(ResultSet rs, boolean histograms) throws SQLException {
+            String bucketName = rs.getString("bucket_name");
+            int sizeClass = rs.getInt("size_class");
+            if (bucketName != null && !rs.wasNull()) {
+                if (histograms) {
+                    addSizeClass(bucketName, sizeClass, rs.getLong("blobs"), rs.getLong("bytes"));
+                }
+            } else if (bucketName != null) {
+                addBucket(bucketName, rs.getLong("objects"), rs.getLong("bytes"));
+            } else {
+                addMember(rs.getString("member_id"), rs.getLong("bytes"));
+            }
+        }
+
+        public void addBucket(String bucketName, long objects, long bytes) {
+            buckets.put(bucketName, new long[]{objects, bytes});
+        }
+
+        /**
+         * {objects, bytes} of one bucket; zeros if it has nothing on the domain
+         */
+        public long[] getBucket(String bucketName) {
+            long[] totals = buckets.get(bucketName);
+            return totals != null ? totals.clone() : new long[2];
+        }
+
+        /**
+         * {objects, bytes} of the whole domain (an object belongs to one bucket, so bucket counts add up)
+         */
+        public long[] getTotals() {
+            long[] totals = new long[2];
+            for (long[] bucket : buckets.values()) {
+                totals[0] += bucket[0];
+                totals[1] += bucket[1];
+            }
+            return totals;
+        }
+
+        public void addMember(String memberId, long bytes) {
+            memberBytes.put(memberId, bytes);
+        }
+
+        /**
+         * member id -> bytes on its tapes
+         */
+        public Map<String, Long> getMemberBytes() {
+            return memberBytes;
+        }
+
+        public int getBucketCount() {
+            return buckets.size();
+        }
+
+        public void addSketch(String bucketName, HyperLogLog sketch) {
+            sketches.put(bucketName, sketch);
+        }
+
+        /**
+         * bucket name -> object id sketch; empty for exact scans
+         */
+        public Map<String, HyperLogLog> getSketches() {
+            return sketches;
+        }
+
+        public void addSizeClass(String bucketName, int sizeClass, long blobs, long bytes) {
+            histograms.computeIfAbsent(bucketName, name -> new SizeHistogram()).add(sizeClass, blobs, bytes);
+        }
+
+        public void addHistogram(String bucketName, SizeHistogram histogram) {
+            histograms.put(bucketName, histogram);
+        }
+
+        /**
+         * bucket name -> blob size histogram; empty if the scan did not collect them
+         */
+        public Map<String, SizeHistogram> getHistograms() {
+            return histograms;
+        }
+
+        /**
+         * Read from the restored database's precomputed summary rather than scanned
+         */
+        public boolean isSummary() {
+            return summary;
+        }
+
+        public void setSummary(boolean summary) {
+            this.summary = summary;
+        }
+    }
+}
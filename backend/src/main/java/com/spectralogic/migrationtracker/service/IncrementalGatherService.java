@@ -0,0 +1,207 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.GatherBaseline;
+import com.spectralogic.migrationtracker.repository.GatherWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental gathers: instead of recounting every object on a storage domain's tapes, count only the
+ * tape.blob_tape rows written since the last gather and add them to the previous totals.
+ *
+ * Tapes are append-only, so blob_tape.order_index grows on each tape; the highest order_index counted per tape
+ * is the high-water mark. Deletes and reclaimed tapes are not seen by deltas, so a full recount is forced every
+ * reconcile-days (and whenever there is no usable baseline).
+ */
+@Service
+public class IncrementalGatherService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalGatherService.class);
+
+    /** Tapes of a storage domain, filtered by member id (see StorageDomainResolver) */
+    private static final String DOMAIN_TAPES =
+        "FROM tape.tape t " +
+        "JOIN tape.blob_tape bt ON bt.tape_id = t.id ";
+
+    private final GatherWatermarkRepository watermarkRepository;
+    private final SchemaIntrospectionService schemaIntrospectionService;
+
+    @Value("${migration.gather.incremental.enabled:false}")
+    private boolean enabledByDefault;
+
+    @Value("${migration.gather.incremental.reconcile-days:7}")
+    private int reconcileDays;
+
+    public IncrementalGatherService(GatherWatermarkRepository watermarkRepository,
+                                    SchemaIntrospectionService schemaIntrospectionService) {
+        this.watermarkRepository = watermarkRepository;
+        this.schemaIntrospectionService = schemaIntrospectionService;
+    }
+
+    /**
+     * Whether a gather should be incremental: the request's choice, or the configured default
+     */
+    public boolean isIncremental(Boolean requested) {
+        return requested != null ? requested : enabledByDefault;
+    }
+
+    /**
+     * Whether the database has what incremental gathers need (blob_tape.order_index)
+     */
+    public boolean isSupported(JdbcTemplate jdbc, String databaseKey) {
+        try {
+            return schemaIntrospectionService.getLayout(jdbc, databaseKey).hasColumn("tape", "blob_tape", "order_index");
+        } catch (Exception e) {
+            logger.debug("Could not read schema layout for {}: {}", databaseKey, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Previous totals plus the rows written since the last gather. Empty if a full gather is needed instead:
+     * no baseline, the date is not after the last gather, or the last full gather is reconcile-days old.
+     *
+     * @param domain ids of storageDomain in this database
+     * @param bucketName bucket to count, or null for the whole storage domain
+     */
+    public Optional<long[]> gatherDelta(JdbcTemplate jdbc, String phaseId, LocalDate date, String storageDomain,
+                                        StorageDomainResolver.StorageDomainIds domain, String bucketName) {
+        String bucketKey = bucketName != null ? bucketName : "";
+        Optional<GatherBaseline> existing = watermarkRepository.findBaseline(phaseId, storageDomain, bucketKey);
+        if (existing.isEmpty()) {
+            logger.info("No incremental baseline for storage domain '{}' bucket '{}', doing a full gather", storageDomain, bucketKey);
+            return Optional.empty();
+        }
+        GatherBaseline baseline = existing.get();
+        if (!date.isAfter(baseline.getGatheredOn())) {
+            logger.info("Gather date {} is not after the last gather ({}) for storage domain '{}', doing a full gather",
+                date, baseline.getGatheredOn(), storageDomain);
+            return Optional.empty();
+        }
+        if (!date.isBefore(baseline.getFullGatheredOn().plusDays(reconcileDays))) {
+            logger.info("Last full gather for storage domain '{}' bucket '{}' was {}, reconciling with a full gather",
+                storageDomain, bucketKey, baseline.getFullGatheredOn());
+            return Optional.empty();
+        }
+
+        Map<String, Long> marks = watermarkRepository.findWatermarks(phaseId, storageDomain, bucketKey);
+        long startTime = System.currentTimeMillis();
+
+        // Rows beyond the marks; an object is new unless one of its blobs was already counted (below a mark)
+        String bucketJoin = bucketName != null ? "JOIN ds3.bucket b ON b.id = so.bucket_id " : "";
+        String bucketFilter = bucketName != null ? " AND b.name = ?" : "";
+        String domainFilter = domain.memberFilter("t.storage_domain_member_id");
+        String sql =
+            "WITH marks AS (SELECT * FROM unnest(?::text[], ?::bigint[]) AS m(tape_id, max_order)), " +
+            "delta AS (" +
+            "  SELECT bt.order_index, bl.length, so.id AS object_id " + DOMAIN_TAPES +
+            "  LEFT JOIN marks m ON m.tape_id = bt.tape_id::text " +
+            "  JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+            "  JOIN ds3.s3_object so ON so.id = bl.object_id " + bucketJoin +
+            "  WHERE " + domainFilter + bucketFilter + " AND (m.max_order IS NULL OR bt.order_index > m.max_order)" +
+            "), " +
+            "advanced AS (" +
+            "  SELECT bt.tape_id::text AS tape_id, MAX(bt.order_index) AS max_order " + DOMAIN_TAPES +
+            "  LEFT JOIN marks m ON m.tape_id = bt.tape_id::text " +
+            "  WHERE " + domainFilter + " AND (m.max_order IS NULL OR bt.order_index > m.max_order) " +
+            "  GROUP BY bt.tape_id" +
+            ") " +
+            "SELECT " +
+            "  (SELECT COUNT(DISTINCT d.object_id) FROM delta d WHERE NOT EXISTS (" +
+            "     SELECT 1 FROM ds3.blob bl2 " +
+            "     JOIN tape.blob_tape bt2 ON bt2.blob_id = bl2.id " +
+            "     JOIN marks m2 ON m2.tape_id = bt2.tape_id::text AND bt2.order_index <= m2.max_order " +
+            "     WHERE bl2.object_id = d.object_id)) AS new_objects, " +
+            "  (SELECT COALESCE(SUM(d.length), 0) FROM delta d) AS new_bytes, " +
+            "  (SELECT string_agg(a.tape_id || '=' || a.max_order, ',') FROM advanced a) AS new_marks";
+
+        Object[] params = bucketName != null
+            ? new Object[]{toArrayLiteral(marks.keySet()), toArrayLiteral(marks.values()), domain.memberIdArray(), bucketName, domain.memberIdArray()}
+            : new Object[]{toArrayLiteral(marks.keySet()), toArrayLiteral(marks.values()), domain.memberIdArray(), domain.memberIdArray()};
+
+        Map<String, Long> advancedMarks = new HashMap<>();
+        long[] delta = new long[2];
+        jdbc.query(sql, rs -> {
+            delta[0] = rs.getLong("new_objects");
+            delta[1] = rs.getLong("new_bytes");
+            advancedMarks.putAll(parseMarks(rs.getString("new_marks")));
+        }, params);
+
+        GatherBaseline updated = new GatherBaseline();
+        updated.setMigrationPhaseId(phaseId);
+        updated.setStorageDomain(storageDomain);
+        updated.setBucketName(bucketKey);
+        updated.setObjectCount(baseline.getObjectCount() + delta[0]);
+        updated.setSizeBytes(baseline.getSizeBytes() + delta[1]);
+        updated.setGatheredOn(date);
+        updated.setFullGatheredOn(baseline.getFullGatheredOn());
+        watermarkRepository.save(updated, advancedMarks, false);
+
+        logger.info("Incremental gather for storage domain '{}' bucket '{}': +{} objects, +{} bytes on {} tapes since {} ({} ms)",
+            storageDomain, bucketKey, delta[0], delta[1], advancedMarks.size(), baseline.getGatheredOn(),
+            System.currentTimeMillis() - startTime);
+        return Optional.of(new long[]{updated.getObjectCount(), updated.getSizeBytes()});
+    }
+
+    /**
+     * Record the totals of a full gather and the current per-tape marks, as the baseline for later incremental gathers
+     */
+    public void recordFullGather(JdbcTemplate jdbc, String phaseId, LocalDate date, String storageDomain,
+                                 StorageDomainResolver.StorageDomainIds domain, String bucketName, long objectCount, long sizeBytes) {
+        try {
+            Map<String, Long> marks = new HashMap<>();
+            jdbc.query(
+                "SELECT bt.tape_id::text AS tape_id, MAX(bt.order_index) AS max_order " + DOMAIN_TAPES +
+                "WHERE " + domain.memberFilter("t.storage_domain_member_id") + " GROUP BY bt.tape_id",
+                rs -> {
+                    marks.put(rs.getString("tape_id"), rs.getLong("max_order"));
+                },
+                domain.memberIdArray());
+
+            GatherBaseline baseline = new GatherBaseline();
+            baseline.setMigrationPhaseId(phaseId);
+            baseline.setStorageDomain(storageDomain);
+            baseline.setBucketName(bucketName != null ? bucketName : "");
+            baseline.setObjectCount(objectCount);
+            baseline.setSizeBytes(sizeBytes);
+            baseline.setGatheredOn(date);
+            baseline.setFullGatheredOn(date);
+            watermarkRepository.save(baseline, marks, true);
+            logger.debug("Recorded incremental baseline for storage domain '{}' bucket '{}' ({} tapes)",
+                storageDomain, baseline.getBucketName(), marks.size());
+        } catch (Exception e) {
+            // The next gather will simply be a full one again
+            logger.warn("Could not record incremental baseline for storage domain '{}': {}", storageDomain, e.getMessage());
+        }
+    }
+
+    private static String toArrayLiteral(Iterable<?> values) {
+        StringBuilder literal = new StringBuilder("{");
+        for (Object value : values) {
+            if (literal.length() > 1) {
+                literal.append(',');
+            }
+            literal.append('"').append(value.toString().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return literal.append('}').toString();
+    }
+
+    private static Map<String, Long> parseMarks(String marks) {
+        if (marks == null || marks.isEmpty()) {
+            return new HashMap<>();
+        }
+        return Arrays.stream(marks.split(","))
+            .map(mark -> mark.split("=", 2))
+            .collect(Collectors.toMap(parts -> parts[0], parts -> Long.parseLong(parts[1])));
+    }
+}
@@ -0,0 +1,252 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.config.RequestLogSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * JdbcTemplate for customer PostgreSQL databases that reports every query's latency and row count to
+ * {@link QueryDiagnosticsService}. All query/queryForObject/queryForList variants funnel into the two
+ * query(sql, ..., ResultSetExtractor) methods overridden here.
+ *
+ * Every statement also gets the statement timeout of the current {@link QueryOperationService} operation
+ * (or migration.jdbc.template.query-timeout) as its JDBC query timeout, with no extra round trip per statement,
+ * and heavy statements wait for a {@link QueryGovernor} slot on their host before running.
+ *
+ * openCursor() streams a large result instead (reconciliation), on its own connection.
+ */
+class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+    private final QueryDiagnosticsService diagnostics;
+    private final QueryOperationService operations;
+    private final QueryGovernor governor;
+
+    InstrumentedJdbcTemplate(DataSource dataSource, QueryDiagnosticsService diagnostics, QueryOperationService operations,
+                             QueryGovernor governor) {
+        super(dataSource);
+        this.diagnostics = diagnostics;
+        this.operations = operations;
+        this.governor = governor;
+        setQueryTimeout(operations.getDefaultQueryTimeout());
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        QueryOperationService.QueryOperation operation = operations.current();
+        int timeout = getQueryTimeout();
+        if (operation != null) {
+            operation.track(stmt);
+            operation.throwIfCancelled();
+            timeout = operation.getQueryTimeoutSeconds();
+        }
+        if (timeout > 0) {
+            // The driver sends the server a cancel request when this expires, so the backend stops too
+            stmt.setQueryTimeout(timeout);
+        }
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) {
+        return timed(sql, null, rse, extractor -> super.query(sql, extractor));
+    }
+
+    @Override
+    public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+        return timed(sql, pss, rse, extractor -> super.query(sql, pss, extractor));
+    }
+
+    /**
+     * Run a query on a connection of its own and stream its rows fetchSize at a time, so a result of any size
+     * is read in constant memory. The PostgreSQL driver only streams inside a transaction, so the connection runs
+     * with autocommit off (and is rolled back on close). The cursor holds a governor slot until closed.
+     *
+     * @param governed take a governor slot; false for a second cursor of a job that already holds one on the host
+     *                 (waiting for another slot could wait forever with max-concurrent-per-host 1)
+     *
+     * Not reported to QueryDiagnosticsService: a cursor is slow by design, and explaining it would run it again.
+     */
+    Cursor openCursor(String sql, int fetchSize, boolean governed, Object... args) throws SQLException {
+        QueryGovernor.Permit permit = governed ? governor.acquire(getHostKey(), sql) : () -> { };
+        Connection connection = null;
+        try {
+            connection = getDataSource().getConnection();
+            connection.setAutoCommit(false);
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            applyStatementSettings(statement);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return new Cursor(connection, statement, statement.executeQuery(), permit);
+        } catch (SQLException | RuntimeException e) {
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * host:port/database of the current connection settings
+     */
+    String getDatabaseKey() {
+        if (getDataSource() instanceof DriverManagerDataSource dataSource && dataSource.getUrl() != null) {
+            return dataSource.getUrl().replaceFirst("^jdbc:postgresql://", "");
+        }
+        return "unknown";
+    }
+
+    /**
+     * host:port of the current connection settings
+     */
+    String getHostKey() {
+        String databaseKey = getDatabaseKey();
+        int slash = databaseKey.indexOf('/');
+        return slash >= 0 ? databaseKey.substring(0, slash) : databaseKey;
+    }
+
+    /**
+     * Run a query again under EXPLAIN (ANALYZE, BUFFERS) with the same parameters and return the plan text.
+     * Only read-only statements are explained, since ANALYZE executes the statement.
+     */
+    String explain(String sql, PreparedStatementSetter pss) {
+        String lower = sql.trim().toLowerCase(Locale.ROOT);
+        if (!lower.startsWith("select") && !lower.startsWith("with")) {
+            return null;
+        }
+        String explainSql = "EXPLAIN (ANALYZE, BUFFERS) " + sql;
+        ResultSetExtractor<List<String>> lines = rs -> {
+            List<String> plan = new ArrayList<>();
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+            return plan;
+        };
+        try (QueryGovernor.Permit permit = governor.acquire(getHostKey(), sql)) {
+            List<String> plan = pss != null ? super.query(explainSql, pss, lines) : super.query(explainSql, lines);
+            return plan != null ? String.join("\n", plan) : null;
+        }
+    }
+
+    private <T> T timed(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse,
+                        Function<ResultSetExtractor<T>, T> call) {
+        long[] rows = new long[1];
+        try (QueryGovernor.Permit permit = governor.acquire(getHostKey(), sql)) {
+            // Latency is measured from when the statement may run, not including the wait for a slot
+            long startTime = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = call.apply(rs -> rse.extractData(countingRows(rs, rows)));
+                failed = false;
+                return result;
+            } finally {
+                long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+                diagnostics.record(this, sql, pss, elapsedMillis, rows[0], failed);
+                RequestLogSummary.add("postgres", 1);
+                RequestLogSummary.add("postgresMs", elapsedMillis);
+            }
+        }
+    }
+
+    /**
+     * Wrap a ResultSet so every successful next() is counted
+     */
+    private static ResultSet countingRows(ResultSet rs, long[] rows) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                try {
+                    Object result = method.invoke(rs, args);
+                    if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                        rows[0]++;
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // Closing anyway
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * A streaming query result (see openCursor)
+     */
+    static class Cursor implements AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final QueryGovernor.Permit permit;
+        private final long startTime = System.nanoTime();
+        private long rows;
+
+        private Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet, QueryGovernor.Permit permit) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.permit = permit;
+        }
+
+        /**
+         * Move to the next row; false at the end
+         */
+        boolean next() throws SQLException {
+            boolean more = resultSet.next();
+            if (more) {
+                rows++;
+            }
+            return more;
+        }
+
+        ResultSet getResultSet() {
+            return resultSet;
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            try {
+                resultSet.close();
+                statement.close();
+            } catch (SQLException e) {
+                // The connection is closed below
+            } finally {
+                closeQuietly(connection);
+                permit.close();
+                long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+                RequestLogSummary.add("postgres", 1);
+                RequestLogSummary.add("postgresMs", elapsedMillis);
+            }
+        }
+    }
+}
@@ -1,24 +1,38 @@
 package com.spectralogic.migrationtracker.service;
 
+import com.spectralogic.migrationtracker.config.LogSampler;
+import com.spectralogic.migrationtracker.config.RequestLogSummary;
 import com.spectralogic.migrationtracker.model.BucketData;
 import com.spectralogic.migrationtracker.model.Customer;
 import com.spectralogic.migrationtracker.model.MigrationData;
 import com.spectralogic.migrationtracker.model.MigrationPhase;
 import com.spectralogic.migrationtracker.model.MigrationProject;
+import com.spectralogic.migrationtracker.model.TapePartitionData;
 import com.spectralogic.migrationtracker.repository.BucketDataRepository;
 import com.spectralogic.migrationtracker.repository.MigrationDataRepository;
 import com.spectralogic.migrationtracker.repository.PhaseRepository;
 import com.spectralogic.migrationtracker.repository.ProjectRepository;
+import com.spectralogic.migrationtracker.repository.TapePartitionDataRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class MigrationService {
@@ -26,48 +40,338 @@ public class MigrationService {
     private static final Logger logger = LoggerFactory.getLogger(MigrationService.class);
     private final MigrationDataRepository repository;
     private final BucketDataRepository bucketDataRepository;
+    private final TapePartitionDataRepository tapePartitionDataRepository;
     private final PhaseRepository phaseRepository;
     private final ProjectRepository projectRepository;
     private final CustomerService customerService;
-
-    @Value("${postgres.blackpearl.host:localhost}")
-    private String blackpearlHost;
-
-    @Value("${postgres.blackpearl.port:5432}")
-    private int blackpearlPort;
-
-    @Value("${postgres.blackpearl.username:postgres}")
-    private String blackpearlUsername;
-
-    @Value("${postgres.blackpearl.password:}")
-    private String blackpearlPassword;
-
-    @Value("${postgres.rio.host:localhost}")
-    private String rioHost;
-
-    @Value("${postgres.rio.port:5432}")
-    private int rioPort;
-
-    @Value("${postgres.rio.username:postgres}")
-    private String rioUsername;
-
-    @Value("${postgres.rio.password:}")
-    private String rioPassword;
+    private final IncrementalGatherService incrementalGatherService;
+    private final QueryOperationService queryOperationService;
+    private final CustomerDatabaseConnector customerDatabaseConnector;
+    private final StorageDomainResolver storageDomainResolver;
+    private final GatherResultCache gatherResultCache;
+    private final ObjectSketchService objectSketchService;
+    private final SizeHistogramService sizeHistogramService;
+    private final PostRestoreOptimizer postRestoreOptimizer;
+    private final SchemaIntrospectionService schemaIntrospectionService;
+    private final MeterRegistry meterRegistry;
+    private final LogSampler logSampler;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${migration.gather.query-timeout:1800}")
+    private int gatherQueryTimeout;
+
+    @Value("${migration.gather.backfill.source-timestamp-column:${migration.gather.backfill.timestamp-column:ds3.s3_object.creation_date}}")
+    private String backfillSourceTimestampColumn;
+
+    @Value("${migration.gather.backfill.target-timestamp-column:}")
+    private String backfillTargetTimestampColumn;
+
+    @Value("${migration.gather.backfill.max-days:366}")
+    private int backfillMaxDays;
 
     public MigrationService(
             MigrationDataRepository repository,
             BucketDataRepository bucketDataRepository,
+            TapePartitionDataRepository tapePartitionDataRepository,
             PhaseRepository phaseRepository,
             ProjectRepository projectRepository,
-            CustomerService customerService) {
+            CustomerService customerService,
+            IncrementalGatherService incrementalGatherService,
+            QueryOperationService queryOperationService,
+            CustomerDatabaseConnector customerDatabaseConnector,
+            StorageDomainResolver storageDomainResolver,
+            GatherResultCache gatherResultCache,
+            ObjectSketchService objectSketchService,
+            SizeHistogramService sizeHistogramService,
+            PostRestoreOptimizer postRestoreOptimizer,
+            SchemaIntrospectionService schemaIntrospectionService,
+            MeterRegistry meterRegistry,
+            LogSampler logSampler,
+            PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.bucketDataRepository = bucketDataRepository;
+        this.tapePartitionDataRepository = tapePartitionDataRepository;
         this.phaseRepository = phaseRepository;
         this.projectRepository = projectRepository;
         this.customerService = customerService;
+        this.incrementalGatherService = incrementalGatherService;
+        this.queryOperationService = queryOperationService;
+        this.customerDatabaseConnector = customerDatabaseConnector;
+        this.storageDomainResolver = storageDomainResolver;
+        this.gatherResultCache = gatherResultCache;
+        this.objectSketchService = objectSketchService;
+        this.sizeHistogramService = sizeHistogramService;
+        this.postRestoreOptimizer = postRestoreOptimizer;
+        this.schemaIntrospectionService = schemaIntrospectionService;
+        this.meterRegistry = meterRegistry;
+        this.logSampler = logSampler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public MigrationData gatherData(String projectId, String phaseId, LocalDate date, List<String> selectedBuckets) {
+        return gatherData(projectId, phaseId, date, selectedBuckets, null);
+    }
+
+    public MigrationData gatherData(String projectId, String phaseId, LocalDate date, List<String> selectedBuckets, Boolean incremental) {
+        return gatherData(projectId, phaseId, date, selectedBuckets, incremental, null);
+    }
+
+    /**
+     * @param incremental count only what changed since the last gather (null = configured default)
+     * @param sketch estimate object counts of full gathers with HyperLogLog sketches (null = configured default)
+     */
+    public MigrationData gatherData(String projectId, String phaseId, LocalDate date, List<String> selectedBuckets, Boolean incremental,
+                                   Boolean sketch) {
+        // All customer database queries of the gather share one timeout and can be cancelled together
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Gather data for phase " + phaseId + " on " + date, gatherQueryTimeout)) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "failed";
+            try {
+                MigrationData data = gatherData(projectId, phaseId, date, selectedBuckets, incremental, sketch, operation);
+                outcome = "success";
+                return data;
+            } finally {
+                sample.stop(meterRegistry.timer("migration.gather", "outcome", operation.isCancelled() ? "cancelled" : outcome));
+            }
+        }
+    }
+
+    /**
+     * Gather every active phase of a project for one date, as one operation. Phases that share a source or target
+     * storage domain share its scan (see GatherResultCache). A phase that fails, or already has data for the date,
+     * doesn't stop the others.
+     *
+     * @param selectedBuckets buckets to gather per phase id (phases not in the map gather the whole storage domain)
+     */
+    public ProjectGatherResult gatherProject(String projectId, LocalDate date, Map<String, List<String>> selectedBuckets,
+                                             Boolean incremental, Boolean sketch) {
+        ProjectGatherResult result = new ProjectGatherResult();
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Gather data for project " + projectId + " on " + date, gatherQueryTimeout)) {
+            for (MigrationPhase phase : phaseRepository.findActiveByProjectId(projectId)) {
+                if (operation.isCancelled()) {
+                    result.getFailed().put(phase.getId(), "Cancelled");
+                    continue;
+                }
+                try {
+                    result.getGathered().add(gatherData(projectId, phase.getId(), date,
+                        selectedBuckets != null ? selectedBuckets.get(phase.getId()) : null, incremental, sketch));
+                } catch (Exception e) {
+                    logger.warn("Gather of phase {} in project {} failed: {}", phase.getId(), projectId, e.getMessage());
+                    result.getFailed().put(phase.getId(), e.getMessage());
+                }
+            }
+        }
+        logger.info("Gathered {} phases of project {} for {} ({} failed)",
+            result.getGathered().size(), projectId, date, result.getFailed().size());
+        return result;
+    }
+
+    /**
+     * Reconstruct a phase's daily history for a date range from write timestamps, without a gather per day: one query
+     * per storage domain groups objects by bucket and the day they were written (the latest timestamp of their blobs),
+     * and running totals become one DATA point and per-bucket bucket_data rows per day, inserted in batches. Days that
+     * already have data are left alone.
+     *
+     * The source side dates objects by migration.gather.backfill.source-timestamp-column (object creation by
+     * default). The target side needs the time each copy was written (migration.gather.backfill.target-timestamp-column,
+     * a tape.blob_tape column): migrated copies keep their object's creation date, which would put the whole target
+     * on the first day, and a tape-level time dates every copy on a tape by its last write. Without one the backfill
+     * is refused rather than reporting the target as complete.
+     *
+     * Objects deleted since are not seen, and tape counts are not reconstructed (stored as 0).
+     */
+    public BackfillResult backfill(String projectId, String phaseId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid date range: " + from + " to " + to);
+        }
+        if (to.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot backfill future dates: " + to);
+        }
+        if (from.plusDays(backfillMaxDays).isBefore(to)) {
+            throw new IllegalArgumentException("Date range is longer than " + backfillMaxDays + " days");
+        }
+        String[] sourceColumn = parseBackfillTimestampColumn("source-timestamp-column", backfillSourceTimestampColumn);
+        if (backfillTargetTimestampColumn == null || backfillTargetTimestampColumn.isBlank()) {
+            throw new IllegalStateException("The target side of a backfill needs the time each copy was written. " +
+                "Set migration.gather.backfill.target-timestamp-column to a write time column of tape.blob_tape.");
+        }
+        String[] targetColumn = parseBackfillTimestampColumn("target-timestamp-column", backfillTargetTimestampColumn);
+        if (!targetColumn[0].equals("tape") || !targetColumn[1].equals("blob_tape")) {
+            throw new IllegalStateException("The target side of a backfill can't be reconstructed from " +
+                backfillTargetTimestampColumn + ": migrated copies keep their object's creation date and a tape's " +
+                "times cover all of its copies. " +
+                "Set migration.gather.backfill.target-timestamp-column to a write time column of tape.blob_tape.");
+        }
+
+        MigrationPhase phase = phaseRepository.findById(phaseId)
+            .orElseThrow(() -> new RuntimeException("Phase not found: " + phaseId));
+        MigrationProject project = projectRepository.findById(projectId)
+            .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+        Customer customer = customerService.findById(project.getCustomerId());
+        String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
+
+        BackfillResult result = new BackfillResult();
+        Set<LocalDate> existing = new HashSet<>();
+        for (MigrationData data : repository.findByPhaseId(phaseId)) {
+            existing.add(data.getTimestamp());
+        }
+
+        Map<LocalDate, Map<String, long[]>> sourceDays;
+        Map<LocalDate, Map<String, long[]>> targetDays;
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Backfill phase " + phaseId + " from " + from + " to " + to, gatherQueryTimeout)) {
+            // Target first: it is the side that may have no write time to backfill from
+            targetDays = queryDailyTotals(customerName, CustomerDatabaseConnector.determineDatabaseType(phase.getTarget()), phase.getTarget(),
+                phase.getTargetTapePartition(), targetColumn, from, to);
+            sourceDays = queryDailyTotals(customerName, CustomerDatabaseConnector.determineDatabaseType(phase.getSource()), phase.getSource(),
+                phase.getSourceTapePartition(), sourceColumn, from, to);
+            operation.throwIfCancelled();
+        }
+
+        // Running totals per bucket, one data point per day
+        Map<String, long[]> sourceBuckets = new TreeMap<>();
+        Map<String, long[]> targetBuckets = new TreeMap<>();
+        List<MigrationData> dataPoints = new ArrayList<>();
+        List<BucketData> bucketRows = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            addDay(sourceBuckets, sourceDays.get(date));
+            addDay(targetBuckets, targetDays.get(date));
+            if (existing.contains(date)) {
+                result.getSkippedDates().add(date);
+                continue;
+            }
+            long[] source = addBucketRows(bucketRows, sourceBuckets, phaseId, date, phase.getSource());
+            long[] target = addBucketRows(bucketRows, targetBuckets, phaseId, date, phase.getTarget());
+
+            MigrationData data = new MigrationData();
+            data.setMigrationPhaseId(phaseId);
+            data.setTimestamp(date);
+            data.setType("DATA");
+            data.setSourceObjects(source[0]);
+            data.setSourceSize(source[1]);
+            data.setTargetObjects(target[0]);
+            data.setTargetSize(target[1]);
+            dataPoints.add(data);
+        }
+
+        // Both or neither, so a failed backfill leaves no days with bucket rows but no data point (or the reverse)
+        transactionTemplate.executeWithoutResult(status -> {
+            bucketDataRepository.insertAll(bucketRows);
+            repository.insertAll(dataPoints);
+        });
+        result.setDataPoints(dataPoints.size());
+        result.setBucketRows(bucketRows.size());
+        result.setSourceTimestampColumn(backfillSourceTimestampColumn);
+        result.setTargetTimestampColumn(backfillTargetTimestampColumn);
+        logger.info("Backfilled phase {} from {} to {}: {} data points, {} bucket rows ({} days already had data)",
+            phaseId, from, to, dataPoints.size(), bucketRows.size(), result.getSkippedDates().size());
+        return result;
+    }
+
+    /**
+     * schema, table and column of a migration.gather.backfill timestamp column, which must be on one of the tables
+     * the object count joins (tape.tape, tape.blob_tape, ds3.blob, ds3.s3_object)
+     */
+    private static String[] parseBackfillTimestampColumn(String property, String column) {
+        String[] parts = column.trim().split("\\.");
+        if (parts.length != 3 || !parts[2].matches("[a-z_][a-z0-9_]*") || backfillAlias(parts[0], parts[1]) == null) {
+            throw new IllegalStateException("migration.gather.backfill." + property + " must be a column of tape.tape, " +
+                "tape.blob_tape, ds3.blob or ds3.s3_object: " + column);
+        }
+        return parts;
+    }
+
+    private static String backfillAlias(String schema, String table) {
+        return switch (schema + "." + table) {
+            case "tape.tape" -> "t";
+            case "tape.blob_tape" -> "bt";
+            case "ds3.blob" -> "bl";
+            case "ds3.s3_object" -> "so";
+            default -> null;
+        };
+    }
+
+    /**
+     * Objects and bytes written to a storage domain per day and bucket: {day -> {bucket -> {objects, bytes}}}.
+     * Objects written before from are counted on from.
+     */
+    private Map<LocalDate, Map<String, long[]>> queryDailyTotals(String customerName, String databaseType, String storageDomain,
+                                                                 String tapePartition, String[] timestampColumn,
+                                                                 LocalDate from, LocalDate to) {
+        CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+        if (database == null) {
+            throw new IllegalStateException("Cannot connect to the " + databaseType + " database for customer " + customerName);
+        }
+        if (!schemaIntrospectionService.getLayout(database.getJdbc(), database.getKey())
+                .hasColumn(timestampColumn[0], timestampColumn[1], timestampColumn[2])) {
+            throw new IllegalStateException("Database " + database.getName() + " has no column " +
+                String.join(".", timestampColumn) + " to backfill storage domain '" + storageDomain + "' from " +
+                "(see migration.gather.backfill.source-timestamp-column / target-timestamp-column)");
+        }
+        StorageDomainResolver.StorageDomainIds domain = storageDomainResolver.resolve(
+            database.getJdbc(), database.getKey(), storageDomain, tapePartition);
+        String timestamp = backfillAlias(timestampColumn[0], timestampColumn[1]) + "." + timestampColumn[2];
+
+        long startTime = System.currentTimeMillis();
+        Map<LocalDate, Map<String, long[]>> days = new HashMap<>();
+        database.getJdbc().query(
+            "SELECT o.bucket_name, o.day, COUNT(*) AS objects, SUM(o.bytes) AS bytes FROM (" +
+            "  SELECT b.name AS bucket_name, GREATEST(MAX(" + timestamp + ")::date, ?::date) AS day, SUM(bl.length) AS bytes " +
+            "  FROM tape.tape t " +
+            "  JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+            "  JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+            "  JOIN ds3.s3_object so ON so.id = bl.object_id " +
+            "  JOIN ds3.bucket b ON b.id = so.bucket_id " +
+            "  WHERE " + domain.memberFilter("t.storage_domain_member_id") +
+            "  GROUP BY so.id, b.name" +
+            ") o WHERE o.day <= ?::date GROUP BY o.bucket_name, o.day",
+            rs -> {
+                days.computeIfAbsent(rs.getDate("day").toLocalDate(), day -> new HashMap<>())
+                    .put(rs.getString("bucket_name"), new long[]{rs.getLong("objects"), rs.getLong("bytes")});
+            },
+            from.toString(), domain.memberIdArray(), to.toString());
+        logger.info("Read {} days of history for storage domain '{}' in {} ({} ms)",
+            days.size(), storageDomain, database.getKey(), System.currentTimeMillis() - startTime);
+        return days;
+    }
+
+    private static void addDay(Map<String, long[]> runningTotals, Map<String, long[]> day) {
+        if (day == null) {
+            return;
+        }
+        day.forEach((bucketName, totals) -> {
+            long[] running = runningTotals.computeIfAbsent(bucketName, name -> new long[2]);
+            running[0] += totals[0];
+            running[1] += totals[1];
+        });
+    }
+
+    /**
+     * bucket_data rows for a day's running totals; returns the storage domain total {objects, bytes}
+     */
+    private static long[] addBucketRows(List<BucketData> rows, Map<String, long[]> runningTotals, String phaseId,
+                                        LocalDate date, String storageDomain) {
+        long[] total = new long[2];
+        runningTotals.forEach((bucketName, totals) -> {
+            BucketData bucketData = new BucketData();
+            bucketData.setMigrationPhaseId(phaseId);
+            bucketData.setTimestamp(date);
+            bucketData.setBucketName(bucketName);
+            bucketData.setSource(CustomerDatabaseConnector.determineDatabaseType(storageDomain));
+            bucketData.setStorageDomain(storageDomain);
+            bucketData.setObjectCount(totals[0]);
+            bucketData.setSizeBytes(totals[1]);
+            rows.add(bucketData);
+            total[0] += totals[0];
+            total[1] += totals[1];
+        });
+        return total;
+    }
+
+    private MigrationData gatherData(String projectId, String phaseId, LocalDate date, List<String> selectedBuckets,
+                                     Boolean incremental, Boolean sketch, QueryOperationService.QueryOperation operation) {
         // Validate that data doesn't already exist for this date
         List<MigrationData> existing = repository.findByPhaseId(phaseId);
         for (MigrationData data : existing) {
@@ -86,14 +390,22 @@ public class MigrationService {
         String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
 
         // Determine source and target database types from phase
-        String sourceDbType = determineDatabaseType(phase.getSource());
-        String targetDbType = determineDatabaseType(phase.getTarget());
+        String sourceDbType = CustomerDatabaseConnector.determineDatabaseType(phase.getSource());
+        String targetDbType = CustomerDatabaseConnector.determineDatabaseType(phase.getTarget());
+        boolean incrementalGather = incrementalGatherService.isIncremental(incremental);
+        boolean sketchGather = objectSketchService.isSketch(sketch);
+        // Tapes and bytes per tape partition of each storage domain, filled in by the queries below
+        Map<String, TapePartitionData> sourcePartitions = new TreeMap<>();
+        Map<String, TapePartitionData> targetPartitions = new TreeMap<>();
 
         // Query source buckets and store per-bucket data
         long totalSourceObjects = 0L;
         long totalSourceSize = 0L;
+        Timer.Sample sourceSample = Timer.start(meterRegistry);
         List<BucketData> sourceBucketData = queryAndStoreStorageDomainData(
-            phaseId, date, customerName, sourceDbType, phase.getSource(), selectedBuckets, "source");
+            phaseId, date, customerName, sourceDbType, phase.getSource(), phase.getSourceTapePartition(), selectedBuckets,
+            "source", incrementalGather, sketchGather, sourcePartitions);
+        sourceSample.stop(meterRegistry.timer("migration.gather.leg", "leg", "source", "database", sourceDbType));
         for (BucketData bucketData : sourceBucketData) {
             totalSourceObjects += bucketData.getObjectCount();
             totalSourceSize += bucketData.getSizeBytes();
@@ -102,16 +414,30 @@ public class MigrationService {
         // Query target buckets and store per-bucket data
         long totalTargetObjects = 0L;
         long totalTargetSize = 0L;
+        Timer.Sample targetSample = Timer.start(meterRegistry);
         List<BucketData> targetBucketData = queryAndStoreStorageDomainData(
-            phaseId, date, customerName, targetDbType, phase.getTarget(), selectedBuckets, "target");
+            phaseId, date, customerName, targetDbType, phase.getTarget(), phase.getTargetTapePartition(), selectedBuckets,
+            "target", incrementalGather, sketchGather, targetPartitions);
+        targetSample.stop(meterRegistry.timer("migration.gather.leg", "leg", "target", "database", targetDbType));
         for (BucketData bucketData : targetBucketData) {
             totalTargetObjects += bucketData.getObjectCount();
             totalTargetSize += bucketData.getSizeBytes();
         }
 
-        // Query tape counts for source and target storage domains
-        long sourceTapeCount = queryTapeCount(customerName, sourceDbType, phase.getSource());
-        long targetTapeCount = queryTapeCount(customerName, targetDbType, phase.getTarget());
+        // Query tape counts for source and target storage domains (only the phase's tape partitions, if set)
+        long sourceTapeCount = queryTapeCount(customerName, sourceDbType, phase.getSource(), phase.getSourceTapePartition(),
+            sourcePartitions);
+        long targetTapeCount = queryTapeCount(customerName, targetDbType, phase.getTarget(), phase.getTargetTapePartition(),
+            targetPartitions);
+
+        if (operation.isCancelled()) {
+            // Drop the per-bucket rows of the abandoned gather so the date can be gathered again
+            bucketDataRepository.deleteByPhaseIdAndTimestamp(phaseId, date);
+            objectSketchService.delete(phaseId, date);
+            sizeHistogramService.delete(phaseId, date);
+            logger.info("Gather for phase {} on {} was cancelled", phaseId, date);
+            operation.throwIfCancelled();
+        }
 
         // Create aggregate migration data point
         MigrationData data = new MigrationData();
@@ -125,143 +451,81 @@ public class MigrationService {
         data.setTargetSize(totalTargetSize);
         data.setTargetTapeCount(targetTapeCount);
 
-        return repository.save(data);
+        MigrationData saved = repository.save(data);
+        savePartitionData(phaseId, date, phase.getSource(), sourcePartitions);
+        savePartitionData(phaseId, date, phase.getTarget(), targetPartitions);
+        return saved;
     }
 
-    private String determineDatabaseType(String storageDomain) {
-        // Simple heuristic: if it contains "rio" or "Rio", assume Rio, otherwise BlackPearl
-        if (storageDomain != null && storageDomain.toLowerCase().contains("rio")) {
-            return "rio";
+    private void savePartitionData(String phaseId, LocalDate date, String storageDomain, Map<String, TapePartitionData> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        for (TapePartitionData partition : partitions.values()) {
+            partition.setMigrationPhaseId(phaseId);
+            partition.setTimestamp(date);
+            partition.setStorageDomain(storageDomain);
+        }
+        try {
+            tapePartitionDataRepository.saveAll(new ArrayList<>(partitions.values()));
+        } catch (Exception e) {
+            logger.warn("Could not store tape partition data for phase {} on {}: {}", phaseId, date, e.getMessage());
         }
-        return "blackpearl";
     }
 
+    private static TapePartitionData partition(Map<String, TapePartitionData> partitions, String tapePartition) {
+        return partitions.computeIfAbsent(tapePartition, name -> {
+            TapePartitionData data = new TapePartitionData();
+            data.setTapePartition(name);
+            return data;
+        });
+    }
+
+    /**
+     * @param tapePartition count only tapes in this partition (null = the whole storage domain)
+     * @param sketch count objects of a full gather with sketches (see ObjectSketchService)
+     * @param partitions gets the bytes per tape partition when the storage domain is scanned
+     */
     private List<BucketData> queryAndStoreStorageDomainData(
             String phaseId, LocalDate date, String customerName, String databaseType,
-            String storageDomain, List<String> selectedBuckets, String context) {
+            String storageDomain, String tapePartition, List<String> selectedBuckets, String context, boolean incremental,
+            boolean sketch, Map<String, TapePartitionData> partitions) {
         List<BucketData> bucketDataList = new ArrayList<>();
 
         try {
-            // Construct customer-specific database name
-            String databaseName;
-            String host;
-            int port;
-            String username;
-            String password;
-
-            if (databaseType.equalsIgnoreCase("blackpearl")) {
-                databaseName = "tapesystem_" + customerName;
-                host = blackpearlHost;
-                port = blackpearlPort;
-                username = blackpearlUsername;
-                password = blackpearlPassword != null ? blackpearlPassword : "";
-            } else {
-                databaseName = "rio_db_" + customerName;
-                host = rioHost;
-                port = rioPort;
-                username = rioUsername;
-                password = rioPassword != null ? rioPassword : "";
+            CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, true);
+            if (database == null) {
+                return bucketDataList; // Return empty list
             }
+            JdbcTemplate jdbc = database.getJdbc();
+            String actualDatabaseName = database.getName();
+            String databaseKey = database.getKey();
 
-            // Create data source for customer-specific database
-            DriverManagerDataSource dataSource = new DriverManagerDataSource();
-            dataSource.setDriverClassName("org.postgresql.Driver");
-            dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName));
-            dataSource.setUsername(username);
-            dataSource.setPassword(password);
+            // Resolve the storage domain name to ids once; every query below filters by id
+            StorageDomainResolver.StorageDomainIds domain = storageDomainResolver.resolve(jdbc, databaseKey, storageDomain, tapePartition);
 
-            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
-
-            // Try customer-specific database first, fallback to generic
-            try {
-                jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                logger.debug("Successfully connected to customer-specific database: {}", databaseName);
-            } catch (Exception e) {
-                logger.warn("Cannot connect to customer-specific database {}: {}. Trying generic database.", databaseName, e.getMessage());
-                String genericDatabaseName = databaseType.equalsIgnoreCase("blackpearl") ? "tapesystem" : "rio_db";
-                dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, genericDatabaseName));
-                jdbc = new JdbcTemplate(dataSource);
-                try {
-                    jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                    logger.info("Successfully connected to generic database: {}", genericDatabaseName);
-                } catch (Exception e2) {
-                    logger.error("Cannot connect to either customer-specific or generic database: {}", e2.getMessage());
-                    return bucketDataList; // Return empty list
-                }
+            // Incremental gathers need blob_tape.order_index; without it every gather is a full count
+            boolean useIncremental = incremental && incrementalGatherService.isSupported(jdbc, databaseKey);
+            if (incremental && !useIncremental) {
+                logger.info("Database {} does not support incremental gathers, doing a full gather", actualDatabaseName);
             }
 
-            // Query objects by storage domain - count only objects actually stored on tapes
-            // Pattern 1: Storage Domain -> Storage Domain Member -> Tape -> Blob Tape -> Blob -> Objects
-            // This is the correct relationship for objects actually on tapes
-            long totalObjects = 0L;
-            long totalSize = 0L;
-
-            try {
-                Long count = jdbc.queryForObject(
-                    "SELECT COUNT(DISTINCT so.id) " +
-                    "FROM ds3.storage_domain sd " +
-                    "JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id " +
-                    "JOIN tape.tape t ON t.storage_domain_member_id = sdm.id " +
-                    "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
-                    "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
-                    "JOIN ds3.s3_object so ON so.id = bl.object_id " +
-                    "WHERE sd.name ILIKE ?",
-                    Long.class,
-                    storageDomain
-                );
-                Long size = jdbc.queryForObject(
-                    "SELECT COALESCE(SUM(bl.length), 0) " +
-                    "FROM ds3.storage_domain sd " +
-                    "JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id " +
-                    "JOIN tape.tape t ON t.storage_domain_member_id = sdm.id " +
-                    "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
-                    "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
-                    "JOIN ds3.s3_object so ON so.id = bl.object_id " +
-                    "WHERE sd.name ILIKE ?",
-                    Long.class,
-                    storageDomain
-                );
-                if (count != null && size != null) {
-                    totalObjects = count;
-                    totalSize = size;
-                    logger.info("Successfully queried storage domain '{}' via blob_tape: {} objects, {} bytes", storageDomain, count, size);
-                }
-            } catch (Exception e) {
-                logger.warn("Query via blob_tape failed for storage domain '{}': {}", storageDomain, e.getMessage());
-                
-                // Pattern 2: Fallback - Storage Domain -> Data Persistence Rule -> Data Policy -> Bucket -> Objects
-                // This counts all objects in buckets linked to the storage domain (not just those on tapes)
-                try {
-                    Long count = jdbc.queryForObject(
-                        "SELECT COUNT(DISTINCT so.id) " +
-                        "FROM ds3.storage_domain sd " +
-                        "JOIN ds3.data_persistence_rule dpr ON dpr.storage_domain_id = sd.id " +
-                        "JOIN ds3.data_policy dp ON dp.id = dpr.data_policy_id " +
-                        "JOIN ds3.bucket b ON b.data_policy_id = dp.id " +
-                        "JOIN ds3.s3_object so ON so.bucket_id = b.id " +
-                        "WHERE sd.name ILIKE ?",
-                        Long.class,
-                        storageDomain
-                    );
-                    Long size = jdbc.queryForObject(
-                        "SELECT COALESCE(SUM(bl.length), 0) " +
-                        "FROM ds3.storage_domain sd " +
-                        "JOIN ds3.data_persistence_rule dpr ON dpr.storage_domain_id = sd.id " +
-                        "JOIN ds3.data_policy dp ON dp.id = dpr.data_policy_id " +
-                        "JOIN ds3.bucket b ON b.data_policy_id = dp.id " +
-                        "JOIN ds3.s3_object so ON so.bucket_id = b.id " +
-                        "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
-                        "WHERE sd.name ILIKE ?",
-                        Long.class,
-                        storageDomain
-                    );
-                    if (count != null && size != null) {
-                        totalObjects = count;
-                        totalSize = size;
-                        logger.info("Successfully queried storage domain '{}' via data_persistence_rule (fallback): {} objects, {} bytes", storageDomain, count, size);
+            // Full gathers take their counts from one per-bucket scan of the storage domain, shared with
+            // other phases gathering the same domain for this date
+            GatherResultCache.DomainScan scan = useIncremental
+                ? null
+                : sharedScan(jdbc, databaseKey, storageDomain, tapePartition, domain, date, sketch);
+            String scanMode = scan == null ? "shared"
+                : !scan.getSketches().isEmpty() ? "sketch"
+                : scan.isSummary() ? "summary" : "shared";
+            if (scan != null) {
+                for (String memberId : domain.getMemberIds()) {
+                    String memberPartition = domain.getTapePartition(memberId);
+                    if (memberPartition != null) {
+                        TapePartitionData data = partition(partitions, memberPartition);
+                        long bytes = scan.getMemberBytes().getOrDefault(memberId, 0L);
+                        data.setSizeBytes((data.getSizeBytes() != null ? data.getSizeBytes() : 0L) + bytes);
                     }
-                } catch (Exception e2) {
-                    logger.warn("Query via data_persistence_rule (fallback) failed for storage domain '{}': {}", storageDomain, e2.getMessage());
                 }
             }
 
@@ -271,35 +535,53 @@ public class MigrationService {
                 // Query each selected bucket separately
                 for (String bucketName : selectedBuckets) {
                     String bucketFilter = " AND b.name = ?";
-                    Object[] bucketParams = new Object[]{storageDomain, bucketName};
+                    Object[] bucketParams = new Object[]{domain.memberIdArray(), bucketName};
+                    Timer.Sample bucketSample = Timer.start(meterRegistry);
+                    String mode = "full";
+                    String outcome = "failed";
                     
                     try {
-                        Long bucketCount = jdbc.queryForObject(
-                            "SELECT COUNT(DISTINCT so.id) " +
-                            "FROM ds3.storage_domain sd " +
-                            "JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id " +
-                            "JOIN tape.tape t ON t.storage_domain_member_id = sdm.id " +
-                            "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
-                            "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
-                            "JOIN ds3.s3_object so ON so.id = bl.object_id " +
-                            "JOIN ds3.bucket b ON b.id = so.bucket_id " +
-                            "WHERE sd.name ILIKE ?" + bucketFilter,
-                            Long.class,
-                            bucketParams
-                        );
-                        Long bucketSize = jdbc.queryForObject(
-                            "SELECT COALESCE(SUM(bl.length), 0) " +
-                            "FROM ds3.storage_domain sd " +
-                            "JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id " +
-                            "JOIN tape.tape t ON t.storage_domain_member_id = sdm.id " +
-                            "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
-                            "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
-                            "JOIN ds3.s3_object so ON so.id = bl.object_id " +
-                            "JOIN ds3.bucket b ON b.id = so.bucket_id " +
-                            "WHERE sd.name ILIKE ?" + bucketFilter,
-                            Long.class,
-                            bucketParams
-                        );
+                        long[] incrementalTotals = useIncremental
+                            ? gatherIncremental(jdbc, phaseId, date, storageDomain, domain, bucketName)
+                            : null;
+                        Long bucketCount;
+                        Long bucketSize;
+                        if (incrementalTotals != null) {
+                            mode = "incremental";
+                            bucketCount = incrementalTotals[0];
+                            bucketSize = incrementalTotals[1];
+                        } else if (scan != null) {
+                            mode = scanMode;
+                            long[] split = scan.getBucket(bucketName);
+                            bucketCount = split[0];
+                            bucketSize = split[1];
+                        } else {
+                            bucketCount = jdbc.queryForObject(
+                                "SELECT COUNT(DISTINCT so.id) " +
+                                "FROM tape.tape t " +
+                                "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                                "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                                "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                                "JOIN ds3.bucket b ON b.id = so.bucket_id " +
+                                "WHERE " + domain.memberFilter("t.storage_domain_member_id") + bucketFilter,
+                                Long.class,
+                                bucketParams
+                            );
+                            bucketSize = jdbc.queryForObject(
+                                "SELECT COALESCE(SUM(bl.length), 0) " +
+                                "FROM tape.tape t " +
+                                "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                                "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                                "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                                "JOIN ds3.bucket b ON b.id = so.bucket_id " +
+                                "WHERE " + domain.memberFilter("t.storage_domain_member_id") + bucketFilter,
+                                Long.class,
+                                bucketParams
+                            );
+                            if (useIncremental && bucketCount != null && bucketSize != null) {
+                                incrementalGatherService.recordFullGather(jdbc, phaseId, date, storageDomain, domain, bucketName, bucketCount, bucketSize);
+                            }
+                        }
                         
                         if (bucketCount != null && bucketSize != null) {
                             BucketData bucketData = new BucketData();
@@ -311,15 +593,41 @@ public class MigrationService {
                             bucketData.setObjectCount(bucketCount);
                             bucketData.setSizeBytes(bucketSize);
                             bucketDataList.add(bucketDataRepository.save(bucketData));
-                            logger.info("Stored data for bucket '{}' in storage domain '{}' ({}): {} objects, {} bytes", 
-                                bucketName, storageDomain, context, bucketCount, bucketSize);
+                            // Gathers of many buckets log only the first lines per interval; the per-leg total follows
+                            long suppressed = logSampler.allowDetail("gather-bucket:" + phaseId);
+                            if (suppressed >= 0) {
+                                logger.info("Stored data for bucket '{}' in storage domain '{}' ({}): {} objects, {} bytes ({} bucket lines suppressed)", 
+                                    bucketName, storageDomain, context, bucketCount, bucketSize, suppressed);
+                            }
+                            outcome = "stored";
+                        } else {
+                            outcome = "empty";
                         }
                     } catch (Exception e) {
                         logger.warn("Failed to query bucket '{}' in storage domain '{}': {}", bucketName, storageDomain, e.getMessage());
+                    } finally {
+                        bucketSample.stop(bucketTimer(context, mode, outcome));
                     }
                 }
             } else {
                 // No buckets selected, store aggregate data for the storage domain
+                Timer.Sample domainSample = Timer.start(meterRegistry);
+                long[] totals = useIncremental ? gatherIncremental(jdbc, phaseId, date, storageDomain, domain, null) : null;
+                String mode = totals != null ? "incremental" : scan != null ? scanMode : "full";
+                String outcome = "failed";
+                try {
+                    if (totals == null) {
+                        totals = scan != null
+                            ? scan.getTotals()
+                            : queryStorageDomainTotals(jdbc, phaseId, date, storageDomain, domain, useIncremental);
+                    }
+                    outcome = totals[0] > 0 || totals[1] > 0 ? "stored" : "empty";
+                } finally {
+                    domainSample.stop(bucketTimer(context, mode, outcome));
+                }
+                long totalObjects = totals[0];
+                long totalSize = totals[1];
+
                 if (totalObjects > 0 || totalSize > 0) {
                     BucketData bucketData = new BucketData();
                     bucketData.setMigrationPhaseId(phaseId);
@@ -336,7 +644,15 @@ public class MigrationService {
                 }
             }
 
+            if (scan != null && !scan.getSketches().isEmpty()) {
+                objectSketchService.save(phaseId, date, storageDomain, scan, selectedBuckets);
+            }
+            if (scan != null) {
+                sizeHistogramService.save(phaseId, date, storageDomain, scan, selectedBuckets);
+            }
+
             logger.info("Stored {} bucket data points for phase {} ({})", bucketDataList.size(), phaseId, context);
+            RequestLogSummary.add(context + "Buckets", bucketDataList.size());
         } catch (Exception e) {
             logger.error("Error querying and storing bucket data for {}: {}", context, e.getMessage(), e);
         }
@@ -344,10 +660,170 @@ public class MigrationService {
         return bucketDataList;
     }
 
+    /**
+     * Per-bucket gather latency (the storage domain counts as one bucket when no buckets are selected).
+     * Bucket names are not tagged, to keep the number of series bounded.
+     */
+    private Timer bucketTimer(String leg, String mode, String outcome) {
+        return meterRegistry.timer("migration.gather.bucket", "leg", leg, "mode", mode, "outcome", outcome);
+    }
+
+    /**
+     * Objects, bytes and blob size histogram per bucket on the storage domain's tapes, in one grouped query (or one
+     * sketch-mode stream, or from the restored database's summary), shared through GatherResultCache. Null if the scan fails; the caller then queries per bucket.
+     */
+    private GatherResultCache.DomainScan sharedScan(JdbcTemplate jdbc, String databaseKey, String storageDomain,
+                                                    String tapePartition, StorageDomainResolver.StorageDomainIds domain,
+                                                    LocalDate date, boolean sketch) {
+        try {
+            return gatherResultCache.getScan(databaseKey, storageDomain, tapePartition, date, sketch, () -> {
+                if (sketch) {
+                    try {
+                        return objectSketchService.scan(jdbc, storageDomain, domain);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Sketch scan failed: " + e.getMessage(), e);
+                    }
+                }
+                long startTime = System.currentTimeMillis();
+                // The restored copy's precomputed summary, if it has one (it covers whole storage domains only)
+                if (tapePartition == null || tapePartition.isBlank()) {
+                    GatherResultCache.DomainScan summary = postRestoreOptimizer.summaryScan(jdbc, domain, sizeHistogramService.isEnabled());
+                    if (summary != null) {
+                        logger.info("Read storage domain '{}' in {} from its summary: {} buckets ({} ms)", storageDomain,
+                            databaseKey, summary.getBucketCount(), System.currentTimeMillis() - startTime);
+                        return summary;
+                    }
+                }
+                GatherResultCache.DomainScan scan = new GatherResultCache.DomainScan();
+                // Per bucket, per storage domain member (= tape partition) and per bucket and size class,
+                // from the same scan
+                String sizeClass = sizeHistogramService.isEnabled() ? SizeHistogram.sqlSizeClass("COALESCE(bl.length, 0)") : "NULL::integer";
+                jdbc.query(
+                    "SELECT b.name AS bucket_name, t.storage_domain_member_id::text AS member_id, " +
+                    sizeClass + " AS size_class, COUNT(*) AS blobs, " +
+                    "COUNT(DISTINCT so.id) AS objects, COALESCE(SUM(bl.length), 0) AS bytes " +
+                    "FROM tape.tape t " +
+                    "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                    "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                    "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                    "JOIN ds3.bucket b ON b.id = so.bucket_id " +
+                    "WHERE " + domain.memberFilter("t.storage_domain_member_id") + " " +
+                    "GROUP BY GROUPING SETS ((b.name), (t.storage_domain_member_id)" +
+                    (sizeHistogramService.isEnabled() ? ", (b.name, " + sizeClass + ")" : "") + ")",
+                    rs -> { scan.addRow(rs, true); },
+                    domain.memberIdArray());
+                logger.info("Scanned storage domain '{}' in {}: {} buckets ({} ms)", storageDomain, databaseKey,
+                    scan.getBucketCount(), System.currentTimeMillis() - startTime);
+                return scan;
+            });
+        } catch (Exception e) {
+            logger.warn("Per-bucket scan of storage domain '{}' failed: {}. Querying per bucket.", storageDomain, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Incremental totals {objects, bytes}, or null if a full gather is needed
+     */
+    private long[] gatherIncremental(JdbcTemplate jdbc, String phaseId, LocalDate date, String storageDomain,
+                                     StorageDomainResolver.StorageDomainIds domain, String bucketName) {
+        try {
+            return incrementalGatherService.gatherDelta(jdbc, phaseId, date, storageDomain, domain, bucketName).orElse(null);
+        } catch (Exception e) {
+            logger.warn("Incremental gather failed for storage domain '{}': {}. Doing a full gather.", storageDomain, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Full count of objects and bytes on a storage domain: {objects, bytes}.
+     * Records an incremental baseline when counted via blob_tape and incremental gathers are in use.
+     */
+    private long[] queryStorageDomainTotals(JdbcTemplate jdbc, String phaseId, LocalDate date, String storageDomain,
+                                            StorageDomainResolver.StorageDomainIds domain, boolean recordBaseline) {
+        // Query objects by storage domain - count only objects actually stored on tapes
+        // Pattern 1: Storage Domain -> Storage Domain Member -> Tape -> Blob Tape -> Blob -> Objects
+        // This is the correct relationship for objects actually on tapes
+        long totalObjects = 0L;
+        long totalSize = 0L;
+
+        try {
+            Long count = jdbc.queryForObject(
+                "SELECT COUNT(DISTINCT so.id) " +
+                "FROM tape.tape t " +
+                "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                "WHERE " + domain.memberFilter("t.storage_domain_member_id"),
+                Long.class,
+                domain.memberIdArray()
+            );
+            Long size = jdbc.queryForObject(
+                "SELECT COALESCE(SUM(bl.length), 0) " +
+                "FROM tape.tape t " +
+                "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                "WHERE " + domain.memberFilter("t.storage_domain_member_id"),
+                Long.class,
+                domain.memberIdArray()
+            );
+            if (count != null && size != null) {
+                totalObjects = count;
+                totalSize = size;
+                logger.info("Successfully queried storage domain '{}' via blob_tape: {} objects, {} bytes", storageDomain, count, size);
+                if (recordBaseline) {
+                    incrementalGatherService.recordFullGather(jdbc, phaseId, date, storageDomain, domain, null, count, size);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Query via blob_tape failed for storage domain '{}': {}", storageDomain, e.getMessage());
+            
+            // Pattern 2: Fallback - Storage Domain -> Data Persistence Rule -> Data Policy -> Bucket -> Objects
+            // This counts all objects in buckets linked to the storage domain (not just those on tapes)
+            try {
+                Long count = jdbc.queryForObject(
+                    "SELECT COUNT(DISTINCT so.id) " +
+                    "FROM ds3.data_persistence_rule dpr " +
+                    "JOIN ds3.data_policy dp ON dp.id = dpr.data_policy_id " +
+                    "JOIN ds3.bucket b ON b.data_policy_id = dp.id " +
+                    "JOIN ds3.s3_object so ON so.bucket_id = b.id " +
+                    "WHERE " + domain.domainFilter("dpr.storage_domain_id"),
+                    Long.class,
+                    domain.domainIdArray()
+                );
+                Long size = jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(bl.length), 0) " +
+                    "FROM ds3.data_persistence_rule dpr " +
+                    "JOIN ds3.data_policy dp ON dp.id = dpr.data_policy_id " +
+                    "JOIN ds3.bucket b ON b.data_policy_id = dp.id " +
+                    "JOIN ds3.s3_object so ON so.bucket_id = b.id " +
+                    "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
+                    "WHERE " + domain.domainFilter("dpr.storage_domain_id"),
+                    Long.class,
+                    domain.domainIdArray()
+                );
+                if (count != null && size != null) {
+                    totalObjects = count;
+                    totalSize = size;
+                    logger.info("Successfully queried storage domain '{}' via data_persistence_rule (fallback): {} objects, {} bytes", storageDomain, count, size);
+                }
+            } catch (Exception e2) {
+                logger.warn("Query via data_persistence_rule (fallback) failed for storage domain '{}': {}", storageDomain, e2.getMessage());
+            }
+        }
+
+        return new long[]{totalObjects, totalSize};
+    }
+
     public List<MigrationData> getDataByPhase(String phaseId) {
         return repository.findByPhaseId(phaseId);
     }
 
+    public List<TapePartitionData> getTapePartitionDataByPhase(String phaseId) {
+        return tapePartitionDataRepository.findByPhaseId(phaseId);
+    }
+
     public List<BucketData> getBucketDataByPhase(String phaseId) {
         return bucketDataRepository.findByPhaseId(phaseId);
     }
@@ -364,74 +840,47 @@ public class MigrationService {
         // Delete both migration_data and bucket_data for this phase and date
         repository.deleteByPhaseIdAndTimestamp(phaseId, date);
         bucketDataRepository.deleteByPhaseIdAndTimestamp(phaseId, date);
+        tapePartitionDataRepository.deleteByPhaseIdAndTimestamp(phaseId, date);
+        objectSketchService.delete(phaseId, date);
+        sizeHistogramService.delete(phaseId, date);
+        // Gathering the date again should count again
+        gatherResultCache.evict(date);
     }
     
     /**
      * Query tape count for a storage domain
      */
-    private long queryTapeCount(String customerName, String databaseType, String storageDomain) {
+    private long queryTapeCount(String customerName, String databaseType, String storageDomain, String tapePartition,
+                                Map<String, TapePartitionData> partitions) {
         try {
-            // Construct customer-specific database name
-            String databaseName;
-            String host;
-            int port;
-            String username;
-            String password;
-
-            if (databaseType.equalsIgnoreCase("blackpearl")) {
-                databaseName = "tapesystem_" + customerName;
-                host = blackpearlHost;
-                port = blackpearlPort;
-                username = blackpearlUsername;
-                password = blackpearlPassword != null ? blackpearlPassword : "";
-            } else {
-                databaseName = "rio_db_" + customerName;
-                host = rioHost;
-                port = rioPort;
-                username = rioUsername;
-                password = rioPassword != null ? rioPassword : "";
+            CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+            if (database == null) {
+                return 0L;
             }
+            JdbcTemplate jdbc = database.getJdbc();
 
-            // Create data source for customer-specific database
-            DriverManagerDataSource dataSource = new DriverManagerDataSource();
-            dataSource.setDriverClassName("org.postgresql.Driver");
-            dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName));
-            dataSource.setUsername(username);
-            dataSource.setPassword(password);
-
-            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
-
-            // Try customer-specific database first, fallback to generic
+            // Query tape count: tapes of the storage domain's members (the mapping is cached from the gather)
             try {
-                jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-            } catch (Exception e) {
-                logger.warn("Cannot connect to customer-specific database {} for tape count: {}. Trying generic database.", databaseName, e.getMessage());
-                String genericDatabaseName = databaseType.equalsIgnoreCase("blackpearl") ? "tapesystem" : "rio_db";
-                dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, genericDatabaseName));
-                jdbc = new JdbcTemplate(dataSource);
-                try {
-                    jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                } catch (Exception e2) {
-                    logger.error("Cannot connect to either customer-specific or generic database for tape count: {}", e2.getMessage());
-                    return 0L;
-                }
-            }
-
-            // Query tape count: COUNT(DISTINCT t.id) for storage domain
-            try {
-                Long count = jdbc.queryForObject(
-                    "SELECT COUNT(DISTINCT t.id) " +
-                    "FROM ds3.storage_domain sd " +
-                    "JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id " +
-                    "JOIN tape.tape t ON t.storage_domain_member_id = sdm.id " +
-                    "WHERE sd.name ILIKE ?",
-                    Long.class,
-                    storageDomain
+                StorageDomainResolver.StorageDomainIds domain = storageDomainResolver.resolve(
+                    jdbc, database.getKey(), storageDomain, tapePartition);
+                long[] count = new long[1];
+                jdbc.query(
+                    "SELECT t.storage_domain_member_id::text AS member_id, COUNT(*) AS tapes FROM tape.tape t " +
+                    "WHERE " + domain.memberFilter("t.storage_domain_member_id") + " GROUP BY t.storage_domain_member_id",
+                    rs -> {
+                        long tapes = rs.getLong("tapes");
+                        count[0] += tapes;
+                        String memberPartition = domain.getTapePartition(rs.getString("member_id"));
+                        if (memberPartition != null) {
+                            TapePartitionData data = partition(partitions, memberPartition);
+                            data.setTapeCount(data.getTapeCount() + tapes);
+                        }
+                    },
+                    domain.memberIdArray()
                 );
-                if (count != null) {
-                    logger.info("Found {} tapes for storage domain '{}'", count, storageDomain);
-                    return count;
-                }
+                logger.info("Found {} tapes for storage domain '{}'{}", count[0], storageDomain,
+                    tapePartition != null && !tapePartition.isBlank() ? " in tape partition '" + tapePartition + "'" : "");
+                return count[0];
             } catch (Exception e) {
                 logger.warn("Failed to query tape count for storage domain '{}': {}", storageDomain, e.getMessage());
             }
@@ -440,4 +889,67 @@ public class MigrationService {
         }
         return 0L;
     }
+
+    /**
+     * Outcome of a backfill
+     */
+    public static class BackfillResult {
+        private int dataPoints;
+        private int bucketRows;
+        private String sourceTimestampColumn;
+        private String targetTimestampColumn;
+        private final List<LocalDate> skippedDates = new ArrayList<>(); // already had data
+
+        public int getDataPoints() {
+            return dataPoints;
+        }
+
+        public void setDataPoints(int dataPoints) {
+            this.dataPoints = dataPoints;
+        }
+
+        public int getBucketRows() {
+            return bucketRows;
+        }
+
+        public void setBucketRows(int bucketRows) {
+            this.bucketRows = bucketRows;
+        }
+
+        public String getSourceTimestampColumn() {
+            return sourceTimestampColumn;
+        }
+
+        public void setSourceTimestampColumn(String sourceTimestampColumn) {
+            this.sourceTimestampColumn = sourceTimestampColumn;
+        }
+
+        public String getTargetTimestampColumn() {
+            return targetTimestampColumn;
+        }
+
+        public void setTargetTimestampColumn(String targetTimestampColumn) {
+            this.targetTimestampColumn = targetTimestampColumn;
+        }
+
+        public List<LocalDate> getSkippedDates() {
+            return skippedDates;
+        }
+    }
+
+    /**
+     * Outcome of gathering all phases of a project
+     */
+    public static class ProjectGatherResult {
+        private final List<MigrationData> gathered = new ArrayList<>();
+        private final Map<String, String> failed = new LinkedHashMap<>(); // phase id -> error
+
+        public List<MigrationData> getGathered() {
+            return gathered;
+        }
+
+        public Map<String, String> getFailed() {
+            return failed;
+        }
+    }
 }
@@ -0,0 +1,298 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.BucketSketch;
+import com.spectralogic.migrationtracker.model.MigrationPhase;
+import com.spectralogic.migrationtracker.repository.BucketSketchRepository;
+import com.spectralogic.migrationtracker.repository.PhaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Sketch counting mode for full gathers: instead of COUNT(DISTINCT so.id), which makes PostgreSQL sort or hash
+ * every blob row, the storage domain's (bucket, object id, blob length) rows are streamed unsorted and each bucket's
+ * object ids go into a {@link HyperLogLog} sketch. Bytes are still summed exactly.
+ *
+ * The sketches are stored per phase, date, storage domain and bucket, so domain totals and the overlap of source and
+ * target ("objects on both") are merged from them without another scan. Exact mode stays the default.
+ */
+@Service
+public class ObjectSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectSketchService.class);
+
+    private static final int CANCEL_CHECK_INTERVAL = 100_000;
+
+    private final BucketSketchRepository repository;
+    private final PhaseRepository phaseRepository;
+    private final QueryOperationService queryOperationService;
+
+    @Value("${migration.gather.sketch.enabled:false}")
+    private boolean enabledByDefault;
+
+    @Value("${migration.gather.sketch.precision:14}")
+    private int precision;
+
+    @Value("${migration.gather.sketch.fetch-size:50000}")
+    private int fetchSize;
+
+    public ObjectSketchService(BucketSketchRepository repository, PhaseRepository phaseRepository,
+                               QueryOperationService queryOperationService) {
+        this.repository = repository;
+        this.phaseRepository = phaseRepository;
+        this.queryOperationService = queryOperationService;
+    }
+
+    /**
+     * Whether a full gather should count with sketches: the request's choice, or the configured default
+     */
+    public boolean isSketch(Boolean requested) {
+        return requested != null ? requested : enabledByDefault;
+    }
+
+    /**
+     * Stream the storage domain's blob rows once: a sketch, object estimate, exact bytes and size histogram per bucket,
+     * and bytes per storage domain member. Holds one sketch per bucket, not the rows.
+     */
+    GatherResultCache.DomainScan scan(JdbcTemplate jdbc, String storageDomain, StorageDomainResolver.StorageDomainIds domain)
+            throws SQLException {
+        if (!(jdbc instanceof InstrumentedJdbcTemplate instrumented)) {
+            throw new IllegalStateException("Sketch scans need a customer database connection");
+        }
+        long startTime = System.currentTimeMillis();
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        Map<String, long[]> bucketBytes = new HashMap<>();
+        Map<String, long[]> memberBytes = new HashMap<>();
+        Map<String, SizeHistogram> histograms = new HashMap<>();
+        QueryOperationService.QueryOperation operation = queryOperationService.current();
+
+        // No sort, no DISTINCT: PostgreSQL only joins and streams
+        try (InstrumentedJdbcTemplate.Cursor cursor = instrumented.openCursor(
+                 "SELECT so.bucket_id::text AS bucket_id, t.storage_domain_member_id::text AS member_id, " +
+                 "bl.object_id::text AS object_id, bl.length " +
+                 "FROM tape.tape t " +
+                 "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+                 "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+                 "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+                 "WHERE " + domain.memberFilter("t.storage_domain_member_id"),
+                 fetchSize, true, domain.memberIdArray())) {
+            ResultSet rs = cursor.getResultSet();
+            while (cursor.next()) {
+                if (operation != null && cursor.getRows() % CANCEL_CHECK_INTERVAL == 0) {
+                    operation.throwIfCancelled();
+                }
+                String bucketId = rs.getString(1);
+                long length = rs.getLong(4);
+                sketches.computeIfAbsent(bucketId, id -> new HyperLogLog(precision)).add(rs.getString(3));
+                bucketBytes.computeIfAbsent(bucketId, id -> new long[1])[0] += length;
+                memberBytes.computeIfAbsent(rs.getString(2), id -> new long[1])[0] += length;
+                histograms.computeIfAbsent(bucketId, id -> new SizeHistogram()).addBlob(length);
+            }
+            logger.info("Sketched storage domain '{}': {} blob rows, {} buckets ({} ms)", storageDomain, cursor.getRows(),
+                sketches.size(), System.currentTimeMillis() - startTime);
+        }
+
+        Map<String, String> bucketNames = new HashMap<>();
+        jdbc.query("SELECT id::text AS id, name FROM ds3.bucket",
+            rs -> { bucketNames.put(rs.getString("id"), rs.getString("name")); });
+        GatherResultCache.DomainScan scan = new GatherResultCache.DomainScan();
+        sketches.forEach((bucketId, sketch) -> {
+            String bucketName = bucketNames.getOrDefault(bucketId, bucketId);
+            scan.addBucket(bucketName, sketch.estimate(), bucketBytes.get(bucketId)[0]);
+            scan.addSketch(bucketName, sketch);
+            scan.addHistogram(bucketName, histograms.get(bucketId));
+        });
+        memberBytes.forEach((memberId, bytes) -> scan.addMember(memberId, bytes[0]));
+        return scan;
+    }
+
+    /**
+     * Store the sketches of a gathered storage domain (only the selected buckets', if buckets were selected)
+     */
+    void save(String phaseId, LocalDate date, String storageDomain, GatherResultCache.DomainScan scan,
+              List<String> selectedBuckets) {
+        List<BucketSketch> rows = new ArrayList<>();
+        scan.getSketches().forEach((bucketName, sketch) -> {
+            if (selectedBuckets == null || selectedBuckets.isEmpty() || selectedBuckets.contains(bucketName)) {
+                BucketSketch row = new BucketSketch();
+                row.setMigrationPhaseId(phaseId);
+                row.setTimestamp(date);
+                row.setStorageDomain(storageDomain);
+                row.setBucketName(bucketName);
+                row.setPrecision(sketch.getPrecision());
+                row.setRegisters(sketch.toBytes());
+                rows.add(row);
+            }
+        });
+        try {
+            repository.saveAll(rows);
+        } catch (Exception e) {
+            logger.warn("Could not store object sketches of storage domain '{}' for phase {} on {}: {}",
+                storageDomain, phaseId, date, e.getMessage());
+        }
+    }
+
+    void delete(String phaseId, LocalDate date) {
+        repository.deleteByPhaseIdAndTimestamp(phaseId, date);
+    }
+
+    /**
+     * Estimated objects per bucket and in total on the phase's source and target, their union and overlap,
+     * merged from the stored sketches of one date (the latest with sketches if null)
+     */
+    public SketchCounts getCounts(String phaseId, LocalDate date) {
+        MigrationPhase phase = phaseRepository.findById(phaseId)
+            .orElseThrow(() -> new IllegalArgumentException("Phase not found: " + phaseId));
+        LocalDate day = date != null ? date : repository.findLatestTimestamp(phaseId);
+        if (day == null) {
+            throw new IllegalArgumentException("Phase " + phaseId + " has no sketch-mode gathers");
+        }
+        List<BucketSketch> rows = repository.findByPhaseIdAndTimestamp(phaseId, day);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Phase " + phaseId + " has no object sketches for " + day);
+        }
+
+        Map<String, HyperLogLog> source = new TreeMap<>();
+        Map<String, HyperLogLog> target = new TreeMap<>();
+        for (BucketSketch row : rows) {
+            HyperLogLog sketch = HyperLogLog.fromBytes(row.getPrecision(), row.getRegisters());
+            if (row.getStorageDomain().equalsIgnoreCase(phase.getSource())) {
+                source.put(row.getBucketName(), sketch);
+            } else if (row.getStorageDomain().equalsIgnoreCase(phase.getTarget())) {
+                target.put(row.getBucketName(), sketch);
+            }
+        }
+        // Object ids only identify the same object within one database
+        boolean sameDatabase = CustomerDatabaseConnector.determineDatabaseType(phase.getSource())
+            .equals(CustomerDatabaseConnector.determineDatabaseType(phase.getTarget()));
+
+        SketchCounts counts = new SketchCounts();
+        counts.date = day;
+        HyperLogLog sourceTotal = union(source.values());
+        HyperLogLog targetTotal = union(target.values());
+        counts.sourceObjects = sourceTotal != null ? sourceTotal.estimate() : 0L;
+        counts.targetObjects = targetTotal != null ? targetTotal.estimate() : 0L;
+        counts.precision = rows.get(0).getPrecision();
+        if (sourceTotal != null && targetTotal != null) {
+            HyperLogLog all = sourceTotal.copy();
+            all.merge(targetTotal);
+            counts.unionObjects = all.estimate();
+            counts.bothObjects = sameDatabase ? overlap(counts.sourceObjects, counts.targetObjects, counts.unionObjects) : null;
+        }
+
+        TreeSet<String> bucketNames = new TreeSet<>(source.keySet());
+        bucketNames.addAll(target.keySet());
+        for (String bucketName : bucketNames) {
+            BucketCounts bucket = new BucketCounts();
+            bucket.bucketName = bucketName;
+            HyperLogLog sourceSketch = source.get(bucketName);
+            HyperLogLog targetSketch = target.get(bucketName);
+            bucket.sourceObjects = sourceSketch != null ? sourceSketch.estimate() : 0L;
+            bucket.targetObjects = targetSketch != null ? targetSketch.estimate() : 0L;
+            if (sameDatabase && sourceSketch != null && targetSketch != null) {
+                HyperLogLog all = sourceSketch.copy();
+                all.merge(targetSketch);
+                bucket.bothObjects = overlap(bucket.sourceObjects, bucket.targetObjects, all.estimate());
+            } else if (sameDatabase) {
+                bucket.bothObjects = 0L;
+            }
+            counts.buckets.add(bucket);
+        }
+        return counts;
+    }
+
+    private static HyperLogLog union(Iterable<HyperLogLog> sketches) {
+        HyperLogLog union = null;
+        for (HyperLogLog sketch : sketches) {
+            if (union == null) {
+                union = sketch.copy();
+            } else {
+                union.merge(sketch);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * |A and B| = |A| + |B| - |A or B|, clamped (each estimate has its own error)
+     */
+    private static long overlap(long a, long b, long union) {
+        return Math.max(0L, Math.min(Math.min(a, b), a + b - union));
+    }
+
+    /**
+     * Object estimates of a phase on one date
+     */
+    public static class SketchCounts {
+        private LocalDate date;
+        private int precision;
+        private long sourceObjects;
+        private long targetObjects;
+        private Long unionObjects;
+        private Long bothObjects; // null if source and target are in different databases
+        private final List<BucketCounts> buckets = new ArrayList<>();
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getPrecision() {
+            return precision;
+        }
+
+        public long getSourceObjects() {
+            return sourceObjects;
+        }
+
+        public long getTargetObjects() {
+            return targetObjects;
+        }
+
+        public Long getUnionObjects() {
+            return unionObjects;
+        }
+
+        public Long getBothObjects() {
+            return bothObjects;
+        }
+
+        public List<BucketCounts> getBuckets() {
+            return buckets;
+        }
+    }
+
+    public static class BucketCounts {
+        private String bucketName;
+        private long sourceObjects;
+        private long targetObjects;
+        private Long bothObjects;
+
+        public String getBucketName() {
+            return bucketName;
+        }
+
+        public long getSourceObjects() {
+            return sourceObjects;
+        }
+
+        public long getTargetObjects() {
+            return targetObjects;
+        }
+
+        public Long getBothObjects() {
+            return bothObjects;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds structures of our own to a customer's restored BlackPearl database (a local copy, so it is ours to change):
+ * helper indexes for the gather joins, and materialized per-bucket and per-(storage domain, bucket) summaries that
+ * gathers and bucket listings read instead of aggregating blob rows. Runs as the OPTIMIZE stage of a restore;
+ * the summaries can be refreshed on demand.
+ *
+ * The summaries live in their own schema, which PostgreSQLRestoreService drops before restoring a dump over the
+ * database (they depend on the ds3/tape tables the dump drops and recreates).
+ */
+@Service
+public class PostRestoreOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostRestoreOptimizer.class);
+
+    public static final String SCHEMA = "migration_tracker";
+
+    static final String BUCKET_SUMMARY = SCHEMA + ".bucket_summary";
+    private static final String DOMAIN_SUMMARY = SCHEMA + ".storage_domain_summary";
+
+    /**
+     * {table, column} of the joins every gather makes, from storage domain member down to object
+     */
+    private static final String[][] HELPER_INDEXES = {
+        {"tape.blob_tape", "tape_id"},
+        {"ds3.blob", "object_id"},
+        {"tape.tape", "storage_domain_member_id"},
+    };
+
+    private final CustomerDatabaseConnector customerDatabaseConnector;
+    private final CustomerService customerService;
+    private final QueryOperationService queryOperationService;
+
+    @Value("${postgres.restore.optimize.enabled:true}")
+    private boolean enabled;
+
+    @Value("${postgres.restore.optimize.query-timeout:7200}")
+    private int queryTimeout;
+
+    public PostRestoreOptimizer(CustomerDatabaseConnector customerDatabaseConnector, CustomerService customerService,
+                                QueryOperationService queryOperationService) {
+        this.customerDatabaseConnector = customerDatabaseConnector;
+        this.customerService = customerService;
+        this.queryOperationService = queryOperationService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Create the missing helper indexes, then build (or rebuild) the summaries
+     */
+    public OptimizeResult optimize(String customerId, String databaseType) {
+        return run(customerId, databaseType, true);
+    }
+
+    /**
+     * Rebuild the summaries from the current contents of the database
+     */
+    public OptimizeResult refreshSummaries(String customerId, String databaseType) {
+        return run(customerId, databaseType, false);
+    }
+
+    private OptimizeResult run(String customerId, String databaseType, boolean indexes) {
+        long startTime = System.currentTimeMillis();
+        Customer customer = customerService.findById(customerId);
+        String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
+        CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+        if (database == null) {
+            throw new IllegalStateException("Could not connect to the " + databaseType + " database for customer " + customerId);
+        }
+        JdbcTemplate jdbc = database.getJdbc();
+
+        OptimizeResult result = new OptimizeResult();
+        result.databaseName = database.getName();
+        if (!tableExists(jdbc, "ds3", "blob") || !tableExists(jdbc, "tape", "blob_tape")) {
+            logger.info("Database {} has no ds3/tape schema, nothing to optimize", database.getName());
+            result.elapsedMillis = System.currentTimeMillis() - startTime;
+            return result;
+        }
+
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Optimize restored database " + database.getName(), queryTimeout)) {
+            if (indexes) {
+                for (String[] index : HELPER_INDEXES) {
+                    String name = createHelperIndex(jdbc, index[0], index[1]);
+                    if (name != null) {
+                        result.indexesCreated.add(name);
+                    }
+                    operation.throwIfCancelled();
+                }
+            }
+            buildSummaries(jdbc);
+            result.bucketSummaryRows = countRows(jdbc, BUCKET_SUMMARY);
+            result.domainSummaryRows = countRows(jdbc, DOMAIN_SUMMARY);
+        }
+        result.elapsedMillis = System.currentTimeMillis() - startTime;
+        logger.info("Optimized {}: created indexes {}, {} bucket and {} storage domain summary rows in {} ms",
+            database.getName(), result.indexesCreated, result.bucketSummaryRows, result.domainSummaryRows, result.elapsedMillis);
+        return result;
+    }
+
+    /**
+     * Index a column unless an index already leads with it. Returns the new index's name, or null.
+     * Plain CREATE INDEX: right after a restore nothing else writes to the copy.
+     */
+    private String createHelperIndex(JdbcTemplate jdbc, String table, String column) {
+        Boolean indexed = jdbc.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_index i " +
+            "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0] " +
+            "WHERE i.indrelid = CAST(? AS regclass) AND a.attname = ? AND i.indisvalid)",
+            Boolean.class, table, column);
+        if (Boolean.TRUE.equals(indexed)) {
+            logger.debug("{}.{} is already indexed", table, column);
+            return null;
+        }
+        String name = "mt_" + table.substring(table.indexOf('.') + 1) + "_" + column + "_idx";
+        long startTime = System.currentTimeMillis();
+        jdbc.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + column + ")");
+        jdbc.execute("ANALYZE " + table);
+        logger.info("Created index {} on {} ({}) in {} ms", name, table, column, System.currentTimeMillis() - startTime);
+        return table.substring(0, table.indexOf('.') + 1) + name;
+    }
+
+    /**
+     * (Re)create both summaries. Objects per bucket as the bucket listing counts them (all objects), and the
+     * storage domain scan of a gather per domain: per bucket, per member and per bucket and blob size class
+     * (row_key tells the rows of a domain apart).
+     *
+     * A populated summary is refreshed CONCURRENTLY on its unique index, so gathers and bucket listings keep reading
+     * the old rows meanwhile; a new one (after a restore) gets a plain first refresh. The grouping columns are NULL
+     * where a grouping set leaves them out, and a concurrent refresh can't match rows on NULLs, so the domain
+     * summary's key is row_key: the GROUPING() bits then the columns present (bucket names have no '/').
+     */
+    private void buildSummaries(JdbcTemplate jdbc) {
+        String sizeClass = SizeHistogram.sqlSizeClass("COALESCE(bl.length, 0)");
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        if (hasRelation(jdbc, DOMAIN_SUMMARY) && !hasColumn(jdbc, DOMAIN_SUMMARY, "row_key")) {
+            // Built before the summaries had unique keys; a concurrent refresh needs one
+            logger.info("Recreating {} with a unique key", DOMAIN_SUMMARY);
+            jdbc.execute("DROP MATERIALIZED VIEW " + DOMAIN_SUMMARY);
+        }
+        jdbc.execute(
+            "CREATE MATERIALIZED VIEW IF NOT EXISTS " + BUCKET_SUMMARY + " AS " +
+            "SELECT b.id AS bucket_id, b.name, COUNT(DISTINCT so.id) AS object_count, COALESCE(SUM(bl.length), 0) AS size_bytes " +
+            "FROM ds3.bucket b " +
+            "LEFT JOIN ds3.s3_object so ON so.bucket_id = b.id " +
+            "LEFT JOIN ds3.blob bl ON bl.object_id = so.id " +
+            "GROUP BY b.id, b.name " +
+            "WITH NO DATA");
+        jdbc.execute("CREATE UNIQUE INDEX IF NOT EXISTS bucket_summary_bucket_idx ON " + BUCKET_SUMMARY + " (bucket_id)");
+        jdbc.execute(
+            "CREATE MATERIALIZED VIEW IF NOT EXISTS " + DOMAIN_SUMMARY + " AS " +
+            "SELECT sdm.storage_domain_id, b.name AS bucket_name, t.storage_domain_member_id, " +
+            sizeClass + " AS size_class, " +
+            "concat_ws('/', GROUPING(b.name, t.storage_domain_member_id, " + sizeClass + "), b.name, " +
+            "t.storage_domain_member_id, " + sizeClass + ") AS row_key, COUNT(*) AS blobs, " +
+            "COUNT(DISTINCT so.id) AS objects, COALESCE(SUM(bl.length), 0) AS bytes " +
+            "FROM tape.tape t " +
+            "JOIN ds3.storage_domain_member sdm ON sdm.id = t.storage_domain_member_id " +
+            "JOIN tape.blob_tape bt ON bt.tape_id = t.id " +
+            "JOIN ds3.blob bl ON bl.id = bt.blob_id " +
+            "JOIN ds3.s3_object so ON so.id = bl.object_id " +
+            "JOIN ds3.bucket b ON b.id = so.bucket_id " +
+            "GROUP BY GROUPING SETS ((sdm.storage_domain_id, b.name), (sdm.storage_domain_id, t.storage_domain_member_id), " +
+            "(sdm.storage_domain_id, b.name, " + sizeClass + ")) " +
+            "WITH NO DATA");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS storage_domain_summary_domain_idx ON " + DOMAIN_SUMMARY + " (storage_domain_id)");
+        jdbc.execute("CREATE UNIQUE INDEX IF NOT EXISTS storage_domain_summary_key_idx ON " + DOMAIN_SUMMARY +
+            " (storage_domain_id, row_key)");
+
+        for (String view : new String[]{BUCKET_SUMMARY, DOMAIN_SUMMARY}) {
+            long startTime = System.currentTimeMillis();
+            boolean concurrently = hasSummary(jdbc, view);
+            jdbc.execute("REFRESH MATERIALIZED VIEW " + (concurrently ? "CONCURRENTLY " : "") + view);
+            jdbc.execute("ANALYZE " + view);
+            logger.info("Refreshed {}{} in {} ms", view, concurrently ? " concurrently" : "", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private static boolean hasRelation(JdbcTemplate jdbc, String relation) {
+        Boolean exists = jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * pg_attribute rather than information_schema, which leaves out materialized views
+     */
+    private static boolean hasColumn(JdbcTemplate jdbc, String relation, String column) {
+        Boolean exists = jdbc.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = to_regclass(?) AND attname = ? " +
+            "AND attnum > 0 AND NOT attisdropped)",
+            Boolean.class, relation, column);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Whether a summary exists and has been populated in this database
+     */
+    private boolean hasSummary(JdbcTemplate jdbc, String view) {
+        Boolean populated = jdbc.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_matviews WHERE schemaname = ? AND matviewname = ? AND ispopulated)",
+            Boolean.class, SCHEMA, view.substring(view.indexOf('.') + 1));
+        return Boolean.TRUE.equals(populated);
+    }
+
+    /**
+     * Whether bucket listings can read the bucket summary (any error counts as no)
+     */
+    boolean hasBucketSummary(JdbcTemplate jdbc) {
+        try {
+            return hasSummary(jdbc, BUCKET_SUMMARY);
+        } catch (Exception e) {
+            logger.debug("Bucket summary not readable: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The storage domain scan of a gather, read from the summary: null if there is none, or if the domain's name
+     * matches several storage domains (their objects can't be told apart in per-domain rows)
+     */
+    GatherResultCache.DomainScan summaryScan(JdbcTemplate jdbc, StorageDomainResolver.StorageDomainIds domain,
+                                             boolean histograms) {
+        if (domain.getDomainIds().size() != 1) {
+            return null;
+        }
+        try {
+            if (!hasSummary(jdbc, DOMAIN_SUMMARY)) {
+                return null;
+            }
+            GatherResultCache.DomainScan scan = new GatherResultCache.DomainScan();
+            scan.setSummary(true);
+            jdbc.query(
+                "SELECT bucket_name, storage_domain_member_id::text AS member_id, size_class, blobs, objects, bytes " +
+                "FROM " + DOMAIN_SUMMARY + " WHERE " + domain.domainFilter("storage_domain_id"),
+                rs -> { scan.addRow(rs, histograms); },
+                domain.domainIdArray());
+            return scan;
+        } catch (Exception e) {
+            logger.debug("Storage domain summary not readable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean tableExists(JdbcTemplate jdbc, String schema, String table) {
+        Integer count = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = ? AND table_name = ?",
+            Integer.class, schema, table);
+        return count != null && count > 0;
+    }
+
+    private static long countRows(JdbcTemplate jdbc, String view) {
+        Long rows = jdbc.queryForObject("SELECT COUNT(*) FROM " + view, Long.class);
+        return rows != null ? rows : 0L;
+    }
+
+    /**
+     * What an optimization (or summary refresh) did
+     */
+    public static class OptimizeResult {
+        private String databaseName;
+        private final List<String> indexesCreated = new ArrayList<>();
+        private long bucketSummaryRows;
+        private long domainSummaryRows;
+        private long elapsedMillis;
+
+        public String getDatabaseName() {
+            return databaseName;
+        }
+
+        public List<String> getIndexesCreated() {
+            return indexesCreated;
+        }
+
+        public long getBucketSummaryRows() {
+            return bucketSummaryRows;
+        }
+
+        public long getDomainSummaryRows() {
+            return domainSummaryRows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Readies a restored database for its first gathers. A dump restore leaves the planner without statistics, so
+ * ANALYZE runs over every table, in parallel (the ANALYZE stage, before the optimizer builds its summaries).
+ * Once those exist, pg_prewarm loads the summaries and the ds3/tape tables and indexes a gather reads into the
+ * cache, within its size (the PREWARM stage). Both are best effort: where pg_prewarm is not installed the
+ * prewarm is skipped.
+ */
+@Service
+public class PostRestoreWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostRestoreWarmup.class);
+
+    /**
+     * What a gather reads, most useful first: the optimizer's summaries, then the tables joined from storage
+     * domain member down to bucket (each with its indexes)
+     */
+    private static final String[] PREWARM_RELATIONS = {
+        PostRestoreOptimizer.SCHEMA + ".storage_domain_summary",
+        PostRestoreOptimizer.SCHEMA + ".bucket_summary",
+        "ds3.storage_domain",
+        "ds3.storage_domain_member",
+        "ds3.bucket",
+        "tape.tape",
+        "tape.blob_tape",
+        "ds3.blob",
+        "ds3.s3_object",
+    };
+
+    private final CustomerDatabaseConnector customerDatabaseConnector;
+    private final CustomerService customerService;
+    private final QueryOperationService queryOperationService;
+
+    @Value("${postgres.restore.analyze.enabled:true}")
+    private boolean analyzeEnabled;
+
+    @Value("${postgres.restore.analyze.threads:0}")
+    private int analyzeThreads;
+
+    @Value("${postgres.restore.analyze.query-timeout:7200}")
+    private int analyzeQueryTimeout;
+
+    @Value("${postgres.restore.prewarm.enabled:true}")
+    private boolean prewarmEnabled;
+
+    @Value("${postgres.restore.prewarm.mode:buffer}")
+    private String prewarmMode;
+
+    @Value("${postgres.restore.prewarm.query-timeout:7200}")
+    private int prewarmQueryTimeout;
+
+    public PostRestoreWarmup(CustomerDatabaseConnector customerDatabaseConnector, CustomerService customerService,
+                             QueryOperationService queryOperationService) {
+        this.customerDatabaseConnector = customerDatabaseConnector;
+        this.customerService = customerService;
+        this.queryOperationService = queryOperationService;
+    }
+
+    public boolean isAnalyzeEnabled() {
+        return analyzeEnabled;
+    }
+
+    public boolean isPrewarmEnabled() {
+        return prewarmEnabled;
+    }
+
+    /**
+     * ANALYZE every user table, largest first so the long ones don't start last. Stops handing out tables once
+     * the job is cancelled; a table that fails is logged and skipped. Each table gets
+     * postgres.restore.analyze.query-timeout.
+     */
+    public AnalyzeStats analyze(String customerId, String databaseType, RestoreJob job) {
+        long startTime = System.currentTimeMillis();
+        JdbcTemplate jdbc = connect(customerId, databaseType);
+        List<String> tables;
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("List tables to analyze in restored " + databaseType + " database", analyzeQueryTimeout)) {
+            tables = jdbc.queryForList(
+                "SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname) FROM pg_class c " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE c.relkind IN ('r', 'm') AND n.nspname NOT IN ('pg_catalog', 'information_schema') " +
+                "AND n.nspname NOT LIKE 'pg\\_toast%' AND n.nspname NOT LIKE 'pg\\_temp%' " +
+                "ORDER BY pg_relation_size(c.oid) DESC",
+                String.class);
+        }
+
+        int threads = Math.max(1, Math.min(getThreadCount(), tables.size()));
+        logger.info("Analyzing {} tables using {} threads", tables.size(), threads);
+
+        AtomicInteger analyzed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Each statement opens its own connection (the connector's data source doesn't pool). Operations are
+            // bound to a thread, so each task begins its own to get the long timeout.
+            List<Future<?>> futures = new ArrayList<>(tables.size());
+            for (String table : tables) {
+                futures.add(executor.submit(() -> {
+                    if (job != null && job.isCancelRequested()) {
+                        return;
+                    }
+                    long tableStart = System.currentTimeMillis();
+                    try (QueryOperationService.QueryOperation operation =
+                             queryOperationService.begin("Analyze " + table, analyzeQueryTimeout)) {
+                        jdbc.execute("ANALYZE " + table);
+                        analyzed.incrementAndGet();
+                        logger.debug("Analyzed {} in {} ms", table, System.currentTimeMillis() - tableStart);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.warn("Could not analyze {}: {}", table, e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while analyzing the restored database");
+        } catch (ExecutionException e) {
+            logger.warn("Analyzing the restored database failed: {}", e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AnalyzeStats stats = new AnalyzeStats(analyzed.get(), failed.get(), System.currentTimeMillis() - startTime);
+        logger.info("Analyzed {} tables ({} failed) in {} ms", stats.getTableCount(), stats.getFailedCount(), stats.getElapsedMillis());
+        return stats;
+    }
+
+    /**
+     * Prewarm PREWARM_RELATIONS, indexes before their tables, skipping whatever would overflow the cache being
+     * filled (shared_buffers in buffer mode, effective_cache_size when reading into the OS cache). Null if
+     * pg_prewarm is not available. Runs under postgres.restore.prewarm.query-timeout; a relation that fails is
+     * logged and skipped.
+     */
+    public PrewarmStats prewarm(String customerId, String databaseType, RestoreJob job) {
+        long startTime = System.currentTimeMillis();
+        JdbcTemplate jdbc = connect(customerId, databaseType);
+        String mode = prewarmMode.toLowerCase();
+        if (!mode.equals("buffer") && !mode.equals("read") && !mode.equals("prefetch")) {
+            throw new IllegalArgumentException("Unknown prewarm mode: " + prewarmMode + " (buffer, read or prefetch)");
+        }
+        int relationCount = 0;
+        int failedCount = 0;
+        long blocks = 0;
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("Prewarm restored " + databaseType + " database", prewarmQueryTimeout)) {
+            try {
+                jdbc.execute("CREATE EXTENSION IF NOT EXISTS pg_prewarm");
+            } catch (Exception e) {
+                logger.warn("pg_prewarm is not available, skipping prewarm: {}", e.getMessage());
+                return null;
+            }
+
+            Long budget = jdbc.queryForObject(
+                "SELECT pg_size_bytes(current_setting(?))", Long.class,
+                mode.equals("buffer") ? "shared_buffers" : "effective_cache_size");
+            long remaining = budget != null ? budget : 0L;
+
+            // Per relation its indexes first, each smallest first; missing relations (no summaries, Rio) drop out
+            List<Map<String, Object>> relations = jdbc.queryForList(
+                "WITH wanted AS (" +
+                "  SELECT c.oid, w.ord FROM unnest(?::text[]) WITH ORDINALITY AS w(name, ord) " +
+                "  JOIN pg_class c ON c.oid = to_regclass(w.name)) " +
+                "SELECT i.indexrelid::regclass::text AS relation, pg_relation_size(i.indexrelid) AS bytes, w.ord, 0 AS kind " +
+                "FROM wanted w JOIN pg_index i ON i.indrelid = w.oid WHERE i.indisvalid " +
+                "UNION ALL " +
+                "SELECT w.oid::regclass::text, pg_relation_size(w.oid), w.ord, 1 FROM wanted w " +
+                "ORDER BY ord, kind, bytes",
+                "{" + String.join(",", PREWARM_RELATIONS) + "}");
+
+            List<String> skipped = new ArrayList<>();
+            for (Map<String, Object> relation : relations) {
+                if (job != null && job.isCancelRequested()) {
+                    break;
+                }
+                operation.throwIfCancelled();
+                String name = (String) relation.get("relation");
+                long bytes = ((Number) relation.get("bytes")).longValue();
+                if (bytes > remaining) {
+                    skipped.add(name);
+                    continue;
+                }
+                try {
+                    Long loaded = jdbc.queryForObject("SELECT pg_prewarm(CAST(? AS regclass), ?)", Long.class, name, mode);
+                    blocks += loaded != null ? loaded : 0L;
+                    remaining -= bytes;
+                    relationCount++;
+                } catch (Exception e) {
+                    // Dropped since it was listed, timed out, ... - the rest is still worth loading
+                    failedCount++;
+                    logger.warn("Could not prewarm {}: {}", name, e.getMessage());
+                }
+            }
+            if (!skipped.isEmpty()) {
+                logger.info("Not prewarming {}: they don't fit in the remaining cache", skipped);
+            }
+        }
+
+        PrewarmStats stats = new PrewarmStats(relationCount, blocks, System.currentTimeMillis() - startTime);
+        logger.info("Prewarmed {} relations ({} failed, {} blocks, {} mode) in {} ms",
+            stats.getRelationCount(), failedCount, stats.getBlocks(), mode, stats.getElapsedMillis());
+        return stats;
+    }
+
+    private JdbcTemplate connect(String customerId, String databaseType) {
+        Customer customer = customerService.findById(customerId);
+        String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
+        CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+        if (database == null) {
+            throw new IllegalStateException("Could not connect to the " + databaseType + " database for customer " + customerId);
+        }
+        return database.getJdbc();
+    }
+
+    private int getThreadCount() {
+        if (analyzeThreads > 0) {
+            return analyzeThreads;
+        }
+        return Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static class AnalyzeStats {
+        private final int tableCount;
+        private final int failedCount;
+        private final long elapsedMillis;
+
+        public AnalyzeStats(int tableCount, int failedCount, long elapsedMillis) {
+            this.tableCount = tableCount;
+            this.failedCount = failedCount;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getTableCount() {
+            return tableCount;
+        }
+
+        public int getFailedCount() {
+            return failedCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    public static class PrewarmStats {
+        private final int relationCount;
+        private final long blocks;
+        private final long elapsedMillis;
+
+        public PrewarmStats(int relationCount, long blocks, long elapsedMillis) {
+            this.relationCount = relationCount;
+            this.blocks = blocks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getRelationCount() {
+            return relationCount;
+        }
+
+        public long getBlocks() {
+            return blocks;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
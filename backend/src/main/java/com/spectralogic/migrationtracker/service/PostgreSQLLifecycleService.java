@@ -0,0 +1,157 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Readiness probing for the local PostgreSQL server.
+ * Probes with a JDBC connect attempt (same semantics as pg_isready) and polls with backoff,
+ * so stop/start waits return as soon as the server is down/up instead of sleeping a fixed time.
+ */
+@Service
+public class PostgreSQLLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgreSQLLifecycleService.class);
+
+    private static final long INITIAL_POLL_MILLIS = 100;
+    private static final long MAX_POLL_MILLIS = 2000;
+
+    /** pg_isready states: accepting connections, up but rejecting (starting/stopping), no response */
+    public enum ServerState { ACCEPTING, REJECTING, NO_RESPONSE }
+
+    @Value("${postgres.lifecycle.start-timeout-seconds:60}")
+    private int startTimeoutSeconds;
+
+    @Value("${postgres.lifecycle.stop-timeout-seconds:60}")
+    private int stopTimeoutSeconds;
+
+    @Value("${postgres.lifecycle.probe-timeout-seconds:2}")
+    private int probeTimeoutSeconds;
+
+    /**
+     * Probe the server once. Any answer from the server (including authentication errors) means it is up.
+     */
+    public ServerState probe(String host, int port) {
+        Properties props = new Properties();
+        props.setProperty("user", "postgres");
+        props.setProperty("password", "");
+        props.setProperty("connectTimeout", String.valueOf(probeTimeoutSeconds));
+        props.setProperty("loginTimeout", String.valueOf(probeTimeoutSeconds));
+        props.setProperty("socketTimeout", String.valueOf(probeTimeoutSeconds));
+        props.setProperty("ApplicationName", "migration-tracker-probe");
+
+        String url = "jdbc:postgresql://" + host + ":" + port + "/postgres";
+        try (Connection ignored = DriverManager.getConnection(url, props)) {
+            return ServerState.ACCEPTING;
+        } catch (SQLException e) {
+            String sqlState = e.getSQLState();
+            if ("57P03".equals(sqlState)) {
+                // cannot_connect_now: starting up, shutting down or in recovery
+                return ServerState.REJECTING;
+            }
+            if ("08004".equals(sqlState)) {
+                // Server rejected the connection (e.g. password required) - it answered, so it is up
+                return ServerState.ACCEPTING;
+            }
+            if (sqlState == null || sqlState.startsWith("08")) {
+                // Connection exceptions: refused, unreachable, timed out
+                return ServerState.NO_RESPONSE;
+            }
+            // The server answered (e.g. bad password, missing database) - it is accepting connections
+            return ServerState.ACCEPTING;
+        }
+    }
+
+    /**
+     * True if a server is listening (accepting or still starting/stopping)
+     */
+    public boolean isRunning(String host, int port) {
+        return probe(host, port) != ServerState.NO_RESPONSE;
+    }
+
+    /**
+     * Wait until the server accepts connections. Returns false if it does not within the start timeout.
+     */
+    public boolean awaitReady(String host, int port) {
+        long startTime = System.currentTimeMillis();
+        boolean ready = poll(() -> probe(host, port) == ServerState.ACCEPTING, Duration.ofSeconds(startTimeoutSeconds));
+        if (ready) {
+            logger.info("PostgreSQL on {}:{} is accepting connections ({} ms)", host, port, System.currentTimeMillis() - startTime);
+        } else {
+            logger.error("PostgreSQL on {}:{} did not accept connections within {} seconds (last state: {})",
+                host, port, startTimeoutSeconds, probe(host, port));
+        }
+        return ready;
+    }
+
+    /**
+     * Wait until the server stops responding and, if a data directory is given, its postmaster.pid is gone.
+     * Returns false if it is still running after the stop timeout.
+     */
+    public boolean awaitStopped(String host, int port, Path dataDir) {
+        long startTime = System.currentTimeMillis();
+        boolean stopped = poll(() -> probe(host, port) == ServerState.NO_RESPONSE && !hasPostmasterPid(dataDir),
+            Duration.ofSeconds(stopTimeoutSeconds));
+        if (stopped) {
+            logger.info("PostgreSQL on {}:{} has stopped ({} ms)", host, port, System.currentTimeMillis() - startTime);
+        } else {
+            logger.error("PostgreSQL on {}:{} was still running after {} seconds", host, port, stopTimeoutSeconds);
+        }
+        return stopped;
+    }
+
+    public int getStartTimeoutSeconds() {
+        return startTimeoutSeconds;
+    }
+
+    public int getStopTimeoutSeconds() {
+        return stopTimeoutSeconds;
+    }
+
+    private boolean hasPostmasterPid(Path dataDir) {
+        if (dataDir == null) {
+            return false;
+        }
+        try {
+            return Files.exists(dataDir.resolve("postmaster.pid"));
+        } catch (SecurityException e) {
+            // Can't see into the data directory - rely on the connection probe alone
+            return false;
+        }
+    }
+
+    /**
+     * Poll a condition with exponential backoff until it holds or the timeout elapses
+     */
+    private boolean poll(BooleanSupplier condition, Duration timeout) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        long delay = INITIAL_POLL_MILLIS;
+        while (true) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(Math.min(delay, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            delay = Math.min(delay * 2, MAX_POLL_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.SlowQuery;
+import com.spectralogic.migrationtracker.repository.SlowQueryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-statement latency histograms and a slow-query log for the customer PostgreSQL databases.
+ * Statements slower than migration.diagnostics.slow-query-ms are persisted with an EXPLAIN (ANALYZE, BUFFERS) plan,
+ * captured on a background thread at most once per statement and database every explain.interval-minutes.
+ */
+@Service
+public class QueryDiagnosticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryDiagnosticsService.class);
+
+    /** Histogram bucket upper bounds in milliseconds; a final bucket catches everything slower */
+    private static final long[] BUCKET_BOUNDS_MS = {10, 50, 100, 500, 1000, 5000, 10000, 30000, 60000, 300000};
+
+    private final SlowQueryRepository slowQueryRepository;
+    private final QueryOperationService queryOperationService;
+    private final QueryGovernor queryGovernor;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ExecutorService slowQueryWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${migration.diagnostics.slow-query-ms:2000}")
+    private long slowQueryMillis;
+
+    @Value("${migration.diagnostics.explain.enabled:true}")
+    private boolean explainEnabled;
+
+    @Value("${migration.diagnostics.explain.interval-minutes:60}")
+    private long explainIntervalMinutes;
+
+    @Value("${migration.diagnostics.retention:500}")
+    private int retention;
+
+    public QueryDiagnosticsService(SlowQueryRepository slowQueryRepository, QueryOperationService queryOperationService,
+                                   QueryGovernor queryGovernor) {
+        this.slowQueryRepository = slowQueryRepository;
+        this.queryOperationService = queryOperationService;
+        this.queryGovernor = queryGovernor;
+    }
+
+    /**
+     * A JdbcTemplate whose queries are recorded here; use for every customer database connection
+     */
+    public JdbcTemplate newJdbcTemplate(DataSource dataSource) {
+        return new InstrumentedJdbcTemplate(dataSource, this, queryOperationService, queryGovernor);
+    }
+
+    void record(InstrumentedJdbcTemplate template, String sql, PreparedStatementSetter pss,
+                long elapsedMillis, long rows, boolean failed) {
+        String statement = sql.trim().replaceAll("\\s+", " ");
+        String databaseKey = template.getDatabaseKey();
+        StatementStats stats = statements.computeIfAbsent(statement, StatementStats::new);
+        stats.record(databaseKey, elapsedMillis, rows, failed);
+
+        if (failed || elapsedMillis < slowQueryMillis) {
+            return;
+        }
+        logger.warn("Slow query on {} ({} ms, {} rows): {}", databaseKey, elapsedMillis, rows, abbreviate(statement));
+
+        SlowQuery slowQuery = new SlowQuery();
+        slowQuery.setCapturedAt(LocalDateTime.now());
+        slowQuery.setDatabaseKey(databaseKey);
+        slowQuery.setStatementHash(stats.getHash());
+        slowQuery.setStatement(statement);
+        slowQuery.setElapsedMillis(elapsedMillis);
+        slowQuery.setRowCount(rows);
+        boolean explain = explainEnabled && claimExplain(stats.getHash() + "|" + databaseKey);
+
+        slowQueryWriter.submit(() -> {
+            if (explain) {
+                // Give the re-run twice the time the statement took, on top of the usual timeout
+                int timeout = queryOperationService.getDefaultQueryTimeout() + (int) (2 * elapsedMillis / 1000);
+                try (QueryOperationService.QueryOperation operation =
+                         queryOperationService.begin("Capture plan of slow query on " + databaseKey, timeout)) {
+                    slowQuery.setPlan(template.explain(sql, pss));
+                } catch (Exception e) {
+                    logger.warn("Could not capture plan for slow query on {}: {}", databaseKey, e.getMessage());
+                }
+            }
+            try {
+                slowQueryRepository.save(slowQuery);
+                slowQueryRepository.prune(retention);
+            } catch (Exception e) {
+                logger.warn("Could not persist slow query: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Current statistics and the most recent persisted slow queries
+     *
+     * @param statementHash only slow queries of this statement, or null for all
+     */
+    public QueryReport getReport(String statementHash, int limit) {
+        QueryReport report = new QueryReport();
+        report.setSlowQueryMillis(slowQueryMillis);
+        List<StatementStats> sorted = new ArrayList<>(statements.values());
+        sorted.sort(Comparator.comparingLong(StatementStats::getTotalMillis).reversed());
+        report.setStatements(sorted);
+        report.setSlowQueries(slowQueryRepository.findRecent(statementHash, limit));
+        return report;
+    }
+
+    /**
+     * Forget the in-memory statistics; persisted slow queries are kept
+     */
+    public void reset() {
+        statements.clear();
+        lastExplained.clear();
+    }
+
+    /**
+     * True if no plan was captured for this statement/database within the explain interval (and claims it)
+     */
+    private boolean claimExplain(String key) {
+        long now = System.currentTimeMillis();
+        long interval = TimeUnit.MINUTES.toMillis(explainIntervalMinutes);
+        boolean[] claimed = new boolean[1];
+        lastExplained.compute(key, (k, last) -> {
+            if (last != null && now - last < interval) {
+                return last;
+            }
+            claimed[0] = true;
+            return now;
+        });
+        return claimed[0];
+    }
+
+    private static String abbreviate(String statement) {
+        return statement.length() > 300 ? statement.substring(0, 300) + "..." : statement;
+    }
+
+    private static String hash(String statement) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(statement.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(statement.hashCode());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        slowQueryWriter.shutdown();
+    }
+
+    /**
+     * Latency histogram and row counts of one statement (whitespace-normalized SQL) across all customer databases
+     */
+    public static class StatementStats {
+        private final String hash;
+        private final String statement;
+        private final long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+        private long count;
+        private long errors;
+        private long totalMillis;
+        private long maxMillis;
+        private long totalRows;
+        private String lastDatabase;
+        private LocalDateTime lastExecutedAt;
+
+        StatementStats(String statement) {
+            this.statement = statement;
+            this.hash = QueryDiagnosticsService.hash(statement);
+        }
+
+        synchronized void record(String databaseKey, long elapsedMillis, long rows, boolean failed) {
+            count++;
+            if (failed) {
+                errors++;
+            }
+            totalMillis += elapsedMillis;
+            maxMillis = Math.max(maxMillis, elapsedMillis);
+            totalRows += rows;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && elapsedMillis > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+            lastDatabase = databaseKey;
+            lastExecutedAt = LocalDateTime.now();
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getStatement() {
+            return statement;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getErrors() {
+            return errors;
+        }
+
+        public synchronized long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public synchronized long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public synchronized long getMeanMillis() {
+            return count > 0 ? totalMillis / count : 0;
+        }
+
+        /**
+         * Upper bound of the histogram bucket holding the median (max latency if it falls in the last bucket)
+         */
+        public synchronized long getP50Millis() {
+            return percentile(0.50);
+        }
+
+        public synchronized long getP95Millis() {
+            return percentile(0.95);
+        }
+
+        public synchronized long getTotalRows() {
+            return totalRows;
+        }
+
+        /**
+         * Executions per latency bucket, keyed by the bucket's upper bound ("le_100ms", ..., "gt_300000ms")
+         */
+        public synchronized Map<String, Long> getHistogram() {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                histogram.put("le_" + BUCKET_BOUNDS_MS[i] + "ms", buckets[i]);
+            }
+            histogram.put("gt_" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms", buckets[BUCKET_BOUNDS_MS.length]);
+            return histogram;
+        }
+
+        public synchronized String getLastDatabase() {
+            return lastDatabase;
+        }
+
+        public synchronized LocalDateTime getLastExecutedAt() {
+            return lastExecutedAt;
+        }
+
+        private long percentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MS[i], maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+
+    /**
+     * Response of /api/diagnostics/queries
+     */
+    public static class QueryReport {
+        private long slowQueryMillis;
+        private List<StatementStats> statements;
+        private List<SlowQuery> slowQueries;
+
+        public long getSlowQueryMillis() {
+            return slowQueryMillis;
+        }
+
+        public void setSlowQueryMillis(long slowQueryMillis) {
+            this.slowQueryMillis = slowQueryMillis;
+        }
+
+        public List<StatementStats> getStatements() {
+            return statements;
+        }
+
+        public void setStatements(List<StatementStats> statements) {
+            this.statements = statements;
+        }
+
+        public List<SlowQuery> getSlowQueries() {
+            return slowQueries;
+        }
+
+        public void setSlowQueries(List<SlowQuery> slowQueries) {
+            this.slowQueries = slowQueries;
+        }
+    }
+}
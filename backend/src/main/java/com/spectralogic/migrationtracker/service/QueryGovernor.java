@@ -0,0 +1,263 @@
+package com.spectralogic.migrationtracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Caps how many heavy queries run at once against each customer PostgreSQL host (BlackPearl/Rio appliance databases),
+ * so concurrent gathers and bucket listings queue in the tracker instead of piling onto the appliance.
+ *
+ * Heavy means reading the ds3/tape data tables; connection probes and catalog lookups (pg_class, information_schema)
+ * are not limited. Waiters are served first come, first served, and a waiting query can be cancelled with its operation.
+ * Queue depth, running queries and waits are also Micrometer meters tagged by host (migration.jdbc.governor.*).
+ */
+@Service
+public class QueryGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryGovernor.class);
+
+    private static final Pattern HEAVY_STATEMENT = Pattern.compile("\\b(ds3|tape)\\s*\\.");
+    private static final Permit NO_PERMIT = () -> { };
+
+    private final QueryOperationService queryOperationService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+
+    @Value("${migration.jdbc.governor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.jdbc.governor.max-concurrent-per-host:2}")
+    private int maxConcurrentPerHost;
+
+    @Value("${migration.jdbc.governor.max-wait-seconds:600}")
+    private long maxWaitSeconds;
+
+    public QueryGovernor(QueryOperationService queryOperationService, MeterRegistry meterRegistry) {
+        this.queryOperationService = queryOperationService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Wait for a slot on the host if the statement is heavy. Close the permit when the statement is done.
+     *
+     * @param host host:port of the database
+     */
+    public Permit acquire(String host, String sql) {
+        if (!enabled || !HEAVY_STATEMENT.matcher(sql.toLowerCase(Locale.ROOT)).find()) {
+            return NO_PERMIT;
+        }
+        HostQueue queue = hosts.computeIfAbsent(host, this::newHostQueue);
+        QueryOperationService.QueryOperation operation = queryOperationService.current();
+        long startTime = System.nanoTime();
+
+        // One timed wait keeps the place in the fair queue; cancelling the operation interrupts it
+        boolean acquired;
+        if (operation != null) {
+            operation.throwIfCancelled();
+            operation.waiting(Thread.currentThread());
+        }
+        try {
+            acquired = queue.semaphore.tryAcquire(maxWaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            if (operation == null || !operation.isCancelled()) {
+                Thread.currentThread().interrupt();
+            }
+            throw new CancellationException("Interrupted while waiting to query " + host);
+        } finally {
+            if (operation != null) {
+                operation.waiting(null);
+            }
+        }
+        if (!acquired) {
+            queue.rejected.incrementAndGet();
+            queue.rejectedCounter.increment();
+            throw new IllegalStateException("Too many queries running on " + host + ", gave up after waiting " +
+                maxWaitSeconds + " s");
+        }
+        if (operation != null && operation.isCancelled()) {
+            queue.semaphore.release();
+            operation.throwIfCancelled();
+        }
+
+        long waitedNanos = System.nanoTime() - startTime;
+        queue.waitTimer.record(waitedNanos, TimeUnit.NANOSECONDS);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+        queue.acquired.incrementAndGet();
+        queue.totalWaitMillis.addAndGet(waitedMillis);
+        queue.maxWaitMillis.accumulateAndGet(waitedMillis, Math::max);
+        if (waitedMillis >= 1000) {
+            logger.info("Query on {} waited {} ms for one of {} slots", host, waitedMillis, queue.permits);
+        }
+        return queue.semaphore::release;
+    }
+
+    /**
+     * Queue depth, running queries and wait times per host
+     */
+    public List<HostStatus> getStatus() {
+        List<HostStatus> statuses = new ArrayList<>();
+        for (HostQueue queue : hosts.values()) {
+            HostStatus status = new HostStatus();
+            status.setHost(queue.host);
+            status.setMaxConcurrent(queue.permits);
+            status.setRunning(queue.permits - queue.semaphore.availablePermits());
+            status.setQueued(queue.semaphore.getQueueLength());
+            status.setAcquired(queue.acquired.get());
+            status.setRejected(queue.rejected.get());
+            status.setTotalWaitMillis(queue.totalWaitMillis.get());
+            status.setMaxWaitMillis(queue.maxWaitMillis.get());
+            statuses.add(status);
+        }
+        statuses.sort(Comparator.comparing(HostStatus::getHost));
+        return statuses;
+    }
+
+    private HostQueue newHostQueue(String host) {
+        HostQueue queue = new HostQueue(host, Math.max(1, maxConcurrentPerHost),
+            Timer.builder("migration.jdbc.governor.wait")
+                .description("Time heavy queries waited for a slot on the host")
+                .tag("host", host)
+                .register(meterRegistry),
+            Counter.builder("migration.jdbc.governor.rejected")
+                .description("Heavy queries that gave up waiting for a slot on the host")
+                .tag("host", host)
+                .register(meterRegistry));
+        Gauge.builder("migration.jdbc.governor.queued", queue, q -> q.semaphore.getQueueLength())
+            .description("Heavy queries waiting for a slot on the host")
+            .tag("host", host)
+            .register(meterRegistry);
+        Gauge.builder("migration.jdbc.governor.running", queue, q -> q.permits - q.semaphore.availablePermits())
+            .description("Heavy queries running on the host")
+            .tag("host", host)
+            .register(meterRegistry);
+        return queue;
+    }
+
+    /**
+     * A held slot (or nothing, for statements that are not limited)
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class HostQueue {
+        private final String host;
+        private final int permits;
+        private final Semaphore semaphore;
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+        private final Timer waitTimer;
+        private final Counter rejectedCounter;
+
+        HostQueue(String host, int permits, Timer waitTimer, Counter rejectedCounter) {
+            this.host = host;
+            this.permits = permits;
+            this.semaphore = new Semaphore(permits, true);
+            this.waitTimer = waitTimer;
+            this.rejectedCounter = rejectedCounter;
+        }
+    }
+
+    public static class HostStatus {
+        private String host;
+        private int maxConcurrent;
+        private int running;
+        private int queued;
+        private long acquired;
+        private long rejected;
+        private long totalWaitMillis;
+        private long maxWaitMillis;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public void setRunning(int running) {
+            this.running = running;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public void setQueued(int queued) {
+            this.queued = queued;
+        }
+
+        public long getAcquired() {
+            return acquired;
+        }
+
+        public void setAcquired(long acquired) {
+            this.acquired = acquired;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(long rejected) {
+            this.rejected = rejected;
+        }
+
+        public long getTotalWaitMillis() {
+            return totalWaitMillis;
+        }
+
+        public void setTotalWaitMillis(long totalWaitMillis) {
+            this.totalWaitMillis = totalWaitMillis;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        /**
+         * Average time a query waited for a slot
+         */
+        public long getMeanWaitMillis() {
+            return acquired > 0 ? totalWaitMillis / acquired : 0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Groups the customer database queries run for one piece of work (a gather, a bucket listing, a catalog refresh)
+ * into an operation with its own statement timeout, which can be cancelled as a whole.
+ *
+ * The operation is bound to the calling thread; {@link InstrumentedJdbcTemplate} applies its timeout to every
+ * statement and tracks the running one, so cancelling issues Statement.cancel and fails the statements after it.
+ * HTTP clients name the operation with the X-Operation-Id header so they can cancel it when they give up.
+ */
+@Service
+public class QueryOperationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryOperationService.class);
+
+    public static final String OPERATION_ID_HEADER = "X-Operation-Id";
+
+    private final Map<String, QueryOperation> running = new ConcurrentHashMap<>();
+    private final ThreadLocal<QueryOperation> current = new ThreadLocal<>();
+
+    @Value("${migration.jdbc.template.query-timeout:30}")
+    private int defaultQueryTimeout;
+
+    /**
+     * Start an operation on this thread. If one is already running here, it is joined instead (and keeps its timeout).
+     *
+     * @param queryTimeoutSeconds statement timeout for the operation's queries (0 = migration.jdbc.template.query-timeout)
+     */
+    public QueryOperation begin(String description, int queryTimeoutSeconds) {
+        QueryOperation active = current.get();
+        if (active != null) {
+            active.depth++;
+            return active;
+        }
+        String id = requestOperationId();
+        QueryOperation operation = new QueryOperation(id != null ? id : UUID.randomUUID().toString(), description,
+            queryTimeoutSeconds > 0 ? queryTimeoutSeconds : defaultQueryTimeout, this);
+        running.put(operation.getId(), operation);
+        current.set(operation);
+        logger.debug("Started query operation {} ({}, timeout {}s)", operation.getId(), description, operation.getQueryTimeoutSeconds());
+        return operation;
+    }
+
+    /**
+     * The operation bound to this thread, or null
+     */
+    public QueryOperation current() {
+        return current.get();
+    }
+
+    /**
+     * Statement timeout for queries run outside an operation
+     */
+    public int getDefaultQueryTimeout() {
+        return defaultQueryTimeout;
+    }
+
+    /**
+     * Cancel a running operation: its current statement is cancelled and later statements fail
+     *
+     * @return false if no such operation is running
+     */
+    public boolean cancel(String operationId) {
+        QueryOperation operation = running.get(operationId);
+        if (operation == null) {
+            return false;
+        }
+        logger.info("Cancelling query operation {} ({})", operationId, operation.getDescription());
+        operation.cancel();
+        return true;
+    }
+
+    public List<QueryOperation> getRunning() {
+        List<QueryOperation> operations = new ArrayList<>(running.values());
+        operations.sort(Comparator.comparing(QueryOperation::getStartedAt));
+        return operations;
+    }
+
+    private void end(QueryOperation operation) {
+        if (--operation.depth > 0) {
+            return;
+        }
+        running.remove(operation.getId(), operation);
+        current.remove();
+        logger.debug("Finished query operation {}{}", operation.getId(), operation.isCancelled() ? " (cancelled)" : "");
+    }
+
+    private static String requestOperationId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            String id = servletAttributes.getRequest().getHeader(OPERATION_ID_HEADER);
+            if (id != null && !id.isBlank()) {
+                return id.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A running operation; close it (try-with-resources) when the work is done
+     */
+    public static class QueryOperation implements AutoCloseable {
+        private final String id;
+        private final String description;
+        private final int queryTimeoutSeconds;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final QueryOperationService service;
+        private volatile boolean cancelled;
+        private volatile Statement statement;
+        private Thread waiter; // thread queued in QueryGovernor, guarded by this
+        private int depth = 1;
+
+        QueryOperation(String id, String description, int queryTimeoutSeconds, QueryOperationService service) {
+            this.id = id;
+            this.description = description;
+            this.queryTimeoutSeconds = queryTimeoutSeconds;
+            this.service = service;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public int getQueryTimeoutSeconds() {
+            return queryTimeoutSeconds;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void throwIfCancelled() {
+            if (cancelled) {
+                throw new CancellationException("Operation " + id + " was cancelled");
+            }
+        }
+
+        /**
+         * Remember the statement about to run so cancel() can interrupt it
+         */
+        void track(Statement statement) {
+            this.statement = statement;
+        }
+
+        /**
+         * Set while the operation's thread waits for a QueryGovernor slot, so cancel() can interrupt the wait.
+         * Clearing it also clears an interrupt that raced with the end of the wait.
+         */
+        synchronized void waiting(Thread thread) {
+            waiter = thread;
+            if (thread == null && cancelled) {
+                Thread.interrupted();
+            }
+        }
+
+        void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                if (waiter != null) {
+                    waiter.interrupt();
+                }
+            }
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    // Already finished or closed
+                    logger.debug("Could not cancel statement of operation {}: {}", id, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            service.end(this);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.spectralogic.migrationtracker.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * A queued or running reconciliation of one phase, with live counts of the objects compared so far
+ */
+public class ReconciliationJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String phaseId;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean cancelRequested;
+    private volatile String operationId;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    // Written by the worker thread only
+    private volatile long sourceObjects;
+    private volatile long targetObjects;
+    private volatile long matched;
+    private volatile long missing;
+    private volatile long extra;
+    private volatile long sizeMismatch;
+    private volatile long missingBytes;
+
+    public ReconciliationJob(String phaseId) {
+        this.phaseId = phaseId;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    void sourceObject() {
+        sourceObjects++;
+    }
+
+    void targetObject() {
+        targetObjects++;
+    }
+
+    void matched() {
+        matched++;
+    }
+
+    void missing(long bytes) {
+        missing++;
+        missingBytes += bytes;
+    }
+
+    void extra() {
+        extra++;
+    }
+
+    void sizeMismatch() {
+        sizeMismatch++;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPhaseId() {
+        return phaseId;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    /**
+     * Query operation of the running job (cancelling it stops the cursors)
+     */
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    public long getSourceObjects() {
+        return sourceObjects;
+    }
+
+    public long getTargetObjects() {
+        return targetObjects;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public long getSizeMismatch() {
+        return sizeMismatch;
+    }
+
+    public long getMissingBytes() {
+        return missingBytes;
+    }
+}
@@ -0,0 +1,443 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.Customer;
+import com.spectralogic.migrationtracker.model.MigrationPhase;
+import com.spectralogic.migrationtracker.model.MigrationProject;
+import com.spectralogic.migrationtracker.model.ReconciliationBucket;
+import com.spectralogic.migrationtracker.model.ReconciliationRun;
+import com.spectralogic.migrationtracker.repository.PhaseRepository;
+import com.spectralogic.migrationtracker.repository.ProjectRepository;
+import com.spectralogic.migrationtracker.repository.ReconciliationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finds which objects of a phase are missing from its target: streams (bucket, object, size) of the source and
+ * target storage domains from PostgreSQL, both sorted the same way, and merge-joins the two cursors. Memory use
+ * does not depend on the number of objects - only the current row of each side and one counter row per bucket
+ * are held - so a domain with hundreds of millions of objects can be compared.
+ *
+ * Missing, extra and size-mismatched objects go to a gzipped CSV spill file; the counts per bucket go to SQLite.
+ * Reconciliations run one at a time in the background.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private static final int CANCEL_CHECK_INTERVAL = 10_000;
+
+    private final ReconciliationRepository repository;
+    private final PhaseRepository phaseRepository;
+    private final ProjectRepository projectRepository;
+    private final CustomerService customerService;
+    private final CustomerDatabaseConnector customerDatabaseConnector;
+    private final StorageDomainResolver storageDomainResolver;
+    private final QueryOperationService queryOperationService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ReconciliationJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${migration.reconciliation.fetch-size:50000}")
+    private int fetchSize;
+
+    @Value("${migration.reconciliation.query-timeout:21600}")
+    private int queryTimeout;
+
+    @Value("${migration.reconciliation.directory:${java.io.tmpdir}/migration-tracker-reconciliation}")
+    private String directory;
+
+    @Value("${migration.reconciliation.keep-runs:10}")
+    private int keepRuns;
+
+    @Value("${migration.reconciliation.job-history-size:20}")
+    private int jobHistorySize;
+
+    public ReconciliationService(ReconciliationRepository repository, PhaseRepository phaseRepository,
+                                 ProjectRepository projectRepository, CustomerService customerService,
+                                 CustomerDatabaseConnector customerDatabaseConnector,
+                                 StorageDomainResolver storageDomainResolver, QueryOperationService queryOperationService,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.phaseRepository = phaseRepository;
+        this.projectRepository = projectRepository;
+        this.customerService = customerService;
+        this.customerDatabaseConnector = customerDatabaseConnector;
+        this.storageDomainResolver = storageDomainResolver;
+        this.queryOperationService = queryOperationService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Queue a reconciliation of a phase's source and target storage domains (scoped to their tape partitions)
+     */
+    public ReconciliationJob submit(String phaseId) {
+        phaseRepository.findById(phaseId)
+            .orElseThrow(() -> new IllegalArgumentException("Phase not found: " + phaseId));
+        ReconciliationJob job = new ReconciliationJob(phaseId);
+        jobs.put(job.getId(), job);
+        pruneFinishedJobs();
+        job.setFuture(executor.submit(() -> run(job)));
+        logger.info("Queued reconciliation job {} for phase {}", job.getId(), phaseId);
+        return job;
+    }
+
+    public Optional<ReconciliationJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * All known jobs, newest first
+     */
+    public List<ReconciliationJob> getJobs() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing(ReconciliationJob::getSubmittedAt).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancel a queued or running job. Returns false if the job is unknown or already finished.
+     */
+    public boolean cancel(String jobId) {
+        ReconciliationJob job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        logger.info("Cancelling reconciliation job {} (status: {})", jobId, job.getStatus());
+        job.setCancelRequested(true);
+        if (job.getStatus() == ReconciliationJob.Status.QUEUED) {
+            if (job.getFuture() != null) {
+                job.getFuture().cancel(false);
+            }
+            job.setStatus(ReconciliationJob.Status.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+        } else if (job.getOperationId() != null) {
+            queryOperationService.cancel(job.getOperationId());
+        }
+        return true;
+    }
+
+    public List<ReconciliationRun> getRuns(String phaseId) {
+        return repository.findByPhaseId(phaseId);
+    }
+
+    public Optional<ReconciliationRun> getRun(String runId) {
+        return repository.findById(runId);
+    }
+
+    public List<ReconciliationBucket> getBuckets(String runId) {
+        return repository.findBuckets(runId);
+    }
+
+    /**
+     * The spill file of a run, if it still exists
+     */
+    public Optional<Path> getSpillFile(String runId) {
+        return repository.findById(runId)
+            .map(ReconciliationRun::getSpillFile)
+            .map(Path::of)
+            .filter(Files::exists);
+    }
+
+    private void run(ReconciliationJob job) {
+        if (job.isCancelRequested()) {
+            return;
+        }
+        job.setStatus(ReconciliationJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+
+        MigrationPhase phase = null;
+        Path spillFile = null;
+        Map<String, ReconciliationBucket> buckets = new TreeMap<>();
+        try (QueryOperationService.QueryOperation operation =
+                 queryOperationService.begin("reconcile phase " + job.getPhaseId(), queryTimeout)) {
+            job.setOperationId(operation.getId());
+            if (job.isCancelRequested()) {
+                // Cancelled between leaving the queue and getting an operation
+                queryOperationService.cancel(operation.getId());
+            }
+            phase = phaseRepository.findById(job.getPhaseId())
+                .orElseThrow(() -> new IllegalArgumentException("Phase not found: " + job.getPhaseId()));
+            Files.createDirectories(Path.of(directory));
+            spillFile = Path.of(directory, "reconciliation-" + job.getId() + ".csv.gz");
+            reconcile(job, phase, spillFile, buckets, operation);
+            job.setStatus(ReconciliationJob.Status.COMPLETED);
+        } catch (Exception e) {
+            job.setStatus(job.isCancelRequested() ? ReconciliationJob.Status.CANCELLED : ReconciliationJob.Status.FAILED);
+            job.setError(job.isCancelRequested() ? "Reconciliation cancelled" : e.getMessage());
+            if (!job.isCancelRequested()) {
+                logger.error("Reconciliation job {} failed: {}", job.getId(), e.getMessage(), e);
+            }
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+
+        meterRegistry.timer("migration.reconciliation", "status", job.getStatus().name().toLowerCase())
+            .record(Duration.between(job.getStartedAt(), job.getFinishedAt()));
+        logger.info("Reconciliation job {} finished with status {}: {} source objects, {} target objects, {} missing, " +
+                "{} extra, {} size mismatches", job.getId(), job.getStatus(), job.getSourceObjects(), job.getTargetObjects(),
+            job.getMissing(), job.getExtra(), job.getSizeMismatch());
+        if (phase != null) {
+            saveRun(job, phase, spillFile, buckets);
+        }
+    }
+
+    private void reconcile(ReconciliationJob job, MigrationPhase phase, Path spillFile,
+                           Map<String, ReconciliationBucket> buckets, QueryOperationService.QueryOperation operation)
+            throws IOException, SQLException {
+        MigrationProject project = projectRepository.findById(phase.getMigrationId())
+            .orElseThrow(() -> new IllegalArgumentException("Project not found: " + phase.getMigrationId()));
+        Customer customer = customerService.findById(project.getCustomerId());
+        String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
+
+        CustomerDatabaseConnector.CustomerDatabase sourceDatabase = connect(customerName, phase.getSource());
+        CustomerDatabaseConnector.CustomerDatabase targetDatabase = connect(customerName, phase.getTarget());
+        StorageDomainResolver.StorageDomainIds sourceIds = resolve(sourceDatabase, phase.getSource(), phase.getSourceTapePartition());
+        StorageDomainResolver.StorageDomainIds targetIds = resolve(targetDatabase, phase.getTarget(), phase.getTargetTapePartition());
+
+        InstrumentedJdbcTemplate sourceJdbc = (InstrumentedJdbcTemplate) sourceDatabase.getJdbc();
+        InstrumentedJdbcTemplate targetJdbc = (InstrumentedJdbcTemplate) targetDatabase.getJdbc();
+        // One governor slot per host: both cursors stay open for the whole job
+        boolean sameHost = sourceJdbc.getHostKey().equals(targetJdbc.getHostKey());
+
+        long startTime = System.currentTimeMillis();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                 new GZIPOutputStream(Files.newOutputStream(spillFile), 1 << 16), StandardCharsets.UTF_8), 1 << 16);
+             InstrumentedJdbcTemplate.Cursor source = sourceJdbc.openCursor(objectsSql(sourceIds), fetchSize, true, sourceIds.memberIdArray());
+             InstrumentedJdbcTemplate.Cursor target = targetJdbc.openCursor(objectsSql(targetIds), fetchSize, !sameHost, targetIds.memberIdArray())) {
+            out.write("difference,bucket_name,object_name,source_size,target_size\n");
+            ObjectRow sourceRow = read(source);
+            ObjectRow targetRow = read(target);
+            long compared = 0;
+            while (sourceRow != null || targetRow != null) {
+                if (++compared % CANCEL_CHECK_INTERVAL == 0) {
+                    operation.throwIfCancelled();
+                }
+                int order = sourceRow == null ? 1 : targetRow == null ? -1 : sourceRow.compareTo(targetRow);
+                if (order < 0) {
+                    job.sourceObject();
+                    job.missing(sourceRow.size);
+                    ReconciliationBucket bucket = bucket(buckets, sourceRow.bucketName);
+                    bucket.setMissing(bucket.getMissing() + 1);
+                    bucket.setMissingBytes(bucket.getMissingBytes() + sourceRow.size);
+                    writeRow(out, "MISSING", sourceRow.bucketName, sourceRow.objectName, sourceRow.size, null);
+                    sourceRow = read(source);
+                } else if (order > 0) {
+                    job.targetObject();
+                    job.extra();
+                    ReconciliationBucket bucket = bucket(buckets, targetRow.bucketName);
+                    bucket.setExtra(bucket.getExtra() + 1);
+                    writeRow(out, "EXTRA", targetRow.bucketName, targetRow.objectName, null, targetRow.size);
+                    targetRow = read(target);
+                } else {
+                    job.sourceObject();
+                    job.targetObject();
+                    ReconciliationBucket bucket = bucket(buckets, sourceRow.bucketName);
+                    if (sourceRow.size == targetRow.size) {
+                        job.matched();
+                        bucket.setMatched(bucket.getMatched() + 1);
+                    } else {
+                        job.sizeMismatch();
+                        bucket.setSizeMismatch(bucket.getSizeMismatch() + 1);
+                        writeRow(out, "SIZE_MISMATCH", sourceRow.bucketName, sourceRow.objectName, sourceRow.size, targetRow.size);
+                    }
+                    sourceRow = read(source);
+                    targetRow = read(target);
+                }
+            }
+        }
+        logger.info("Reconciled storage domain '{}' against '{}' in {} ms ({} + {} objects)", phase.getSource(),
+            phase.getTarget(), System.currentTimeMillis() - startTime, job.getSourceObjects(), job.getTargetObjects());
+    }
+
+    private CustomerDatabaseConnector.CustomerDatabase connect(String customerName, String storageDomain) {
+        String databaseType = CustomerDatabaseConnector.determineDatabaseType(storageDomain);
+        CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+        if (database == null) {
+            throw new IllegalStateException("Cannot connect to the " + databaseType + " database for customer " + customerName);
+        }
+        return database;
+    }
+
+    private StorageDomainResolver.StorageDomainIds resolve(CustomerDatabaseConnector.CustomerDatabase database,
+                                                           String storageDomain, String tapePartition) {
+        StorageDomainResolver.StorageDomainIds ids = storageDomainResolver.resolve(
+            database.getJdbc(), database.getKey(), storageDomain, tapePartition);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Storage domain '" + storageDomain + "' not found in " + database.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Objects with at least one blob on the domain's tapes and the bytes of those blobs, sorted by (bucket, object).
+     * COLLATE "C" sorts by byte value, which for UTF-8 is code point order - the order ObjectRow compares in -
+     * and grouping by the same expressions lets one sort serve both. All versions of a key count as one object.
+     */
+    private static String objectsSql(StorageDomainResolver.StorageDomainIds domain) {
+        return "SELECT b.name COLLATE \"C\" AS bucket_name, so.name COLLATE \"C\" AS object_name, " +
+            "SUM(bl.length) AS size " +
+            "FROM ds3.s3_object so " +
+            "JOIN ds3.bucket b ON b.id = so.bucket_id " +
+            "JOIN ds3.blob bl ON bl.object_id = so.id " +
+            "WHERE EXISTS (SELECT 1 FROM tape.blob_tape bt JOIN tape.tape t ON t.id = bt.tape_id " +
+            "WHERE bt.blob_id = bl.id AND " + domain.memberFilter("t.storage_domain_member_id") + ") " +
+            "GROUP BY 1, 2 ORDER BY 1, 2";
+    }
+
+    private static ObjectRow read(InstrumentedJdbcTemplate.Cursor cursor) throws SQLException {
+        if (!cursor.next()) {
+            return null;
+        }
+        ResultSet rs = cursor.getResultSet();
+        String objectName = rs.getString("object_name");
+        return new ObjectRow(rs.getString("bucket_name"), objectName != null ? objectName : "", rs.getLong("size"));
+    }
+
+    private static ReconciliationBucket bucket(Map<String, ReconciliationBucket> buckets, String bucketName) {
+        return buckets.computeIfAbsent(bucketName, name -> {
+            ReconciliationBucket bucket = new ReconciliationBucket();
+            bucket.setBucketName(name);
+            return bucket;
+        });
+    }
+
+    private static void writeRow(Writer out, String difference, String bucketName, String objectName,
+                                 Long sourceSize, Long targetSize) throws IOException {
+        out.write(difference);
+        out.write(',');
+        out.write(csv(bucketName));
+        out.write(',');
+        out.write(csv(objectName));
+        out.write(',');
+        out.write(sourceSize != null ? sourceSize.toString() : "");
+        out.write(',');
+        out.write(targetSize != null ? targetSize.toString() : "");
+        out.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Store the run (also a failed or cancelled one, with what was compared) and drop the phase's oldest runs
+     */
+    private void saveRun(ReconciliationJob job, MigrationPhase phase, Path spillFile, Map<String, ReconciliationBucket> buckets) {
+        ReconciliationRun run = new ReconciliationRun();
+        run.setId(job.getId());
+        run.setMigrationPhaseId(phase.getId());
+        run.setSourceDomain(phase.getSource());
+        run.setTargetDomain(phase.getTarget());
+        run.setStatus(job.getStatus().name());
+        run.setStartedAt(job.getStartedAt());
+        run.setFinishedAt(job.getFinishedAt());
+        run.setSourceObjects(job.getSourceObjects());
+        run.setTargetObjects(job.getTargetObjects());
+        run.setMatched(job.getMatched());
+        run.setMissing(job.getMissing());
+        run.setExtra(job.getExtra());
+        run.setSizeMismatch(job.getSizeMismatch());
+        run.setMissingBytes(job.getMissingBytes());
+        run.setSpillFile(spillFile != null && Files.exists(spillFile) ? spillFile.toString() : null);
+        run.setError(job.getError());
+        try {
+            repository.save(run, new ArrayList<>(buckets.values()));
+            List<ReconciliationRun> runs = repository.findByPhaseId(phase.getId());
+            for (ReconciliationRun old : runs.subList(Math.min(runs.size(), Math.max(1, keepRuns)), runs.size())) {
+                if (old.getSpillFile() != null) {
+                    Files.deleteIfExists(Path.of(old.getSpillFile()));
+                }
+                repository.delete(old.getId());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to save reconciliation run {}: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        List<ReconciliationJob> finished = jobs.values().stream()
+            .filter(ReconciliationJob::isFinished)
+            .sorted(Comparator.comparing(ReconciliationJob::getSubmittedAt))
+            .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - jobHistorySize; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().stream().filter(job -> !job.isFinished()).forEach(job -> cancel(job.getId()));
+        executor.shutdownNow();
+    }
+
+    /**
+     * One streamed row; ordered by bucket, then object name, comparing code points like COLLATE "C" on UTF-8
+     */
+    private static class ObjectRow implements Comparable<ObjectRow> {
+        private final String bucketName;
+        private final String objectName;
+        private final long size;
+
+        ObjectRow(String bucketName, String objectName, long size) {
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+            this.size = size;
+        }
+
+        @Override
+        public int compareTo(ObjectRow other) {
+            int order = compareCodePoints(bucketName, other.bucketName);
+            return order != 0 ? order : compareCodePoints(objectName, other.objectName);
+        }
+
+        private static int compareCodePoints(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                int ca = a.codePointAt(i);
+                int cb = b.codePointAt(j);
+                if (ca != cb) {
+                    return Integer.compare(ca, cb);
+                }
+                i += Character.charCount(ca);
+                j += Character.charCount(cb);
+            }
+            return Boolean.compare(i < a.length(), j < b.length());
+        }
+    }
+}
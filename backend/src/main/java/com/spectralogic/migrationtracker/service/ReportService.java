@@ -6,7 +6,9 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.spectralogic.migrationtracker.api.dto.ExportOptions;
 import com.spectralogic.migrationtracker.api.dto.Forecast;
 import com.spectralogic.migrationtracker.api.dto.PhaseProgress;
+import com.spectralogic.migrationtracker.config.LogSampler;
 import com.spectralogic.migrationtracker.config.PostgreSQLConfig;
+import com.spectralogic.migrationtracker.config.RequestLogSummary;
 import com.spectralogic.migrationtracker.model.Customer;
 import com.spectralogic.migrationtracker.model.MigrationData;
 import com.spectralogic.migrationtracker.model.MigrationPhase;
@@ -14,6 +16,8 @@ import com.spectralogic.migrationtracker.model.MigrationProject;
 import com.spectralogic.migrationtracker.repository.BucketDataRepository;
 import com.spectralogic.migrationtracker.repository.MigrationDataRepository;
 import com.spectralogic.migrationtracker.repository.PhaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -43,22 +47,33 @@ public class ReportService {
     private final CustomerService customerService;
     private final PostgreSQLConfig postgresConfig;
     private final BucketDataRepository bucketDataRepository;
+    private final SizeHistogramService sizeHistogramService;
+    private final MeterRegistry meterRegistry;
+    private final LogSampler logSampler;
 
 
 
     public ReportService(PhaseRepository phaseRepository, MigrationDataRepository dataRepository,
                          ProjectService projectService, CustomerService customerService,
-                         PostgreSQLConfig postgresConfig, BucketDataRepository bucketDataRepository) {
+                         PostgreSQLConfig postgresConfig, BucketDataRepository bucketDataRepository,
+                         SizeHistogramService sizeHistogramService, MeterRegistry meterRegistry, LogSampler logSampler) {
         this.phaseRepository = phaseRepository;
         this.dataRepository = dataRepository;
         this.projectService = projectService;
         this.customerService = customerService;
         this.postgresConfig = postgresConfig;
         this.bucketDataRepository = bucketDataRepository;
+        this.sizeHistogramService = sizeHistogramService;
+        this.meterRegistry = meterRegistry;
+        this.logSampler = logSampler;
     }
     
 
     public PhaseProgress getPhaseProgress(String phaseId) {
+        return meterRegistry.timer("migration.report.progress").record(() -> computePhaseProgress(phaseId));
+    }
+
+    private PhaseProgress computePhaseProgress(String phaseId) {
         MigrationPhase phase = phaseRepository.findById(phaseId)
             .orElseThrow(() -> new RuntimeException("Phase not found: " + phaseId));
 
@@ -73,13 +88,15 @@ public class ReportService {
         // Determine database type from phase source (default to blackpearl)
         String databaseType = determineDatabaseType(phase.getSource());
         
-        logger.info("Querying progress for phase '{}' (source: '{}', target: '{}') for customer '{}'", 
+        logger.debug("Querying progress for phase '{}' (source: '{}', target: '{}') for customer '{}'", 
             phase.getName(), phase.getSource(), phase.getTarget(), customer.getName());
         
         // Get buckets for this phase (from BucketData records) to filter queries
         // Only include actual bucket names, not storage domain names (which are used for aggregate data)
         List<com.spectralogic.migrationtracker.model.BucketData> allBucketData = bucketDataRepository.findByPhaseId(phaseId);
         logger.debug("Found {} BucketData records for phase '{}'", allBucketData.size(), phaseId);
+        RequestLogSummary.add("phases", 1);
+        RequestLogSummary.add("bucketRecords", allBucketData.size());
         
         List<String> phaseBuckets = allBucketData.stream()
             .map(bd -> bd.getBucketName())
@@ -99,7 +116,7 @@ public class ReportService {
         // Otherwise, filter by the buckets that were selected during data gathering
         List<String> bucketsToQuery = phaseBuckets.isEmpty() ? null : phaseBuckets;
         
-        logger.info("Phase '{}' has {} buckets to filter (from {} BucketData records): {}", 
+        logger.debug("Phase '{}' has {} buckets to filter (from {} BucketData records): {}", 
             phaseId, bucketsToQuery != null ? bucketsToQuery.size() : 0, allBucketData.size(), bucketsToQuery);
         
         // Read from SQLite - use bucket_data table to filter by selected buckets
@@ -123,7 +140,7 @@ public class ReportService {
         if (reference.isEmpty() && !allData.isEmpty()) {
             MigrationData firstData = allData.get(allData.size() - 1);
             reference = Optional.of(firstData);
-            logger.info("No REFERENCE point found for phase '{}', using first DATA point (timestamp: {}) as baseline", 
+            logger.debug("No REFERENCE point found for phase '{}', using first DATA point (timestamp: {}) as baseline", 
                 phaseId, firstData.getTimestamp());
         }
         LocalDate baselineTimestamp = reference.isPresent() ? reference.get().getTimestamp() : null;
@@ -225,29 +242,9 @@ public class ReportService {
                 }
             }
             
-            logger.info("Latest bucket data (timestamp: {}): source={} objects ({} bytes), target={} objects ({} bytes), bucketsToQuery={}", 
+            logger.debug("Latest bucket data (timestamp: {}): source={} objects ({} bytes), target={} objects ({} bytes), bucketsToQuery={}", 
                 latestTimestamp, sourceObjects, sourceSize, targetObjects, targetSize, bucketsToQuery);
             
-            // Log all source buckets being counted for this phase
-            logger.info("Source buckets counted for phase '{}' (storage domain '{}'):", phaseId, phase.getSource());
-            for (com.spectralogic.migrationtracker.model.BucketData bd : latestBucketData.values()) {
-                boolean isSelectedBucket = bucketsToQuery == null || bucketsToQuery.contains(bd.getBucketName());
-                boolean isSourceBucket = false;
-                if (bd.getStorageDomain() != null) {
-                    isSourceBucket = bd.getStorageDomain().equals(phase.getSource()) && 
-                        !bd.getBucketName().equals(phase.getSource()) && 
-                        !bd.getBucketName().equals(phase.getTarget());
-                } else {
-                    isSourceBucket = bd.getSource().equalsIgnoreCase(sourceDbType) && 
-                        !bd.getBucketName().equals(phase.getSource()) && 
-                        !bd.getBucketName().equals(phase.getTarget());
-                }
-                if (isSelectedBucket && isSourceBucket) {
-                    logger.info("  - Source bucket: '{}' in storage domain '{}': {} objects, {} bytes", 
-                        bd.getBucketName(), bd.getStorageDomain(), bd.getObjectCount(), bd.getSizeBytes());
-                }
-            }
-            
             // Compare with migration_data for validation
             // Only warn about mismatch if bucket_data has actual records that don't match
             // If bucket_data is empty (0 objects), that's expected and will trigger fallback - don't warn
@@ -255,7 +252,7 @@ public class ReportService {
                 MigrationData last = latest.get();
                 long migrationSourceObjects = last.getSourceObjects() != null ? last.getSourceObjects() : 0L;
                 long migrationTargetObjects = last.getTargetObjects() != null ? last.getTargetObjects() : 0L;
-                logger.info("Comparison - bucket_data: source={}, target={} | migration_data: source={}, target={}", 
+                logger.debug("Comparison - bucket_data: source={}, target={} | migration_data: source={}, target={}", 
                     sourceObjects, targetObjects, migrationSourceObjects, migrationTargetObjects);
                 
                 // Only warn if bucket_data has records but totals don't match
@@ -264,17 +261,21 @@ public class ReportService {
                 boolean totalsMismatch = (sourceObjects != migrationSourceObjects || targetObjects != migrationTargetObjects);
                 
                 if (hasBucketData && totalsMismatch) {
-                    // Calculate difference to help diagnose
-                    long sourceDiff = migrationSourceObjects - sourceObjects;
-                    long targetDiff = migrationTargetObjects - targetObjects;
-                    logger.warn("Mismatch detected! bucket_data and migration_data totals differ. " +
-                        "bucket_data: source={}, target={} | migration_data: source={}, target={} | " +
-                        "Difference: source={}, target={}. " +
-                        "This may indicate: 1) Bucket filtering excluded some data, 2) Data gathering inconsistency, " +
-                        "3) Storage domain mismatch in bucket_data records. " +
-                        "bucket_data has {} records for timestamp {}", 
-                        sourceObjects, targetObjects, migrationSourceObjects, migrationTargetObjects,
-                        sourceDiff, targetDiff, latestBucketData.size(), latestTimestamp);
+                    // The dashboard computes progress for every phase on each load; warn once per interval per phase
+                    long suppressed = logSampler.allow("progress-mismatch:" + phaseId, 1);
+                    if (suppressed >= 0) {
+                        // Calculate difference to help diagnose
+                        long sourceDiff = migrationSourceObjects - sourceObjects;
+                        long targetDiff = migrationTargetObjects - targetObjects;
+                        logger.warn("Mismatch detected for phase '{}' ({} similar warnings suppressed)! bucket_data and migration_data totals differ. " +
+                            "bucket_data: source={}, target={} | migration_data: source={}, target={} | " +
+                            "Difference: source={}, target={}. " +
+                            "This may indicate: 1) Bucket filtering excluded some data, 2) Data gathering inconsistency, " +
+                            "3) Storage domain mismatch in bucket_data records. " +
+                            "bucket_data has {} records for timestamp {}", 
+                            phaseId, suppressed, sourceObjects, targetObjects, migrationSourceObjects, migrationTargetObjects,
+                            sourceDiff, targetDiff, latestBucketData.size(), latestTimestamp);
+                    }
                 } else if (!hasBucketData && (migrationSourceObjects > 0 || migrationTargetObjects > 0)) {
                     // bucket_data is empty but migration_data has values - this is expected, will use fallback
                     if (!allBucketData.isEmpty()) {
@@ -345,7 +346,7 @@ public class ReportService {
                 }
             }
             
-            logger.info("Baseline bucket data (timestamp: {}): source={} objects ({} bytes), target={} objects ({} bytes)", 
+            logger.debug("Baseline bucket data (timestamp: {}): source={} objects ({} bytes), target={} objects ({} bytes)", 
                 baselineTimestamp, baselineSourceObjects, baselineSourceSize, baselineTargetObjects, baselineTargetSize);
         } else if (baselineTimestamp != null) {
             // Same timestamp - use current values as baseline
@@ -353,7 +354,7 @@ public class ReportService {
             baselineSourceSize = sourceSize;
             baselineTargetObjects = targetObjects;
             baselineTargetSize = targetSize;
-            logger.info("Baseline and latest are same timestamp, using current values as baseline");
+            logger.debug("Baseline and latest are same timestamp, using current values as baseline");
         }
         
         // Warn if bucket_data calculation resulted in 0, but do not fallback to migration_data
@@ -367,12 +368,16 @@ public class ReportService {
             long migrationTargetObjects = last.getTargetObjects() != null ? last.getTargetObjects() : 0L;
             
             if (migrationSourceObjects > 0 || migrationTargetObjects > 0) {
-                logger.warn("Bucket data calculation resulted in 0 objects for phase '{}', but migration_data shows " +
-                    "source={}, target={}. This might indicate: 1) No bucket_data exists, 2) Storage domain mismatch, " +
-                    "3) Bucket filter issue. Using bucket_data values (0) instead of migration_data aggregate.", 
-                    phaseId, migrationSourceObjects, migrationTargetObjects);
+                long suppressed = logSampler.allow("progress-empty:" + phaseId, 1);
+                if (suppressed >= 0) {
+                    logger.warn("Bucket data calculation resulted in 0 objects for phase '{}', but migration_data shows " +
+                        "source={}, target={}. This might indicate: 1) No bucket_data exists, 2) Storage domain mismatch, " +
+                        "3) Bucket filter issue. Using bucket_data values (0) instead of migration_data aggregate. " +
+                        "({} similar warnings suppressed)", 
+                        phaseId, migrationSourceObjects, migrationTargetObjects, suppressed);
+                }
             } else {
-                logger.info("Bucket data calculation resulted in 0 objects for phase '{}'. " +
+                logger.debug("Bucket data calculation resulted in 0 objects for phase '{}'. " +
                     "No bucket_data or migration_data available.", phaseId);
             }
         } else if (sourceObjects > 0 && targetObjects == 0 && latest.isPresent()) {
@@ -380,10 +385,13 @@ public class ReportService {
             MigrationData last = latest.get();
             long migrationTargetObjects = last.getTargetObjects() != null ? last.getTargetObjects() : 0L;
             if (migrationTargetObjects > 0) {
-                logger.warn("Bucket data shows target=0 but migration_data shows target={}. " +
-                    "This might indicate a storage_domain mismatch. Phase target: '{}'. " +
-                    "Using bucket_data value (0) instead of migration_data.", 
-                    migrationTargetObjects, phase.getTarget());
+                long suppressed = logSampler.allow("progress-no-target:" + phaseId, 1);
+                if (suppressed >= 0) {
+                    logger.warn("Bucket data shows target=0 but migration_data shows target={} for phase '{}'. " +
+                        "This might indicate a storage_domain mismatch. Phase target: '{}'. " +
+                        "Using bucket_data value (0) instead of migration_data. ({} similar warnings suppressed)", 
+                        migrationTargetObjects, phaseId, phase.getTarget(), suppressed);
+                }
                 
                 // Log all bucket_data records for this phase to help diagnose
                 logger.debug("All bucket_data records for phase '{}' (latest timestamp: {}):", phaseId, latestTimestamp);
@@ -417,7 +425,7 @@ public class ReportService {
         progress.setTargetSize(targetSize);
         progress.setTargetTapeCount(targetTapeCount);
         
-        logger.info("Final progress values for phase '{}': sourceObjects={} ({} bytes), targetObjects={} ({} bytes), sourceTapes={}, targetTapes={}", 
+        logger.debug("Final progress values for phase '{}': sourceObjects={} ({} bytes), targetObjects={} ({} bytes), sourceTapes={}, targetTapes={}", 
             phaseId, displaySourceObjects, displaySourceSize, targetObjects, targetSize, sourceTapeCount, targetTapeCount);
         
         // Calculate progress using delta method:
@@ -445,9 +453,9 @@ public class ReportService {
                 : 0;
         }
         
-        logger.info("Progress calculation: baseline_source={}, baseline_target={}, current_source={}, current_target={}", 
+        logger.debug("Progress calculation: baseline_source={}, baseline_target={}, current_source={}, current_target={}", 
             baselineSourceObjects, baselineTargetObjects, sourceObjects, targetObjects);
-        logger.info("Progress calculation: target_delta={}, objects_to_migrate={}, progress={}%", 
+        logger.debug("Progress calculation: target_delta={}, objects_to_migrate={}, progress={}%", 
             targetDelta, objectsToMigrate, progressPercent);
         
         // Cap at 100% - if target exceeds source, it might mean:
@@ -458,7 +466,7 @@ public class ReportService {
         
         progress.setProgress(progressPercent);
         
-        logger.info("Phase progress calculated: {}% (baseline source: {} objects, current target: {} objects)", 
+        logger.debug("Phase progress calculated: {}% (baseline source: {} objects, current target: {} objects)", 
             progressPercent, sourceObjects, targetObjects);
 
         return progress;
@@ -526,6 +534,13 @@ public class ReportService {
         return forecast;
     }
 
+    /**
+     * Blob size histograms of the phase's source and target on one date (the latest gathered if null)
+     */
+    public Optional<SizeHistogramService.SizeHistogramReport> getSizeHistogram(String phaseId, LocalDate date) {
+        return sizeHistogramService.getReport(phaseId, date);
+    }
+
     public byte[] exportPhase(String phaseId, ExportOptions options) throws IOException {
         MigrationPhase phase = phaseRepository.findById(phaseId)
             .orElseThrow(() -> new RuntimeException("Phase not found: " + phaseId));
@@ -533,23 +548,46 @@ public class ReportService {
         PhaseProgress progress = getPhaseProgress(phaseId);
         List<MigrationData> data = getPhaseData(phaseId, options.getDateFrom(), options.getDateTo());
         Forecast forecast = getForecast(phaseId);
+        // Latest histograms; exports without them when no gather recorded any
+        SizeHistogramService.SizeHistogramReport histogram = options.getIncludeSizeHistogram() != null && options.getIncludeSizeHistogram()
+            ? getSizeHistogram(phaseId, null).orElse(null)
+            : null;
 
         String format = options.getFormat() != null ? options.getFormat().toLowerCase() : "json";
+        if (!format.equals("csv") && !format.equals("html") && !format.equals("pdf")) {
+            format = "json";
+        }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            byte[] export = export(format, phase, progress, data, forecast, histogram, options);
+            outcome = "success";
+            meterRegistry.counter("migration.report.export.bytes", "format", format).increment(export.length);
+            return export;
+        } finally {
+            sample.stop(meterRegistry.timer("migration.report.export", "format", format, "outcome", outcome));
+        }
+    }
+
+    private byte[] export(String format, MigrationPhase phase, PhaseProgress progress, List<MigrationData> data,
+                          Forecast forecast, SizeHistogramService.SizeHistogramReport histogram,
+                          ExportOptions options) throws IOException {
         switch (format) {
             case "csv":
-                return exportAsCsv(phase, progress, data, forecast, options);
+                return exportAsCsv(phase, progress, data, forecast, histogram, options);
             case "html":
-                return exportAsHtml(phase, progress, data, forecast, options);
+                return exportAsHtml(phase, progress, data, forecast, histogram, options);
             case "pdf":
-                return exportAsPdf(phase, progress, data, forecast, options);
+                return exportAsPdf(phase, progress, data, forecast, histogram, options);
             case "json":
             default:
-                return exportAsJson(phase, progress, data, forecast, options);
+                return exportAsJson(phase, progress, data, forecast, histogram, options);
         }
     }
 
-    private byte[] exportAsJson(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast, ExportOptions options) throws IOException {
+    private byte[] exportAsJson(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast,
+                                SizeHistogramService.SizeHistogramReport histogram, ExportOptions options) throws IOException {
         Map<String, Object> export = new HashMap<>();
         export.put("phase", Map.of(
             "id", phase.getId(),
@@ -584,6 +622,10 @@ public class ReportService {
             export.put("data", data);
         }
 
+        if (histogram != null) {
+            export.put("sizeHistogram", histogram);
+        }
+
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -592,7 +634,8 @@ public class ReportService {
         return mapper.writeValueAsBytes(export);
     }
 
-    private byte[] exportAsCsv(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast, ExportOptions options) {
+    private byte[] exportAsCsv(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast,
+                                SizeHistogramService.SizeHistogramReport histogram, ExportOptions options) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintWriter writer = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
 
@@ -634,11 +677,32 @@ public class ReportService {
             }
         }
 
+        if (histogram != null) {
+            writer.println();
+            writer.println("Size Histogram (" + histogram.getDate() + "):");
+            writer.println("Storage Domain,Bucket,Min Bytes,Max Bytes,Blobs,Bytes");
+            for (SizeHistogramService.DomainHistogram domain : List.of(histogram.getSource(), histogram.getTarget())) {
+                for (SizeHistogramService.BucketHistogram bucket : domain.getBuckets()) {
+                    for (SizeHistogramService.SizeClass sizeClass : bucket.getClasses()) {
+                        writer.printf("%s,%s,%d,%s,%d,%d%n",
+                            domain.getStorageDomain(),
+                            bucket.getBucketName(),
+                            sizeClass.getMinBytes(),
+                            sizeClass.getMaxBytes() != null ? sizeClass.getMaxBytes().toString() : "",
+                            sizeClass.getBlobs(),
+                            sizeClass.getBytes()
+                        );
+                    }
+                }
+            }
+        }
+
         writer.flush();
         return baos.toByteArray();
     }
 
-    private byte[] exportAsHtml(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast, ExportOptions options) throws IOException {
+    private byte[] exportAsHtml(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast,
+                                SizeHistogramService.SizeHistogramReport histogram, ExportOptions options) throws IOException {
         StringBuilder html = new StringBuilder();
         html.append("<!DOCTYPE html>\n");
         html.append("<html lang=\"en\">\n");
@@ -784,6 +848,33 @@ public class ReportService {
             html.append("    </table>\n");
         }
         
+        // Size Histogram (source and target totals per size class)
+        if (histogram != null) {
+            html.append("    <h2>Object Size Distribution (").append(histogram.getDate()).append(")</h2>\n");
+            html.append("    <table>\n");
+            html.append("      <thead>\n");
+            html.append("        <tr>\n");
+            html.append("          <th>Blob Size</th>\n");
+            html.append("          <th class=\"number\">Source Blobs</th>\n");
+            html.append("          <th class=\"number\">Source Size</th>\n");
+            html.append("          <th class=\"number\">Target Blobs</th>\n");
+            html.append("          <th class=\"number\">Target Size</th>\n");
+            html.append("        </tr>\n");
+            html.append("      </thead>\n");
+            html.append("      <tbody>\n");
+            for (long[] row : histogramRows(histogram)) {
+                html.append("        <tr>\n");
+                html.append("          <td>").append(escapeHtml(formatSizeClass((int) row[0]))).append("</td>\n");
+                html.append("          <td class=\"number\">").append(String.format("%,d", row[1])).append("</td>\n");
+                html.append("          <td class=\"number\">").append(formatBytes(row[2])).append("</td>\n");
+                html.append("          <td class=\"number\">").append(String.format("%,d", row[3])).append("</td>\n");
+                html.append("          <td class=\"number\">").append(formatBytes(row[4])).append("</td>\n");
+                html.append("        </tr>\n");
+            }
+            html.append("      </tbody>\n");
+            html.append("    </table>\n");
+        }
+        
         html.append("  </div>\n");
         html.append("</body>\n");
         html.append("</html>\n");
@@ -791,7 +882,8 @@ public class ReportService {
         return html.toString().getBytes(StandardCharsets.UTF_8);
     }
 
-    private byte[] exportAsPdf(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast, ExportOptions options) throws IOException {
+    private byte[] exportAsPdf(MigrationPhase phase, PhaseProgress progress, List<MigrationData> data, Forecast forecast,
+                                SizeHistogramService.SizeHistogramReport histogram, ExportOptions options) throws IOException {
         org.apache.pdfbox.pdmodel.PDDocument document = null;
         org.apache.pdfbox.pdmodel.PDPageContentStream contentStream = null;
         
@@ -968,6 +1060,31 @@ public class ReportService {
                 y = drawDataTable(contentStream, data, leftMargin, y - 30, rightMargin - leftMargin, boldFont, regularFont);
             }
             
+            // Size Histogram, as many classes as fit on the page
+            if (histogram != null) {
+                y -= 30;
+                contentStream.setFont(boldFont, 14);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(leftMargin, y);
+                contentStream.showText("Object Size Distribution (" + histogram.getDate() + ")");
+                contentStream.endText();
+                
+                y -= 20;
+                contentStream.setFont(regularFont, 10);
+                for (long[] row : histogramRows(histogram)) {
+                    if (y < 50) {
+                        break;
+                    }
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(leftMargin, y);
+                    contentStream.showText(formatSizeClass((int) row[0]) + ": source " + String.format("%,d", row[1]) +
+                        " blobs (" + formatBytes(row[2]) + "), target " + String.format("%,d", row[3]) +
+                        " blobs (" + formatBytes(row[4]) + ")");
+                    contentStream.endText();
+                    y -= 14;
+                }
+            }
+            
             contentStream.close();
             contentStream = null;
             
@@ -1272,6 +1389,34 @@ public class ReportService {
         return tableY - (sortedData.size() + 1) * rowHeight;
     }
 
+    /**
+     * {size class, source blobs, source bytes, target blobs, target bytes} for each class either side has
+     */
+    private List<long[]> histogramRows(SizeHistogramService.SizeHistogramReport histogram) {
+        java.util.TreeMap<Integer, long[]> rows = new java.util.TreeMap<>();
+        for (SizeHistogramService.SizeClass sizeClass : histogram.getSource().getClasses()) {
+            long[] row = rows.computeIfAbsent(sizeClass.getSizeClass(), c -> new long[]{c, 0, 0, 0, 0});
+            row[1] = sizeClass.getBlobs();
+            row[2] = sizeClass.getBytes();
+        }
+        for (SizeHistogramService.SizeClass sizeClass : histogram.getTarget().getClasses()) {
+            long[] row = rows.computeIfAbsent(sizeClass.getSizeClass(), c -> new long[]{c, 0, 0, 0, 0});
+            row[3] = sizeClass.getBlobs();
+            row[4] = sizeClass.getBytes();
+        }
+        return new java.util.ArrayList<>(rows.values());
+    }
+
+    private String formatSizeClass(int sizeClass) {
+        if (sizeClass == 0) {
+            return "Empty";
+        }
+        Long maxBytes = SizeHistogram.maxBytes(sizeClass);
+        return maxBytes != null
+            ? formatBytes(SizeHistogram.minBytes(sizeClass)) + " - " + formatBytes(maxBytes)
+            : ">= " + formatBytes(SizeHistogram.minBytes(sizeClass));
+    }
+
     private String escapeHtml(String text) {
         if (text == null) return "";
         return text.replace("&", "&amp;")
@@ -0,0 +1,190 @@
+package com.spectralogic.migrationtracker.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * A queued or running PostgreSQL restore.
+ * Tracks stage progress and the external processes (pg_restore, psql, rsync, ...) it has started so it can be cancelled.
+ */
+public class RestoreJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    public enum Stage { UPLOAD, DECOMPRESS, RESTORE, PERMISSIONS, RESTART, ANALYZE, OPTIMIZE, PREWARM, CATALOG }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String databaseType;
+    private final String customerId;
+    private final String filename;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final List<Stage> completedStages = new ArrayList<>();
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+    private final Set<ProcessHandle> processes = ConcurrentHashMap.newKeySet();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Stage stage = Stage.UPLOAD;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean cancelRequested;
+    private volatile PostgreSQLRestoreService.RestoreResult result;
+    private volatile Future<?> future;
+    private long stageStartNanos = System.nanoTime(); // 0 while no stage is being timed, guarded by this
+
+    public RestoreJob(String databaseType, String customerId, String filename) {
+        this.databaseType = databaseType;
+        this.customerId = customerId;
+        this.filename = filename;
+    }
+
+    /**
+     * Move to the next stage; throws if the job has been cancelled so the restore stops at a stage boundary
+     */
+    public synchronized void enterStage(Stage next) throws IOException {
+        checkCancelled();
+        stopStageClock();
+        if (stage != next && !completedStages.contains(stage)) {
+            completedStages.add(stage);
+        }
+        stage = next;
+        stageStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Stop timing the current stage: the upload is saved and the job waits in the queue, or the job is over
+     */
+    public synchronized void stopStageClock() {
+        if (stageStartNanos != 0) {
+            stageNanos.merge(stage, System.nanoTime() - stageStartNanos, Long::sum);
+            stageStartNanos = 0;
+        }
+    }
+
+    /**
+     * Time spent in each stage so far; a stage entered more than once (DECOMPRESS/RESTORE retries) is summed
+     */
+    public synchronized Map<Stage, Duration> getStageDurations() {
+        Map<Stage, Duration> durations = new EnumMap<>(Stage.class);
+        stageNanos.forEach((stage, nanos) -> durations.put(stage, Duration.ofNanos(nanos)));
+        return durations;
+    }
+
+    public void checkCancelled() throws IOException {
+        if (cancelRequested) {
+            throw new IOException("Restore cancelled");
+        }
+    }
+
+    /**
+     * Register an external process so cancel() can terminate it
+     */
+    public void registerProcess(Process process) throws IOException {
+        processes.add(process.toHandle());
+        process.onExit().thenRun(() -> processes.remove(process.toHandle()));
+        if (cancelRequested) {
+            destroyProcesses();
+            throw new IOException("Restore cancelled");
+        }
+    }
+
+    /**
+     * Request cancellation: destroys running processes (and their children) and interrupts the worker thread
+     */
+    public void cancel() {
+        cancelRequested = true;
+        destroyProcesses();
+        // Queued jobs are left in the queue; the worker skips them and cleans up their upload
+        Future<?> running = future;
+        if (running != null && status == Status.RUNNING) {
+            running.cancel(true);
+        }
+    }
+
+    private void destroyProcesses() {
+        for (ProcessHandle handle : processes) {
+            handle.descendants().forEach(ProcessHandle::destroy);
+            handle.destroy();
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDatabaseType() {
+        return databaseType;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized List<Stage> getCompletedStages() {
+        return new ArrayList<>(completedStages);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public PostgreSQLRestoreService.RestoreResult getResult() {
+        return result;
+    }
+
+    public void setResult(PostgreSQLRestoreService.RestoreResult result) {
+        this.result = result;
+    }
+
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+}
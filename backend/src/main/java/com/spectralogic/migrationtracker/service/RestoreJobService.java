@@ -0,0 +1,269 @@
+package com.spectralogic.migrationtracker.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Runs PostgreSQL restores as background jobs.
+ * Each database type has its own single-threaded queue, so at most one restore per type runs at a time.
+ */
+@Service
+public class RestoreJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestoreJobService.class);
+
+    private final PostgreSQLRestoreService restoreService;
+    private final CatalogService catalogService;
+    private final DatabaseCircuitBreaker databaseCircuitBreaker;
+    private final StorageDomainResolver storageDomainResolver;
+    private final GatherResultCache gatherResultCache;
+    private final PostRestoreOptimizer postRestoreOptimizer;
+    private final PostRestoreWarmup postRestoreWarmup;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RestoreJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorService> queues = new ConcurrentHashMap<>();
+
+    @Value("${postgres.restore.job-history-size:50}")
+    private int jobHistorySize;
+
+    public RestoreJobService(PostgreSQLRestoreService restoreService, CatalogService catalogService,
+                             DatabaseCircuitBreaker databaseCircuitBreaker, StorageDomainResolver storageDomainResolver,
+                             GatherResultCache gatherResultCache, PostRestoreOptimizer postRestoreOptimizer,
+                             PostRestoreWarmup postRestoreWarmup, MeterRegistry meterRegistry) {
+        this.restoreService = restoreService;
+        this.catalogService = catalogService;
+        this.databaseCircuitBreaker = databaseCircuitBreaker;
+        this.storageDomainResolver = storageDomainResolver;
+        this.gatherResultCache = gatherResultCache;
+        this.postRestoreOptimizer = postRestoreOptimizer;
+        this.postRestoreWarmup = postRestoreWarmup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Save the upload (UPLOAD stage, in the caller's thread) and queue the restore
+     */
+    public RestoreJob submit(String databaseType, String customerId, MultipartFile file) throws IOException {
+        RestoreJob job = new RestoreJob(databaseType.toLowerCase(), customerId, file.getOriginalFilename());
+        Path uploadedFile = restoreService.saveUpload(databaseType, customerId, file);
+        job.stopStageClock();
+
+        jobs.put(job.getId(), job);
+        pruneFinishedJobs();
+
+        ExecutorService queue = queues.computeIfAbsent(job.getDatabaseType(), type -> Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "restore-" + type);
+            thread.setDaemon(true);
+            return thread;
+        }));
+        job.setFuture(queue.submit(() -> run(job, uploadedFile)));
+        logger.info("Queued {} restore job {} for customer {} (file: {})", job.getDatabaseType(), job.getId(), customerId, job.getFilename());
+        return job;
+    }
+
+    private void run(RestoreJob job, Path uploadedFile) {
+        if (job.isCancelRequested()) {
+            job.setStatus(RestoreJob.Status.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            deleteQuietly(uploadedFile.getParent());
+            return;
+        }
+
+        job.setStatus(RestoreJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        meterRegistry.timer("migration.restore.queued", "database", job.getDatabaseType())
+            .record(Duration.between(job.getSubmittedAt(), job.getStartedAt()));
+        logger.info("Starting restore job {} ({})", job.getId(), job.getDatabaseType());
+        try {
+            PostgreSQLRestoreService.RestoreResult result = restoreService.restoreDatabase(
+                job.getDatabaseType(), job.getCustomerId(), uploadedFile, job);
+            job.setResult(result);
+            // The restore may have created a database that was remembered as unreachable
+            databaseCircuitBreaker.reset();
+            // ... and has new storage domain ids and contents
+            storageDomainResolver.reset();
+            gatherResultCache.reset();
+            if (result.isSuccess() && !job.isCancelRequested()) {
+                if (postRestoreWarmup.isAnalyzeEnabled()) {
+                    job.enterStage(RestoreJob.Stage.ANALYZE);
+                    analyze(job, result);
+                }
+                if (postRestoreOptimizer.isEnabled()) {
+                    job.enterStage(RestoreJob.Stage.OPTIMIZE);
+                    optimize(job);
+                }
+                if (postRestoreWarmup.isPrewarmEnabled()) {
+                    job.enterStage(RestoreJob.Stage.PREWARM);
+                    prewarm(job, result);
+                }
+                job.enterStage(RestoreJob.Stage.CATALOG);
+                snapshotCatalog(job);
+            }
+            if (job.isCancelRequested()) {
+                job.setStatus(RestoreJob.Status.CANCELLED);
+            } else {
+                job.setStatus(result.isSuccess() ? RestoreJob.Status.COMPLETED : RestoreJob.Status.FAILED);
+            }
+        } catch (Exception e) {
+            PostgreSQLRestoreService.RestoreResult result = new PostgreSQLRestoreService.RestoreResult();
+            result.setSuccess(false);
+            result.setDatabaseType(job.getDatabaseType());
+            result.setFilename(job.getFilename());
+            result.setError(job.isCancelRequested() ? "Restore cancelled" : "Failed to restore database: " + e.getMessage());
+            job.setResult(result);
+            job.setStatus(job.isCancelRequested() ? RestoreJob.Status.CANCELLED : RestoreJob.Status.FAILED);
+            if (!job.isCancelRequested()) {
+                logger.error("Restore job {} failed: {}", job.getId(), e.getMessage(), e);
+            }
+        } finally {
+            job.stopStageClock();
+            job.setFinishedAt(LocalDateTime.now());
+            // The restore normally removes its temp directory; make sure a cancelled/failed job does too
+            deleteQuietly(uploadedFile.getParent());
+        }
+        recordMetrics(job);
+        logger.info("Restore job {} finished with status {}", job.getId(), job.getStatus());
+    }
+
+    /**
+     * Time per stage (migration.restore.stage) and for the whole restore (migration.restore), by database type and outcome
+     */
+    private void recordMetrics(RestoreJob job) {
+        String status = job.getStatus().name().toLowerCase();
+        job.getStageDurations().forEach((stage, duration) ->
+            meterRegistry.timer("migration.restore.stage", "database", job.getDatabaseType(),
+                "stage", stage.name().toLowerCase(), "status", status).record(duration));
+        meterRegistry.timer("migration.restore", "database", job.getDatabaseType(), "status", status)
+            .record(Duration.between(job.getStartedAt(), job.getFinishedAt()));
+    }
+
+    /**
+     * Planner statistics for the restored copy, so the summary build and the first gathers get sensible plans.
+     * A failure here doesn't fail the restore.
+     */
+    private void analyze(RestoreJob job, PostgreSQLRestoreService.RestoreResult result) {
+        try {
+            PostRestoreWarmup.AnalyzeStats stats =
+                postRestoreWarmup.analyze(job.getCustomerId(), job.getDatabaseType(), job);
+            result.setAnalyzedTables(stats.getTableCount());
+            result.setAnalyzeMillis(stats.getElapsedMillis());
+        } catch (Exception e) {
+            logger.warn("Restore job {} succeeded but analyzing the restored database failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load what gathers read into the cache, after the summaries exist. A failure here doesn't fail the restore.
+     */
+    private void prewarm(RestoreJob job, PostgreSQLRestoreService.RestoreResult result) {
+        try {
+            PostRestoreWarmup.PrewarmStats stats =
+                postRestoreWarmup.prewarm(job.getCustomerId(), job.getDatabaseType(), job);
+            if (stats != null) {
+                result.setPrewarmedRelations(stats.getRelationCount());
+                result.setPrewarmedBlocks(stats.getBlocks());
+                result.setPrewarmMillis(stats.getElapsedMillis());
+            }
+        } catch (Exception e) {
+            logger.warn("Restore job {} succeeded but prewarming the restored database failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Helper indexes and summaries on the restored copy, before the catalog snapshot (which then reads the bucket
+     * summary). A failure here doesn't fail the restore - gathers and listings just aggregate as before.
+     */
+    private void optimize(RestoreJob job) {
+        try {
+            postRestoreOptimizer.optimize(job.getCustomerId(), job.getDatabaseType());
+        } catch (Exception e) {
+            logger.warn("Restore job {} succeeded but optimizing the restored database failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot the restored catalog into SQLite. A failure here doesn't fail the restore -
+     * the UI falls back to querying PostgreSQL until the catalog is refreshed.
+     */
+    private void snapshotCatalog(RestoreJob job) {
+        try {
+            catalogService.refreshCatalog(job.getCustomerId(), job.getDatabaseType());
+        } catch (Exception e) {
+            logger.warn("Restore job {} succeeded but the catalog snapshot failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    public Optional<RestoreJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * All known jobs, newest first
+     */
+    public List<RestoreJob> getJobs() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing(RestoreJob::getSubmittedAt).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancel a queued or running job. Returns false if the job is unknown or already finished.
+     */
+    public boolean cancel(String jobId) {
+        RestoreJob job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        logger.info("Cancelling restore job {} (status: {}, stage: {})", jobId, job.getStatus(), job.getStage());
+        job.cancel();
+        if (job.getStatus() == RestoreJob.Status.QUEUED) {
+            // Never started - the worker will skip it, but report it as cancelled right away
+            job.setStatus(RestoreJob.Status.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        return true;
+    }
+
+    private void pruneFinishedJobs() {
+        List<RestoreJob> finished = jobs.values().stream()
+            .filter(RestoreJob::isFinished)
+            .sorted(Comparator.comparing(RestoreJob::getSubmittedAt))
+            .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - jobHistorySize; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    private void deleteQuietly(Path dir) {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Failed to delete restore temp directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().stream().filter(job -> !job.isFinished()).forEach(RestoreJob::cancel);
+        queues.values().forEach(ExecutorService::shutdownNow);
+    }
+}
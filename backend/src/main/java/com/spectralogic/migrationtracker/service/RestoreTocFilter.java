@@ -0,0 +1,150 @@
+package com.spectralogic.migrationtracker.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Cuts the table of contents of a custom format dump (pg_restore -l -v) down to a set of tables, for
+ * pg_restore -L. Keeps each table's definition and data, everything those depend on (schemas, types, ...), and
+ * the indexes, constraints and comments on them. An entry that also needs something left out is left out too,
+ * such as a foreign key to another table, a trigger and its function, or a serial column's sequence and default.
+ */
+class RestoreTocFilter {
+
+    /**
+     * "dumpId; catalogOid objectOid DESC schema name owner"
+     */
+    private static final Pattern ENTRY = Pattern.compile("^(\\d+); \\d+ \\d+ (.*)$");
+    private static final Pattern DEPENDS = Pattern.compile("^;\\s*depends on:(.*)$");
+
+    /**
+     * Entries pg_restore always processes; kept so the list reads like the original
+     */
+    private static final Set<String> SPECIAL = Set.of("ENCODING", "STDSTRINGS", "SEARCHPATH");
+
+    /**
+     * Entries kept when everything they depend on is kept
+     */
+    private static final List<String> ATTACHED = List.of(
+        "FK CONSTRAINT", "CHECK CONSTRAINT", "CONSTRAINT", "INDEX ATTACH", "TABLE ATTACH", "INDEX",
+        "STATISTICS DATA", "COMMENT");
+
+    private final Map<Integer, String> lines = new LinkedHashMap<>();
+    private final Map<Integer, String> descriptions = new HashMap<>();
+    private final Map<Integer, List<Integer>> dependencies = new HashMap<>();
+    private final Map<String, List<Integer>> tableEntries = new HashMap<>(); // schema.table -> TABLE, TABLE DATA
+
+    RestoreTocFilter(List<String> toc) {
+        Integer current = null;
+        for (String line : toc) {
+            Matcher entry = ENTRY.matcher(line);
+            if (entry.matches()) {
+                current = Integer.parseInt(entry.group(1));
+                lines.put(current, line);
+                String rest = entry.group(2);
+                descriptions.put(current, rest);
+                String[] tokens = rest.split(" ");
+                if (tokens[0].equals("TABLE") && tokens.length >= 3) {
+                    boolean data = tokens[1].equals("DATA");
+                    if (!tokens[1].equals("ATTACH") && (!data || tokens.length >= 4)) {
+                        String table = data ? tokens[2] + "." + tokens[3] : tokens[1] + "." + tokens[2];
+                        tableEntries.computeIfAbsent(table, k -> new ArrayList<>()).add(current);
+                    }
+                }
+                continue;
+            }
+            Matcher depends = DEPENDS.matcher(line);
+            if (depends.matches() && current != null) {
+                List<Integer> ids = dependencies.computeIfAbsent(current, k -> new ArrayList<>());
+                for (String id : depends.group(1).trim().split("\\s+")) {
+                    if (!id.isEmpty()) {
+                        ids.add(Integer.parseInt(id));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tables (schema.table) of the list that are in the dump
+     */
+    List<String> found(List<String> tables) {
+        List<String> found = new ArrayList<>();
+        for (String table : tables) {
+            if (tableEntries.containsKey(table)) {
+                found.add(table);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The TOC lines to restore for these tables, in dump order
+     */
+    List<String> filter(List<String> tables) {
+        Set<Integer> selected = new HashSet<>();
+        for (String table : tables) {
+            for (Integer id : tableEntries.getOrDefault(table, List.of())) {
+                addWithDependencies(id, selected);
+            }
+        }
+        for (Map.Entry<Integer, String> entry : descriptions.entrySet()) {
+            if (SPECIAL.contains(entry.getValue().split(" ")[0])) {
+                selected.add(entry.getKey());
+            }
+        }
+
+        // Indexes and constraints can depend on each other (a foreign key on a unique constraint), so repeat
+        // until nothing more is added
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Map.Entry<Integer, String> entry : descriptions.entrySet()) {
+                Integer id = entry.getKey();
+                if (!selected.contains(id) && isAttached(entry.getValue())) {
+                    List<Integer> deps = dependencies.getOrDefault(id, List.of()).stream()
+                        .filter(lines::containsKey)
+                        .collect(Collectors.toList());
+                    if (!deps.isEmpty() && selected.containsAll(deps)) {
+                        selected.add(id);
+                        added = true;
+                    }
+                }
+            }
+        }
+
+        List<String> filtered = new ArrayList<>();
+        lines.forEach((id, line) -> {
+            if (selected.contains(id)) {
+                filtered.add(line);
+            }
+        });
+        return filtered;
+    }
+
+    private void addWithDependencies(Integer id, Set<Integer> selected) {
+        if (!lines.containsKey(id) || !selected.add(id)) {
+            return;
+        }
+        for (Integer dependency : dependencies.getOrDefault(id, List.of())) {
+            addWithDependencies(dependency, selected);
+        }
+    }
+
+    private static boolean isAttached(String description) {
+        for (String desc : ATTACHED) {
+            if (description.startsWith(desc + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
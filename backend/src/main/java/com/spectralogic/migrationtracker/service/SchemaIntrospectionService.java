@@ -0,0 +1,234 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the table/column layout of a customer PostgreSQL database once and caches it.
+ * The cache is keyed by database and a cheap pg_class fingerprint, so a restore (new OIDs) or
+ * schema change invalidates it, while repeated probes against the same database skip information_schema entirely.
+ */
+@Service
+public class SchemaIntrospectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIntrospectionService.class);
+
+    /** Schemas the BlackPearl/Rio databases keep their data in */
+    private static final String SCHEMA_FILTER = "('public', 'ds3', 'tape')";
+
+    private final Map<String, SchemaLayout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Get the layout of a database, reading information_schema.columns only if the fingerprint changed
+     *
+     * @param databaseKey identifies the database (host:port/name)
+     */
+    public SchemaLayout getLayout(JdbcTemplate jdbc, String databaseKey) {
+        String fingerprint = jdbc.queryForObject(
+            "SELECT md5(coalesce(string_agg(c.oid::text || '.' || c.relnatts::text, ',' ORDER BY c.oid), '')) " +
+            "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname IN " + SCHEMA_FILTER + " AND c.relkind IN ('r', 'v', 'm', 'p', 'f')",
+            String.class);
+
+        SchemaLayout cached = layouts.get(databaseKey);
+        if (cached != null && Objects.equals(cached.getFingerprint(), fingerprint)) {
+            logger.debug("Using cached schema layout for {} (fingerprint {})", databaseKey, fingerprint);
+            return cached;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Map<String, Map<String, List<String>>> tables = new TreeMap<>();
+        jdbc.query(
+            "SELECT table_schema, table_name, column_name FROM information_schema.columns " +
+            "WHERE table_schema IN " + SCHEMA_FILTER + " ORDER BY table_schema, table_name, ordinal_position",
+            rs -> {
+                tables.computeIfAbsent(rs.getString("table_schema"), schema -> new TreeMap<>())
+                    .computeIfAbsent(rs.getString("table_name"), table -> new ArrayList<>())
+                    .add(rs.getString("column_name"));
+            });
+
+        SchemaLayout layout = new SchemaLayout(fingerprint, tables);
+        layouts.put(databaseKey, layout);
+        logger.info("Read schema layout for {} in {} ms: {} tables (fingerprint {})",
+            databaseKey, System.currentTimeMillis() - startTime, layout.getTableCount(), fingerprint);
+        return layout;
+    }
+
+    /**
+     * Fetch the distinct non-empty values of several columns in one round trip (UNION ALL).
+     * If the combined query fails (e.g. no SELECT privilege on one table), falls back to one query per column
+     * and skips the ones that fail. Columns with no values are absent from the result.
+     */
+    public Map<ColumnRef, List<String>> queryDistinctValues(JdbcTemplate jdbc, List<ColumnRef> columns) {
+        Map<ColumnRef, List<String>> values = new LinkedHashMap<>();
+        if (columns.isEmpty()) {
+            return values;
+        }
+
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT ").append(i).append(" AS source, v FROM (").append(distinctValuesSql(columns.get(i))).append(") s").append(i);
+        }
+        sql.append(" ORDER BY source, v");
+
+        try {
+            jdbc.query(sql.toString(), rs -> {
+                values.computeIfAbsent(columns.get(rs.getInt("source")), column -> new ArrayList<>()).add(rs.getString("v"));
+            });
+            return values;
+        } catch (Exception e) {
+            logger.debug("Combined distinct-value query failed ({}), querying {} columns individually", e.getMessage(), columns.size());
+        }
+
+        values.clear();
+        for (ColumnRef column : columns) {
+            try {
+                List<String> columnValues = jdbc.query("SELECT v FROM (" + distinctValuesSql(column) + ") s ORDER BY v",
+                    (rs, rowNum) -> rs.getString("v"));
+                if (!columnValues.isEmpty()) {
+                    values.put(column, columnValues);
+                }
+            } catch (Exception e) {
+                logger.debug("Could not query {}: {}", column, e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    private String distinctValuesSql(ColumnRef column) {
+        String col = quote(column.getColumn());
+        String sql = "SELECT DISTINCT " + col + "::text AS v FROM " + quote(column.getSchema()) + "." + quote(column.getTable()) +
+            " WHERE " + col + " IS NOT NULL AND " + col + "::text != ''";
+        if (column.getLimit() > 0) {
+            sql += " ORDER BY v LIMIT " + column.getLimit();
+        }
+        return sql;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Tables and columns of the introspected schemas, as of a fingerprint
+     */
+    public static class SchemaLayout {
+        private final String fingerprint;
+        private final Map<String, Map<String, List<String>>> tables;
+
+        public SchemaLayout(String fingerprint, Map<String, Map<String, List<String>>> tables) {
+            this.fingerprint = fingerprint;
+            this.tables = tables;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public boolean hasTable(String schema, String table) {
+            return tables.getOrDefault(schema, Collections.emptyMap()).containsKey(table);
+        }
+
+        public boolean hasColumn(String schema, String table, String column) {
+            return getColumns(schema, table).contains(column);
+        }
+
+        /**
+         * Table names in a schema, sorted
+         */
+        public List<String> getTables(String schema) {
+            return new ArrayList<>(tables.getOrDefault(schema, Collections.emptyMap()).keySet());
+        }
+
+        /**
+         * Column names of a table in ordinal order
+         */
+        public List<String> getColumns(String schema, String table) {
+            return tables.getOrDefault(schema, Collections.emptyMap()).getOrDefault(table, Collections.emptyList());
+        }
+
+        public int getTableCount() {
+            return tables.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+
+    /**
+     * A schema.table.column reference, optionally limiting how many distinct values to fetch (0 = all)
+     */
+    public static class ColumnRef {
+        private final String schema;
+        private final String table;
+        private final String column;
+        private final int limit;
+
+        public ColumnRef(String schema, String table, String column) {
+            this(schema, table, column, 0);
+        }
+
+        public ColumnRef(String schema, String table, String column, int limit) {
+            this.schema = schema;
+            this.table = table;
+            this.column = column;
+            this.limit = limit;
+        }
+
+        public String getSchema() {
+            return schema;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * Same column, ignoring the limit
+         */
+        public boolean sameColumn(ColumnRef other) {
+            return schema.equals(other.schema) && table.equals(other.table) && column.equals(other.column);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ColumnRef)) {
+                return false;
+            }
+            ColumnRef other = (ColumnRef) o;
+            return sameColumn(other) && limit == other.limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(schema, table, column, limit);
+        }
+
+        @Override
+        public String toString() {
+            return schema + "." + table + "." + column;
+        }
+    }
+}
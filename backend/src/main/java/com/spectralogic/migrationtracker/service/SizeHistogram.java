@@ -0,0 +1,117 @@
+package com.spectralogic.migrationtracker.service;
+
+import java.util.StringJoiner;
+
+/**
+ * Log-scale histogram of blob sizes: blobs on tape and their bytes per size class. Class 0 holds empty blobs,
+ * class i blobs of [2^(i-1), 2^i) bytes, and the last class everything from 2^48 bytes up.
+ * Stored as text: "class:blobs:bytes" for each non-empty class, comma separated.
+ */
+public class SizeHistogram {
+
+    public static final int CLASSES = 50;
+
+    /**
+     * Lower bounds of classes 1 to CLASSES - 1 as a PostgreSQL bigint[] literal, for width_bucket
+     */
+    private static final String BOUNDS;
+
+    static {
+        StringJoiner bounds = new StringJoiner(",", "'{", "}'::bigint[]");
+        for (int sizeClass = 1; sizeClass < CLASSES; sizeClass++) {
+            bounds.add(Long.toString(minBytes(sizeClass)));
+        }
+        BOUNDS = bounds.toString();
+    }
+
+    private final long[] blobs = new long[CLASSES];
+    private final long[] bytes = new long[CLASSES];
+
+    /**
+     * SQL size class of a length column. width_bucket over integer bounds, so exact powers of two land in the
+     * class they start (a float log would not).
+     */
+    static String sqlSizeClass(String lengthColumn) {
+        return "width_bucket(" + lengthColumn + ", " + BOUNDS + ")";
+    }
+
+    /**
+     * Size class of a length, the same as sqlSizeClass computes
+     */
+    static int sizeClass(long length) {
+        return length <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(length), CLASSES - 1);
+    }
+
+    public static long minBytes(int sizeClass) {
+        return sizeClass == 0 ? 0L : 1L << (sizeClass - 1);
+    }
+
+    /**
+     * Exclusive upper bound of a class, or null for the last
+     */
+    public static Long maxBytes(int sizeClass) {
+        return sizeClass == CLASSES - 1 ? null : 1L << sizeClass;
+    }
+
+    public void add(int sizeClass, long blobCount, long byteCount) {
+        blobs[sizeClass] += blobCount;
+        bytes[sizeClass] += byteCount;
+    }
+
+    public void addBlob(long length) {
+        add(sizeClass(length), 1, length);
+    }
+
+    public void merge(SizeHistogram other) {
+        for (int i = 0; i < CLASSES; i++) {
+            blobs[i] += other.blobs[i];
+            bytes[i] += other.bytes[i];
+        }
+    }
+
+    public long getBlobs(int sizeClass) {
+        return blobs[sizeClass];
+    }
+
+    public long getBytes(int sizeClass) {
+        return bytes[sizeClass];
+    }
+
+    public boolean isEmpty() {
+        for (long count : blobs) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String encode() {
+        StringJoiner text = new StringJoiner(",");
+        for (int i = 0; i < CLASSES; i++) {
+            if (blobs[i] != 0) {
+                text.add(i + ":" + blobs[i] + ":" + bytes[i]);
+            }
+        }
+        return text.toString();
+    }
+
+    public static SizeHistogram decode(String text) {
+        SizeHistogram histogram = new SizeHistogram();
+        if (text == null || text.isEmpty()) {
+            return histogram;
+        }
+        for (String entry : text.split(",")) {
+            String[] fields = entry.split(":");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Malformed size histogram entry: " + entry);
+            }
+            int sizeClass = Integer.parseInt(fields[0]);
+            if (sizeClass < 0 || sizeClass >= CLASSES) {
+                throw new IllegalArgumentException("Size class out of range: " + entry);
+            }
+            histogram.add(sizeClass, Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+        }
+        return histogram;
+    }
+}
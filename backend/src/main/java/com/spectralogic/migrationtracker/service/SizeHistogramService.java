@@ -0,0 +1,240 @@
+package com.spectralogic.migrationtracker.service;
+
+import com.spectralogic.migrationtracker.model.BucketSizeHistogram;
+import com.spectralogic.migrationtracker.model.MigrationPhase;
+import com.spectralogic.migrationtracker.repository.BucketSizeHistogramRepository;
+import com.spectralogic.migrationtracker.repository.PhaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Blob size histograms of a phase's source and target, taken from the same per-bucket scan a full gather already
+ * runs (an extra grouping set, or a per-row class in sketch mode), so size distributions need no separate query.
+ * Incremental and per-bucket fallback gathers record none.
+ */
+@Service
+public class SizeHistogramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SizeHistogramService.class);
+
+    private final BucketSizeHistogramRepository repository;
+    private final PhaseRepository phaseRepository;
+
+    @Value("${migration.gather.size-histogram.enabled:true}")
+    private boolean enabled;
+
+    public SizeHistogramService(BucketSizeHistogramRepository repository, PhaseRepository phaseRepository) {
+        this.repository = repository;
+        this.phaseRepository = phaseRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Store the histograms of a gathered storage domain: the selected buckets', or, with no buckets selected,
+     * the whole domain's under its name (as bucket_data does)
+     */
+    void save(String phaseId, LocalDate date, String storageDomain, GatherResultCache.DomainScan scan,
+              List<String> selectedBuckets) {
+        if (!enabled || scan.getHistograms().isEmpty()) {
+            return;
+        }
+        List<BucketSizeHistogram> rows = new ArrayList<>();
+        if (selectedBuckets != null && !selectedBuckets.isEmpty()) {
+            for (String bucketName : selectedBuckets) {
+                SizeHistogram histogram = scan.getHistograms().get(bucketName);
+                if (histogram != null && !histogram.isEmpty()) {
+                    rows.add(row(phaseId, date, storageDomain, bucketName, histogram));
+                }
+            }
+        } else {
+            SizeHistogram total = new SizeHistogram();
+            scan.getHistograms().values().forEach(total::merge);
+            if (!total.isEmpty()) {
+                rows.add(row(phaseId, date, storageDomain, storageDomain, total));
+            }
+        }
+        try {
+            repository.saveAll(rows);
+        } catch (Exception e) {
+            logger.warn("Could not store size histograms of storage domain '{}' for phase {} on {}: {}",
+                storageDomain, phaseId, date, e.getMessage());
+        }
+    }
+
+    private static BucketSizeHistogram row(String phaseId, LocalDate date, String storageDomain, String bucketName,
+                                           SizeHistogram histogram) {
+        BucketSizeHistogram row = new BucketSizeHistogram();
+        row.setMigrationPhaseId(phaseId);
+        row.setTimestamp(date);
+        row.setStorageDomain(storageDomain);
+        row.setBucketName(bucketName);
+        row.setHistogram(histogram.encode());
+        return row;
+    }
+
+    void delete(String phaseId, LocalDate date) {
+        repository.deleteByPhaseIdAndTimestamp(phaseId, date);
+    }
+
+    /**
+     * Size classes of the phase's source and target, per bucket and in total, on one date (the latest with
+     * histograms if null). Empty if no gather recorded any.
+     */
+    public Optional<SizeHistogramReport> getReport(String phaseId, LocalDate date) {
+        MigrationPhase phase = phaseRepository.findById(phaseId)
+            .orElseThrow(() -> new RuntimeException("Phase not found: " + phaseId));
+        LocalDate day = date != null ? date : repository.findLatestTimestamp(phaseId);
+        if (day == null) {
+            return Optional.empty();
+        }
+        List<BucketSizeHistogram> rows = repository.findByPhaseIdAndTimestamp(phaseId, day);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SizeHistogramReport report = new SizeHistogramReport();
+        report.phaseId = phaseId;
+        report.date = day;
+        report.source = domain(phase.getSource(), rows);
+        report.target = domain(phase.getTarget(), rows);
+        return Optional.of(report);
+    }
+
+    private static DomainHistogram domain(String storageDomain, List<BucketSizeHistogram> rows) {
+        DomainHistogram domain = new DomainHistogram();
+        domain.storageDomain = storageDomain;
+        SizeHistogram total = new SizeHistogram();
+        for (BucketSizeHistogram row : rows) {
+            if (row.getStorageDomain().equalsIgnoreCase(storageDomain)) {
+                SizeHistogram histogram = SizeHistogram.decode(row.getHistogram());
+                total.merge(histogram);
+                BucketHistogram bucket = new BucketHistogram();
+                bucket.bucketName = row.getBucketName();
+                bucket.classes = classes(histogram);
+                domain.buckets.add(bucket);
+            }
+        }
+        domain.classes = classes(total);
+        return domain;
+    }
+
+    /**
+     * The non-empty classes, smallest first
+     */
+    private static List<SizeClass> classes(SizeHistogram histogram) {
+        List<SizeClass> classes = new ArrayList<>();
+        for (int i = 0; i < SizeHistogram.CLASSES; i++) {
+            if (histogram.getBlobs(i) != 0) {
+                SizeClass sizeClass = new SizeClass();
+                sizeClass.sizeClass = i;
+                sizeClass.minBytes = SizeHistogram.minBytes(i);
+                sizeClass.maxBytes = SizeHistogram.maxBytes(i);
+                sizeClass.blobs = histogram.getBlobs(i);
+                sizeClass.bytes = histogram.getBytes(i);
+                classes.add(sizeClass);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Size histograms of a phase on one date
+     */
+    public static class SizeHistogramReport {
+        private String phaseId;
+        private LocalDate date;
+        private DomainHistogram source;
+        private DomainHistogram target;
+
+        public String getPhaseId() {
+            return phaseId;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public DomainHistogram getSource() {
+            return source;
+        }
+
+        public DomainHistogram getTarget() {
+            return target;
+        }
+    }
+
+    public static class DomainHistogram {
+        private String storageDomain;
+        private List<SizeClass> classes = new ArrayList<>();
+        private final List<BucketHistogram> buckets = new ArrayList<>();
+
+        public String getStorageDomain() {
+            return storageDomain;
+        }
+
+        /**
+         * All buckets' blobs together
+         */
+        public List<SizeClass> getClasses() {
+            return classes;
+        }
+
+        public List<BucketHistogram> getBuckets() {
+            return buckets;
+        }
+    }
+
+    public static class BucketHistogram {
+        private String bucketName;
+        private List<SizeClass> classes;
+
+        public String getBucketName() {
+            return bucketName;
+        }
+
+        public List<SizeClass> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Blobs of [minBytes, maxBytes) bytes; maxBytes is null for the last class
+     */
+    public static class SizeClass {
+        private int sizeClass;
+        private long minBytes;
+        private Long maxBytes;
+        private long blobs;
+        private long bytes;
+
+        public int getSizeClass() {
+            return sizeClass;
+        }
+
+        public long getMinBytes() {
+            return minBytes;
+        }
+
+        public Long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getBlobs() {
+            return blobs;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.spectralogic.migrationtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps storage domain names (a phase's source/target) to ds3.storage_domain ids and their storage_domain_member ids,
+ * so gather queries can filter tape.tape and ds3.data_persistence_rule by indexed id instead of joining
+ * ds3.storage_domain and matching sd.name ILIKE ? in every statement.
+ *
+ * The mapping of a database is read in one query and cached for cache-seconds; a name that is not in the cache
+ * re-reads it (a domain created since), and a restore clears it (new ids).
+ *
+ * Each member is one tape partition (storage_domain_member.tape_partition_id), so scoping a gather to a phase's
+ * tape partition narrows the member ids: the queries keep their one id-array parameter and touch only that
+ * partition's tapes.
+ */
+@Service
+public class StorageDomainResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageDomainResolver.class);
+
+    private final Map<String, DomainMap> domainMaps = new ConcurrentHashMap<>();
+
+    @Value("${migration.gather.storage-domain-cache-seconds:300}")
+    private long cacheSeconds;
+
+    /**
+     * Ids of the storage domain(s) whose name matches case-insensitively (what sd.name ILIKE ? matched).
+     * Empty ids if there is no such domain.
+     *
+     * @param databaseKey identifies the database (host:port/name)
+     */
+    public StorageDomainIds resolve(JdbcTemplate jdbc, String databaseKey, String storageDomain) {
+        String name = storageDomain.toLowerCase(Locale.ROOT);
+        DomainMap cached = domainMaps.get(databaseKey);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < cacheSeconds * 1000) {
+            StorageDomainIds ids = cached.domains.get(name);
+            if (ids != null) {
+                return ids;
+            }
+        }
+
+        DomainMap loaded = load(jdbc, databaseKey);
+        domainMaps.put(databaseKey, loaded);
+        StorageDomainIds ids = loaded.domains.get(name);
+        if (ids == null) {
+            logger.warn("Storage domain '{}' not found in {}", storageDomain, databaseKey);
+            return new StorageDomainIds(loaded.domainIdType, loaded.memberIdType, false);
+        }
+        return ids;
+    }
+
+    /**
+     * resolve(), narrowed to the members in one tape partition (matched case-insensitively).
+     * A null or blank partition means the whole storage domain; so does a database without partition ids on its members.
+     */
+    public StorageDomainIds resolve(JdbcTemplate jdbc, String databaseKey, String storageDomain, String tapePartition) {
+        StorageDomainIds ids = resolve(jdbc, databaseKey, storageDomain);
+        if (tapePartition == null || tapePartition.isBlank()) {
+            return ids;
+        }
+        if (!ids.partitionsKnown) {
+            logger.warn("Tape partitions of storage domain members are not known in {}; gathering all of storage domain '{}'",
+                databaseKey, storageDomain);
+            return ids;
+        }
+        StorageDomainIds scoped = ids.forPartition(tapePartition.trim());
+        if (scoped.memberIds.isEmpty() && !ids.isEmpty()) {
+            logger.warn("Storage domain '{}' has no members in tape partition '{}' in {}", storageDomain, tapePartition, databaseKey);
+        }
+        return scoped;
+    }
+
+    /**
+     * Forget all mappings (after a restore, ids change)
+     */
+    public void reset() {
+        domainMaps.clear();
+    }
+
+    private DomainMap load(JdbcTemplate jdbc, String databaseKey) {
+        long startTime = System.currentTimeMillis();
+        DomainMap map;
+        try {
+            map = load(jdbc, startTime, true);
+        } catch (Exception e) {
+            // No tape partitions on members (e.g. Rio); resolve domains only
+            logger.debug("Could not read tape partitions of storage domain members in {}: {}", databaseKey, e.getMessage());
+            map = load(jdbc, startTime, false);
+        }
+        logger.info("Resolved {} storage domains in {} in {} ms", map.domains.size(), databaseKey,
+            System.currentTimeMillis() - startTime);
+        return map;
+    }
+
+    private DomainMap load(JdbcTemplate jdbc, long loadedAt, boolean withPartitions) {
+        DomainMap map = new DomainMap(loadedAt);
+        jdbc.query(
+            "SELECT sd.id::text AS domain_id, sd.name, sdm.id::text AS member_id, " +
+            (withPartitions ? "tp.name AS tape_partition, " : "NULL AS tape_partition, ") +
+            "pg_typeof(sd.id)::text AS domain_id_type, pg_typeof(sdm.id)::text AS member_id_type " +
+            "FROM ds3.storage_domain sd " +
+            "LEFT JOIN ds3.storage_domain_member sdm ON sdm.storage_domain_id = sd.id" +
+            (withPartitions ? " LEFT JOIN tape.tape_partition tp ON tp.id = sdm.tape_partition_id" : ""),
+            rs -> {
+                map.domainIdType = rs.getString("domain_id_type");
+                map.memberIdType = rs.getString("member_id_type");
+                String name = rs.getString("name");
+                if (name == null) {
+                    return;
+                }
+                StorageDomainIds ids = map.domains.computeIfAbsent(name.toLowerCase(Locale.ROOT),
+                    key -> new StorageDomainIds(map.domainIdType, map.memberIdType, withPartitions));
+                String domainId = rs.getString("domain_id");
+                if (!ids.domainIds.contains(domainId)) {
+                    ids.domainIds.add(domainId);
+                }
+                String memberId = rs.getString("member_id");
+                if (memberId != null) {
+                    ids.memberIds.add(memberId);
+                    ids.memberPartitions.put(memberId, rs.getString("tape_partition"));
+                }
+            });
+        return map;
+    }
+
+    private static class DomainMap {
+        private final long loadedAt;
+        private final Map<String, StorageDomainIds> domains = new HashMap<>();
+        // Column types for the array casts; uuid on BlackPearl
+        private String domainIdType = "uuid";
+        private String memberIdType = "uuid";
+
+        DomainMap(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * The ids of the storage domain(s) with one name. The filter methods return SQL conditions with one array parameter;
+     * bind it with domainIdArray()/memberIdArray().
+     */
+    public static class StorageDomainIds {
+        private final String domainIdType;
+        private final String memberIdType;
+        private final boolean partitionsKnown;
+        private final List<String> domainIds = new ArrayList<>();
+        private final List<String> memberIds = new ArrayList<>();
+        private final Map<String, String> memberPartitions = new HashMap<>(); // member id -> tape partition name
+
+        StorageDomainIds(String domainIdType, String memberIdType, boolean partitionsKnown) {
+            this.domainIdType = domainIdType;
+            this.memberIdType = memberIdType;
+            this.partitionsKnown = partitionsKnown;
+        }
+
+        private StorageDomainIds forPartition(String tapePartition) {
+            StorageDomainIds scoped = new StorageDomainIds(domainIdType, memberIdType, true);
+            scoped.domainIds.addAll(domainIds);
+            memberPartitions.forEach((memberId, partition) -> {
+                if (tapePartition.equalsIgnoreCase(partition)) {
+                    scoped.memberIds.add(memberId);
+                    scoped.memberPartitions.put(memberId, partition);
+                }
+            });
+            return scoped;
+        }
+
+        /**
+         * Tape partition of a member, or null if not known
+         */
+        public String getTapePartition(String memberId) {
+            return memberPartitions.get(memberId);
+        }
+
+        public boolean isEmpty() {
+            return domainIds.isEmpty();
+        }
+
+        public List<String> getDomainIds() {
+            return domainIds;
+        }
+
+        public List<String> getMemberIds() {
+            return memberIds;
+        }
+
+        /**
+         * e.g. "t.storage_domain_member_id = ANY(?::uuid[])"
+         */
+        public String memberFilter(String column) {
+            return column + " = ANY(?::" + memberIdType + "[])";
+        }
+
+        public String domainFilter(String column) {
+            return column + " = ANY(?::" + domainIdType + "[])";
+        }
+
+        public String memberIdArray() {
+            return toArrayLiteral(memberIds);
+        }
+
+        public String domainIdArray() {
+            return toArrayLiteral(domainIds);
+        }
+
+        private static String toArrayLiteral(List<String> ids) {
+            StringBuilder literal = new StringBuilder("{");
+            for (String id : ids) {
+                if (literal.length() > 1) {
+                    literal.append(',');
+                }
+                literal.append('"').append(id.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+            return literal.append('}').toString();
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package com.spectralogic.migrationtracker.service;
 
 import com.spectralogic.migrationtracker.model.Customer;
+import com.spectralogic.migrationtracker.repository.CatalogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -13,6 +12,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
@@ -21,237 +21,77 @@ public class StorageDomainService {
     private static final Logger logger = LoggerFactory.getLogger(StorageDomainService.class);
     
     private final CustomerService customerService;
-    
-    @Value("${postgres.blackpearl.host:localhost}")
-    private String blackpearlHost;
-
-    @Value("${postgres.blackpearl.port:5432}")
-    private int blackpearlPort;
-
-    @Value("${postgres.blackpearl.username:postgres}")
-    private String blackpearlUsername;
-
-    @Value("${postgres.blackpearl.password:}")
-    private String blackpearlPassword;
-
-    @Value("${postgres.rio.host:localhost}")
-    private String rioHost;
-
-    @Value("${postgres.rio.port:5432}")
-    private int rioPort;
-
-    @Value("${postgres.rio.username:postgres}")
-    private String rioUsername;
-
-    @Value("${postgres.rio.password:}")
-    private String rioPassword;
+    private final CatalogRepository catalogRepository;
+    private final SchemaIntrospectionService schemaIntrospectionService;
+    private final CustomerDatabaseConnector customerDatabaseConnector;
 
-    public StorageDomainService(CustomerService customerService) {
+    public StorageDomainService(CustomerService customerService, CatalogRepository catalogRepository,
+                                SchemaIntrospectionService schemaIntrospectionService,
+                                CustomerDatabaseConnector customerDatabaseConnector) {
         this.customerService = customerService;
+        this.catalogRepository = catalogRepository;
+        this.schemaIntrospectionService = schemaIntrospectionService;
+        this.customerDatabaseConnector = customerDatabaseConnector;
     }
 
     /**
-     * Get storage domains from the customer-specific PostgreSQL database
+     * Get storage domains and tape partitions for a customer
+     * Served from the SQLite catalog snapshot taken after restore; queries PostgreSQL only if there is no snapshot
      */
     public StorageDomains getStorageDomains(String customerId, String databaseType) {
+        Optional<String> capturedAt = catalogRepository.findSnapshotTime(customerId, databaseType);
+        if (capturedAt.isPresent()) {
+            logger.debug("Serving storage domains for customer {} ({}) from catalog captured at {}", customerId, databaseType, capturedAt.get());
+            return buildResult(
+                catalogRepository.findStorageDomains(customerId, databaseType),
+                catalogRepository.findTapePartitions(customerId, databaseType),
+                databaseType);
+        }
+        logger.info("No catalog snapshot for customer {} ({}), querying PostgreSQL", customerId, databaseType);
+        return queryStorageDomains(customerId, databaseType);
+    }
+
+    /**
+     * Get storage domains from the customer-specific PostgreSQL database
+     */
+    public StorageDomains queryStorageDomains(String customerId, String databaseType) {
         try {
             Customer customer = customerService.findById(customerId);
             String customerName = customer.getName().toLowerCase().replaceAll("[^a-z0-9]", "_");
             
-            // Construct customer-specific database name
-            String databaseName;
-            String host;
-            int port;
-            String username;
-            String password;
-            
-            if (databaseType.equalsIgnoreCase("blackpearl")) {
-                databaseName = "tapesystem_" + customerName;
-                host = blackpearlHost;
-                port = blackpearlPort;
-                username = blackpearlUsername;
-                password = blackpearlPassword != null ? blackpearlPassword : "";
-            } else {
-                databaseName = "rio_db_" + customerName;
-                host = rioHost;
-                port = rioPort;
-                username = rioUsername;
-                password = rioPassword != null ? rioPassword : "";
-            }
-            
-            logger.info("Querying storage domains from {} database: {}@{}:{}/{}", 
-                databaseType, username, host, port, databaseName);
-            
-            // Create data source for customer-specific database
-            DriverManagerDataSource dataSource = new DriverManagerDataSource();
-            dataSource.setDriverClassName("org.postgresql.Driver");
-            dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName));
-            dataSource.setUsername(username);
-            dataSource.setPassword(password);
-            
-            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
-            
             Set<String> domains = new HashSet<>();
-            
-            // Test database connection first - try customer-specific, fallback to generic
-            String actualDatabaseName = databaseName;
-            try {
-                jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                logger.debug("Successfully connected to customer-specific database: {}", databaseName);
-            } catch (Exception e) {
-                logger.warn("Cannot connect to customer-specific database {}: {}. Trying generic database as fallback.", databaseName, e.getMessage());
-                // Fallback to generic database (for data directory restores)
-                String genericDatabaseName = databaseType.equalsIgnoreCase("blackpearl") ? "tapesystem" : "rio_db";
-                try {
-                    dataSource.setUrl(String.format("jdbc:postgresql://%s:%d/%s", host, port, genericDatabaseName));
-                    jdbc = new JdbcTemplate(dataSource);
-                    jdbc.query("SELECT 1", (rs, rowNum) -> rs.getInt(1));
-                    actualDatabaseName = genericDatabaseName;
-                    logger.info("Successfully connected to generic database: {}. Using this for storage domain queries.", genericDatabaseName);
-                } catch (Exception e2) {
-                    logger.error("Cannot connect to either customer-specific database {} or generic database {}: {}. Please ensure the database has been restored.", 
-                        databaseName, genericDatabaseName, e2.getMessage());
-                    // Return empty result with defaults
-                    StorageDomains result = new StorageDomains();
-                    result.setDomains(new ArrayList<>());
-                    result.setSuggestedSource(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
-                    result.setSuggestedTarget(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
-                    return result;
-                }
-            }
-            
-            // Try multiple table/column combinations to find storage domains
-            // Common patterns:
-            // 1. ds3.storage_domain table with name column (BlackPearl)
-            // 2. storage_domains table with name column (public schema)
-            // 3. domains table with name column
-            // 4. brokers table with name column (for Rio)
-            // 5. storage_domain column in various tables
-            // 6. domain column in various tables
-            
-            // First, try ds3.storage_domain (most common for BlackPearl)
-            try {
-                List<String> ds3StorageDomains = jdbc.query(
-                    "SELECT DISTINCT name FROM ds3.storage_domain WHERE name IS NOT NULL AND name != '' ORDER BY name",
-                    (rs, rowNum) -> {
-                        String value = rs.getString("name");
-                        return value != null ? value : "";
-                    }
-                );
-                if (!ds3StorageDomains.isEmpty()) {
-                    domains.addAll(ds3StorageDomains);
-                    logger.info("Found {} storage domains from ds3.storage_domain.name", ds3StorageDomains.size());
-                }
-            } catch (Exception e) {
-                logger.debug("Could not query ds3.storage_domain: {}", e.getMessage());
-            }
-            
-            // Then try public schema and other schemas
-            String[] schemas = {"public", "ds3"};
-            String[] tableNames = {"storage_domains", "domains", "brokers", "storage_domain", "domain"};
-            String[] columnNames = {"name", "domain_name", "storage_domain", "domain", "broker_name"};
-            
-            for (String schema : schemas) {
-                for (String tableName : tableNames) {
-                    for (String columnName : columnNames) {
-                        // Skip ds3.storage_domain.name as we already queried it
-                        if (schema.equals("ds3") && tableName.equals("storage_domain") && columnName.equals("name")) {
-                            continue;
-                        }
-                        
-                        try {
-                            // Check if table exists
-                            List<String> tables = jdbc.query(
-                                "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_name = ?",
-                                (rs, rowNum) -> rs.getString("table_name"),
-                                schema, tableName
-                            );
-                            
-                            if (tables.isEmpty()) {
-                                continue;
-                            }
-                            
-                            // Check if column exists
-                            List<String> columns = jdbc.query(
-                                "SELECT column_name FROM information_schema.columns WHERE table_schema = ? AND table_name = ? AND column_name = ?",
-                                (rs, rowNum) -> rs.getString("column_name"),
-                                schema, tableName, columnName
-                            );
-                            
-                            if (columns.isEmpty()) {
-                                continue;
-                            }
-                            
-                            // Query distinct values
-                            @SuppressWarnings("null")
-                            List<String> values = jdbc.query(
-                                String.format("SELECT DISTINCT %s FROM %s.%s WHERE %s IS NOT NULL AND %s != '' ORDER BY %s", 
-                                    columnName, schema, tableName, columnName, columnName, columnName),
-                                (rs, rowNum) -> {
-                                    @SuppressWarnings("null")
-                                    String value = rs.getString(columnName);
-                                    return value != null ? value : "";
-                                }
-                            );
-                            
-                            if (!values.isEmpty()) {
-                                domains.addAll(values);
-                                logger.info("Found {} storage domains from {}.{}.{}", values.size(), schema, tableName, columnName);
-                            }
-                        } catch (Exception e) {
-                            logger.debug("Could not query {}.{}.{}: {}", schema, tableName, columnName, e.getMessage());
-                        }
-                    }
-                }
+
+            CustomerDatabaseConnector.CustomerDatabase database = customerDatabaseConnector.connect(customerName, databaseType, false);
+            if (database == null) {
+                logger.error("Cannot connect to the {} database for customer {}. Please ensure the database has been restored.",
+                    databaseType, customerId);
+                // Return empty result with defaults
+                StorageDomains result = new StorageDomains();
+                result.setDomains(new ArrayList<>());
+                result.setSuggestedSource(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
+                result.setSuggestedTarget(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
+                return result;
             }
-            
-            // Also try to find domains in any column that might contain domain info
-            // Check both public and ds3 schemas
-            for (String schema : new String[]{"public", "ds3"}) {
-                try {
-                    // Get all tables in this schema
-                    List<String> allTables = jdbc.query(
-                        "SELECT table_name FROM information_schema.tables WHERE table_schema = ? ORDER BY table_name",
-                        (rs, rowNum) -> rs.getString("table_name"),
-                        schema
-                    );
-                    
-                    // For each table, check for columns with "domain" or "broker" in the name
-                    for (String tableName : allTables) {
-                        try {
-                            List<String> domainColumns = jdbc.query(
-                                "SELECT column_name FROM information_schema.columns WHERE table_schema = ? AND table_name = ? AND (column_name LIKE '%domain%' OR column_name LIKE '%broker%')",
-                                (rs, rowNum) -> rs.getString("column_name"),
-                                schema, tableName
-                            );
-                            
-                            for (String columnName : domainColumns) {
-                                try {
-                                    @SuppressWarnings("null")
-                                    List<String> values = jdbc.query(
-                                        String.format("SELECT DISTINCT %s FROM %s.%s WHERE %s IS NOT NULL AND %s != '' ORDER BY %s LIMIT 50", 
-                                            columnName, schema, tableName, columnName, columnName, columnName),
-                                        (rs, rowNum) -> {
-                                            @SuppressWarnings("null")
-                                            String value = rs.getString(columnName);
-                                            return value != null ? value : "";
-                                        }
-                                    );
-                                    
-                                    if (!values.isEmpty()) {
-                                        domains.addAll(values);
-                                        logger.debug("Found {} values from {}.{}.{}", values.size(), schema, tableName, columnName);
-                                    }
-                                } catch (Exception e) {
-                                    logger.debug("Could not query {}.{}.{}: {}", schema, tableName, columnName, e.getMessage());
-                                }
-                            }
-                        } catch (Exception e) {
-                            logger.debug("Could not check columns for table {}.{}: {}", schema, tableName, e.getMessage());
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.debug("Could not list tables in schema {}: {}", schema, e.getMessage());
+            JdbcTemplate jdbc = database.getJdbc();
+            String actualDatabaseName = database.getName();
+            logger.info("Querying storage domains from {} database: {}", databaseType, database.getKey());
+
+            // Read the table/column layout once (cached per database until the schema changes),
+            // then fetch every applicable column's values in a single round trip
+            SchemaIntrospectionService.SchemaLayout layout = schemaIntrospectionService.getLayout(
+                jdbc, database.getKey());
+            List<SchemaIntrospectionService.ColumnRef> domainSources = findStorageDomainSources(layout);
+            List<SchemaIntrospectionService.ColumnRef> tapePartitionSources = findTapePartitionSources(layout);
+
+            List<SchemaIntrospectionService.ColumnRef> sources = new ArrayList<>(domainSources);
+            sources.addAll(tapePartitionSources);
+            Map<SchemaIntrospectionService.ColumnRef, List<String>> values = schemaIntrospectionService.queryDistinctValues(jdbc, sources);
+
+            for (SchemaIntrospectionService.ColumnRef source : domainSources) {
+                List<String> sourceValues = values.get(source);
+                if (sourceValues != null) {
+                    domains.addAll(sourceValues);
+                    logger.info("Found {} storage domains from {}", sourceValues.size(), source);
                 }
             }
             
@@ -264,161 +104,47 @@ public class StorageDomainService {
             // Log what we found for debugging
             if (domainList.isEmpty()) {
                 logger.warn("No storage domains found in database {}. Attempted to query tables: storage_domains, domains, brokers, and columns containing 'domain' or 'broker'", actualDatabaseName);
-                
-                // Try to list all tables for debugging (check both public and ds3 schemas)
-                try {
-                    for (String schema : new String[]{"public", "ds3"}) {
-                        List<String> allTables = jdbc.query(
-                            "SELECT table_name FROM information_schema.tables WHERE table_schema = ? ORDER BY table_name",
-                            (rs, rowNum) -> rs.getString("table_name"),
-                            schema
-                        );
-                        logger.info("Available tables in schema {} of database {}: {}", schema, actualDatabaseName, allTables);
-                        
-                        // List all columns that might contain domain info
-                        List<Map<String, String>> domainColumns = jdbc.query(
-                            "SELECT table_name, column_name FROM information_schema.columns WHERE table_schema = ? AND (column_name LIKE '%domain%' OR column_name LIKE '%broker%' OR column_name LIKE '%storage%') ORDER BY table_name, column_name",
-                            (rs, rowNum) -> {
+                for (String schema : new String[]{"public", "ds3"}) {
+                    List<String> allTables = layout.getTables(schema);
+                    logger.info("Available tables in schema {} of database {}: {}", schema, actualDatabaseName, allTables);
+
+                    // List all columns that might contain domain info
+                    List<Map<String, String>> domainColumns = new ArrayList<>();
+                    for (String tableName : allTables) {
+                        for (String columnName : layout.getColumns(schema, tableName)) {
+                            if (columnName.contains("domain") || columnName.contains("broker") || columnName.contains("storage")) {
                                 Map<String, String> col = new HashMap<>();
-                                col.put("table", rs.getString("table_name"));
-                                col.put("column", rs.getString("column_name"));
-                                return col;
-                            },
-                            schema
-                        );
-                        if (!domainColumns.isEmpty()) {
-                            logger.info("Found potential domain/broker columns in schema {}: {}", schema, domainColumns);
+                                col.put("table", tableName);
+                                col.put("column", columnName);
+                                domainColumns.add(col);
+                            }
                         }
                     }
-                } catch (Exception e) {
-                    logger.debug("Could not list tables for debugging: {}", e.getMessage());
+                    if (!domainColumns.isEmpty()) {
+                        logger.info("Found potential domain/broker columns in schema {}: {}", schema, domainColumns);
+                    }
                 }
             } else {
                 logger.info("Storage domains found: {}", domainList);
             }
             
-            // Query tape partitions
+            // Tape partitions come from the first source (in preference order) that has any
             List<String> tapePartitions = new ArrayList<>();
-            try {
-                // First, try the known table: tape.tape_partition.name (most common)
-                try {
-                    List<String> values = jdbc.query(
-                        "SELECT DISTINCT name FROM tape.tape_partition WHERE name IS NOT NULL AND name != '' ORDER BY name",
-                        (rs, rowNum) -> {
-                            String value = rs.getString("name");
-                            return value != null ? value : "";
-                        }
-                    );
-                    if (!values.isEmpty()) {
-                        tapePartitions.addAll(values);
-                        logger.info("Found {} tape partitions from tape.tape_partition.name", values.size());
-                    }
-                } catch (Exception e) {
-                    logger.debug("Could not query tape.tape_partition.name: {}", e.getMessage());
-                }
-                
-                // If not found, try other common table names for tape partitions
-                if (tapePartitions.isEmpty()) {
-                    String[] tapePartitionTables = {"tape_partitions", "tape_partition", "partitions", "partition"};
-                    String[] tapePartitionColumns = {"name", "partition_name", "tape_partition"};
-                    
-                    for (String schema : new String[]{"public", "ds3", "tape"}) {
-                        for (String tableName : tapePartitionTables) {
-                            // Skip tape.tape_partition since we already tried it
-                            if (schema.equals("tape") && tableName.equals("tape_partition")) {
-                                continue;
-                            }
-                            
-                            for (String columnName : tapePartitionColumns) {
-                                try {
-                                    // Check if table exists
-                                    List<String> tables = jdbc.query(
-                                        "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_name = ?",
-                                        (rs, rowNum) -> rs.getString("table_name"),
-                                        schema, tableName
-                                    );
-                                    
-                                    if (tables.isEmpty()) {
-                                        continue;
-                                    }
-                                    
-                                    // Check if column exists
-                                    List<String> columns = jdbc.query(
-                                        "SELECT column_name FROM information_schema.columns WHERE table_schema = ? AND table_name = ? AND column_name = ?",
-                                        (rs, rowNum) -> rs.getString("column_name"),
-                                        schema, tableName, columnName
-                                    );
-                                    
-                                    if (columns.isEmpty()) {
-                                        continue;
-                                    }
-                                    
-                                    // Query distinct values
-                                    @SuppressWarnings("null")
-                                    List<String> values = jdbc.query(
-                                        String.format("SELECT DISTINCT %s FROM %s.%s WHERE %s IS NOT NULL AND %s != '' ORDER BY %s", 
-                                            columnName, schema, tableName, columnName, columnName, columnName),
-                                        (rs, rowNum) -> {
-                                            @SuppressWarnings("null")
-                                            String value = rs.getString(columnName);
-                                            return value != null ? value : "";
-                                        }
-                                    );
-                                    
-                                    if (!values.isEmpty()) {
-                                        tapePartitions.addAll(values);
-                                        logger.info("Found {} tape partitions from {}.{}.{}", values.size(), schema, tableName, columnName);
-                                        break; // Found partitions, no need to check other columns for this table
-                                    }
-                                } catch (Exception e) {
-                                    logger.debug("Could not query {}.{}.{}: {}", schema, tableName, columnName, e.getMessage());
-                                }
-                            }
-                            if (!tapePartitions.isEmpty()) {
-                                break; // Found partitions, no need to check other tables
-                            }
-                        }
-                        if (!tapePartitions.isEmpty()) {
-                            break; // Found partitions, no need to check other schemas
-                        }
-                    }
+            for (SchemaIntrospectionService.ColumnRef source : tapePartitionSources) {
+                List<String> sourceValues = values.get(source);
+                if (sourceValues != null) {
+                    tapePartitions.addAll(sourceValues);
+                    logger.info("Found {} tape partitions from {}", sourceValues.size(), source);
+                    break;
                 }
-            } catch (Exception e) {
-                logger.debug("Could not query tape partitions: {}", e.getMessage());
             }
             
             // Remove duplicates and sort
             List<String> uniqueTapePartitions = new ArrayList<>(new HashSet<>(tapePartitions));
             uniqueTapePartitions.sort(String::compareToIgnoreCase);
             
-            StorageDomains result = new StorageDomains();
-            result.setDomains(domainList);
-            result.setTapePartitions(uniqueTapePartitions);
-            
-            // Suggest source and target based on database type and found domains
-            if (!domainList.isEmpty()) {
-                // For BlackPearl, first domain is often source, last might be target
-                // For Rio, similar logic
-                if (domainList.size() >= 1) {
-                    result.setSuggestedSource(domainList.get(0));
-                }
-                if (domainList.size() >= 2) {
-                    result.setSuggestedTarget(domainList.get(domainList.size() - 1));
-                } else if (domainList.size() == 1) {
-                    // If only one domain, use it for both (user can change)
-                    result.setSuggestedTarget(domainList.get(0));
-                }
-            } else {
-                // Fallback to database type name
-                result.setSuggestedSource(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
-                result.setSuggestedTarget(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
-            }
-            
-            // Suggest first tape partition if available
-            if (!uniqueTapePartitions.isEmpty()) {
-                result.setSuggestedTapePartition(uniqueTapePartitions.get(0));
-            }
-            
+            StorageDomains result = buildResult(domainList, uniqueTapePartitions, databaseType);
+            result.setDatabaseName(actualDatabaseName);
             return result;
             
         } catch (Exception e) {
@@ -432,12 +158,110 @@ public class StorageDomainService {
         }
     }
 
+    /**
+     * Columns that may hold storage domain names, in the order they used to be probed:
+     * ds3.storage_domain.name, the known table/column name combinations, then any column named like domain or broker
+     */
+    private List<SchemaIntrospectionService.ColumnRef> findStorageDomainSources(SchemaIntrospectionService.SchemaLayout layout) {
+        List<SchemaIntrospectionService.ColumnRef> sources = new ArrayList<>();
+        if (layout.hasColumn("ds3", "storage_domain", "name")) {
+            sources.add(new SchemaIntrospectionService.ColumnRef("ds3", "storage_domain", "name"));
+        }
+
+        String[] schemas = {"public", "ds3"};
+        String[] tableNames = {"storage_domains", "domains", "brokers", "storage_domain", "domain"};
+        String[] columnNames = {"name", "domain_name", "storage_domain", "domain", "broker_name"};
+        for (String schema : schemas) {
+            for (String tableName : tableNames) {
+                for (String columnName : columnNames) {
+                    if (layout.hasColumn(schema, tableName, columnName)) {
+                        addIfNew(sources, new SchemaIntrospectionService.ColumnRef(schema, tableName, columnName));
+                    }
+                }
+            }
+        }
+
+        for (String schema : schemas) {
+            for (String tableName : layout.getTables(schema)) {
+                for (String columnName : layout.getColumns(schema, tableName)) {
+                    if (columnName.contains("domain") || columnName.contains("broker")) {
+                        addIfNew(sources, new SchemaIntrospectionService.ColumnRef(schema, tableName, columnName, 50));
+                    }
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Columns that may hold tape partition names, most likely first (tape.tape_partition.name)
+     */
+    private List<SchemaIntrospectionService.ColumnRef> findTapePartitionSources(SchemaIntrospectionService.SchemaLayout layout) {
+        List<SchemaIntrospectionService.ColumnRef> sources = new ArrayList<>();
+        if (layout.hasColumn("tape", "tape_partition", "name")) {
+            sources.add(new SchemaIntrospectionService.ColumnRef("tape", "tape_partition", "name"));
+        }
+
+        String[] tapePartitionTables = {"tape_partitions", "tape_partition", "partitions", "partition"};
+        String[] tapePartitionColumns = {"name", "partition_name", "tape_partition"};
+        for (String schema : new String[]{"public", "ds3", "tape"}) {
+            for (String tableName : tapePartitionTables) {
+                for (String columnName : tapePartitionColumns) {
+                    if (layout.hasColumn(schema, tableName, columnName)) {
+                        addIfNew(sources, new SchemaIntrospectionService.ColumnRef(schema, tableName, columnName));
+                    }
+                }
+            }
+        }
+        return sources;
+    }
+
+    private void addIfNew(List<SchemaIntrospectionService.ColumnRef> sources, SchemaIntrospectionService.ColumnRef candidate) {
+        if (sources.stream().noneMatch(source -> source.sameColumn(candidate))) {
+            sources.add(candidate);
+        }
+    }
+
+    /**
+     * Build the response, suggesting source/target/tape partition from what was found
+     */
+    private StorageDomains buildResult(List<String> domainList, List<String> tapePartitions, String databaseType) {
+        StorageDomains result = new StorageDomains();
+        result.setDomains(domainList);
+        result.setTapePartitions(tapePartitions);
+        
+        // Suggest source and target based on database type and found domains
+        if (!domainList.isEmpty()) {
+            // For BlackPearl, first domain is often source, last might be target
+            // For Rio, similar logic
+            result.setSuggestedSource(domainList.get(0));
+            if (domainList.size() >= 2) {
+                result.setSuggestedTarget(domainList.get(domainList.size() - 1));
+            } else {
+                // If only one domain, use it for both (user can change)
+                result.setSuggestedTarget(domainList.get(0));
+            }
+        } else {
+            // Fallback to database type name
+            result.setSuggestedSource(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
+            result.setSuggestedTarget(databaseType.equalsIgnoreCase("blackpearl") ? "BlackPearl" : "Rio");
+        }
+        
+        // Suggest first tape partition if available
+        if (!tapePartitions.isEmpty()) {
+            result.setSuggestedTapePartition(tapePartitions.get(0));
+        }
+        
+        return result;
+    }
+
     public static class StorageDomains {
         private List<String> domains;
         private List<String> tapePartitions;
         private String suggestedSource;
         private String suggestedTarget;
         private String suggestedTapePartition;
+        private String databaseName;
 
         public List<String> getDomains() {
             return domains;
@@ -478,5 +302,13 @@ public class StorageDomainService {
         public void setSuggestedTapePartition(String suggestedTapePartition) {
             this.suggestedTapePartition = suggestedTapePartition;
         }
+
+        public String getDatabaseName() {
+            return databaseName;
+        }
+
+        public void setDatabaseName(String databaseName) {
+            this.databaseName = databaseName;
+        }
     }
 }
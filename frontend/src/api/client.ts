@@ -16,6 +16,10 @@ apiClient.interceptors.request.use((config) => {
   if (token) {
     config.headers.Authorization = `Bearer ${token}`;
   }
+  // Ask the backend for DEBUG logging of this request (set localStorage.diagnostic_log = 'true')
+  if (localStorage.getItem('diagnostic_log') === 'true') {
+    config.headers['X-Diagnostic-Log'] = 'true';
+  }
   return config;
 });
 
@@ -49,4 +53,18 @@ apiClient.interceptors.response.use(
   }
 );
 
+/**
+ * Request config for a call the server can cancel: tags it with an operation id, and when the signal
+ * aborts (the caller gave up) asks the server to cancel the database queries still running for it.
+ */
+export const cancellable = (signal?: AbortSignal) => {
+  const operationId = crypto.randomUUID();
+  signal?.addEventListener('abort', () => {
+    apiClient.delete(`/diagnostics/operations/${operationId}`).catch(() => {
+      // Already finished
+    });
+  }, { once: true });
+  return { signal, headers: { 'X-Operation-Id': operationId } };
+};
+
 export default apiClient;
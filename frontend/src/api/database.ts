@@ -14,28 +14,63 @@ export interface RestoreResponse {
   filename?: string;
   databaseType?: string;
   format?: string;
+  analyzedTables?: number;
+  analyzeMillis?: number;
+  prewarmedRelations?: number;
+  prewarmedBlocks?: number;
+  prewarmMillis?: number;
+}
+
+export type RestoreJobStage = 'UPLOAD' | 'DECOMPRESS' | 'RESTORE' | 'PERMISSIONS' | 'RESTART' | 'ANALYZE' | 'OPTIMIZE' | 'PREWARM' | 'CATALOG';
+
+export interface RestoreJob extends RestoreResponse {
+  jobId: string;
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+  stage: RestoreJobStage;
+  completedStages: RestoreJobStage[];
+  customerId?: string;
+  submittedAt?: string;
+  startedAt?: string;
+  finishedAt?: string;
 }
 
 export const databaseApi = {
   /**
-   * Upload and restore PostgreSQL database backup (BlackPearl or Rio)
+   * Upload a PostgreSQL database backup (BlackPearl or Rio) and queue it for restore
+   * Returns the queued job; poll getRestoreJob for progress
    */
-  restorePostgreSQLDatabase: async (file: File, databaseType: 'blackpearl' | 'rio', customerId: string): Promise<RestoreResponse> => {
+  restorePostgreSQLDatabase: async (file: File, databaseType: 'blackpearl' | 'rio', customerId: string): Promise<RestoreJob> => {
     const formData = new FormData();
     formData.append('file', file);
     formData.append('databaseType', databaseType);
     formData.append('customerId', customerId);
     
-    const response = await apiClient.post<RestoreResponse>('/database/restore-postgres', formData, {
+    const response = await apiClient.post<RestoreJob>('/database/restore-postgres', formData, {
       headers: {
         'Content-Type': 'multipart/form-data',
       },
-      timeout: 600000, // 10 minutes for large file uploads and decompression
+      timeout: 600000, // 10 minutes for large file uploads
     });
     
     return response.data;
   },
 
+  /**
+   * Get status and stage progress of a PostgreSQL restore job
+   */
+  getRestoreJob: async (jobId: string): Promise<RestoreJob> => {
+    const response = await apiClient.get<RestoreJob>(`/database/restore-postgres/jobs/${jobId}`);
+    return response.data;
+  },
+
+  /**
+   * Cancel a queued or running PostgreSQL restore job
+   */
+  cancelRestoreJob: async (jobId: string): Promise<RestoreResponse> => {
+    const response = await apiClient.delete<RestoreResponse>(`/database/restore-postgres/jobs/${jobId}`);
+    return response.data;
+  },
+
   /**
    * Upload and restore SQLite tracker database backup
    */
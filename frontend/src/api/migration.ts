@@ -1,5 +1,5 @@
-import apiClient from './client';
-import { Bucket, BucketData, MigrationData } from '../types';
+import apiClient, { cancellable } from './client';
+import { Bucket, BucketData, BucketPage, BucketSort, MigrationData, SketchCounts } from '../types';
 
 export const migrationApi = {
   gatherData: async (data: {
@@ -7,8 +7,33 @@ export const migrationApi = {
     phaseId: string;
     date: string;
     selectedBuckets?: string[];
-  }): Promise<MigrationData> => {
-    const response = await apiClient.post('/migration/gather-data', data);
+    incremental?: boolean;
+    sketch?: boolean; // estimated object counts (HyperLogLog); leave unset for exact sign-off counts
+  }, signal?: AbortSignal): Promise<MigrationData> => {
+    const response = await apiClient.post('/migration/gather-data', data, cancellable(signal));
+    return response.data;
+  },
+
+  // Gathers every active phase of the project; phases sharing a storage domain share its scan
+  gatherProject: async (data: {
+    projectId: string;
+    date: string;
+    selectedBuckets?: Record<string, string[]>;
+    incremental?: boolean;
+    sketch?: boolean;
+  }, signal?: AbortSignal): Promise<{ gathered: MigrationData[]; failed: Record<string, string> }> => {
+    const response = await apiClient.post('/migration/gather-data/project', data, cancellable(signal));
+    return response.data;
+  },
+
+  // Reconstructs daily data points for a past date range in one pass; days that already have data are skipped
+  backfill: async (data: {
+    projectId: string;
+    phaseId: string;
+    dateFrom: string;
+    dateTo: string;
+  }, signal?: AbortSignal): Promise<{ dataPoints: number; bucketRows: number; sourceTimestampColumn: string; targetTimestampColumn: string; skippedDates: string[] }> => {
+    const response = await apiClient.post('/migration/backfill', data, cancellable(signal));
     return response.data;
   },
 
@@ -44,10 +69,11 @@ export const migrationApi = {
     }
   },
 
-  getBucketsForCustomer: async (customerId: string, databaseType: 'blackpearl' | 'rio' = 'blackpearl'): Promise<Bucket[]> => {
+  getBucketsForCustomer: async (customerId: string, databaseType: 'blackpearl' | 'rio' = 'blackpearl', estimate = false, signal?: AbortSignal): Promise<Bucket[]> => {
     try {
       const response = await apiClient.get('/migration/buckets/customer', {
-        params: { customerId, databaseType },
+        params: { customerId, databaseType, estimate },
+        ...cancellable(signal),
       });
       if (Array.isArray(response.data)) {
         return response.data;
@@ -60,10 +86,29 @@ export const migrationApi = {
     }
   },
 
-  getBucketSize: async (customerId: string, bucketName: string, databaseType: 'blackpearl' | 'rio' = 'blackpearl'): Promise<Bucket | null> => {
+  getBucketPage: async (
+    customerId: string,
+    databaseType: 'blackpearl' | 'rio' = 'blackpearl',
+    options: { prefix?: string; sort?: BucketSort; cursor?: string; limit?: number; estimate?: boolean; signal?: AbortSignal } = {}
+  ): Promise<BucketPage> => {
+    const { signal, ...params } = options;
+    try {
+      const response = await apiClient.get('/migration/buckets/customer/page', {
+        params: { customerId, databaseType, ...params },
+        ...cancellable(signal),
+      });
+      return response.data;
+    } catch (error) {
+      console.error('Error fetching customer bucket page:', error);
+      return { buckets: [], nextCursor: null, hasMore: false, sort: 'NAME', prefix: null, totalCount: null, source: 'catalog' };
+    }
+  },
+
+  getBucketSize: async (customerId: string, bucketName: string, databaseType: 'blackpearl' | 'rio' = 'blackpearl', estimate = false, signal?: AbortSignal): Promise<Bucket | null> => {
     try {
       const response = await apiClient.get('/migration/buckets/size', {
-        params: { customerId, bucketName, databaseType },
+        params: { customerId, bucketName, databaseType, estimate },
+        ...cancellable(signal),
       });
       return response.data;
     } catch (error: any) {
@@ -94,6 +139,12 @@ export const migrationApi = {
     }
   },
 
+  // Object estimates merged from a sketch-mode gather (latest one if no date)
+  getSketchCounts: async (phaseId: string, date?: string): Promise<SketchCounts> => {
+    const response = await apiClient.get('/migration/sketch-counts', { params: { phaseId, date } });
+    return response.data;
+  },
+
   deleteDataPoint: async (phaseId: string, date: string): Promise<void> => {
     await apiClient.delete('/migration/data', {
       params: { phaseId, date },
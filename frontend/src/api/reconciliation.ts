@@ -0,0 +1,39 @@
+import apiClient from './client';
+import { ReconciliationBucket, ReconciliationJob, ReconciliationRun } from '../types';
+
+export const reconciliationApi = {
+  /**
+   * Queue an object-level comparison of a phase's source and target; poll getJob for progress
+   */
+  start: async (phaseId: string): Promise<ReconciliationJob> => {
+    const response = await apiClient.post('/reconciliation/jobs', null, { params: { phaseId } });
+    return response.data;
+  },
+
+  getJob: async (jobId: string): Promise<ReconciliationJob> => {
+    const response = await apiClient.get(`/reconciliation/jobs/${jobId}`);
+    return response.data;
+  },
+
+  cancelJob: async (jobId: string): Promise<void> => {
+    await apiClient.delete(`/reconciliation/jobs/${jobId}`);
+  },
+
+  getRuns: async (phaseId: string): Promise<ReconciliationRun[]> => {
+    const response = await apiClient.get('/reconciliation/runs', { params: { phaseId } });
+    return response.data;
+  },
+
+  getBuckets: async (runId: string): Promise<ReconciliationBucket[]> => {
+    const response = await apiClient.get(`/reconciliation/runs/${runId}/buckets`);
+    return response.data;
+  },
+
+  /**
+   * Missing, extra and size-mismatched objects as gzipped CSV
+   */
+  downloadObjects: async (runId: string): Promise<Blob> => {
+    const response = await apiClient.get(`/reconciliation/runs/${runId}/objects`, { responseType: 'blob' });
+    return response.data;
+  },
+};
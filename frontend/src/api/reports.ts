@@ -1,5 +1,5 @@
 import apiClient from './client';
-import { MigrationData, PhaseProgress, Forecast, ExportOptions } from '../types';
+import { MigrationData, PhaseProgress, Forecast, ExportOptions, SizeHistogramReport } from '../types';
 
 export const reportsApi = {
   getPhaseProgress: async (phaseId: string): Promise<PhaseProgress> => {
@@ -19,6 +19,13 @@ export const reportsApi = {
     return response.data;
   },
 
+  getSizeHistogram: async (phaseId: string, date?: string): Promise<SizeHistogramReport> => {
+    const response = await apiClient.get(`/reports/phases/${phaseId}/size-histogram`, {
+      params: { date },
+    });
+    return response.data;
+  },
+
   exportPhase: async (phaseId: string, options: ExportOptions): Promise<Blob> => {
     const response = await apiClient.post(
       `/reports/phases/${phaseId}/export`,
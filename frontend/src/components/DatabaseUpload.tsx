@@ -1,7 +1,7 @@
 import { useState, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useQuery } from '@tanstack/react-query';
-import { databaseApi, RestoreResponse } from '../api/database';
+import { databaseApi, RestoreJob, RestoreResponse } from '../api/database';
 import { customersApi } from '../api/customers';
 import { useToastContext } from '../contexts/ToastContext';
 
@@ -17,6 +17,7 @@ export default function DatabaseUpload({ onSuccess, databaseType = 'tracker' }:
   const [result, setResult] = useState<RestoreResponse | null>(null);
   const [selectedDbType, setSelectedDbType] = useState<'blackpearl' | 'rio'>(databaseType === 'blackpearl' ? 'blackpearl' : databaseType === 'rio' ? 'rio' : 'blackpearl');
   const [selectedCustomerId, setSelectedCustomerId] = useState<string>('');
+  const [restoreJob, setRestoreJob] = useState<RestoreJob | null>(null);
   const fileInputRef = useRef<HTMLInputElement>(null);
   const { showToast } = useToastContext();
 
@@ -73,7 +74,17 @@ export default function DatabaseUpload({ onSuccess, databaseType = 'tracker' }:
           }
           return;
         }
-        response = await databaseApi.restorePostgreSQLDatabase(file, selectedDbType, selectedCustomerId);
+        let job = await databaseApi.restorePostgreSQLDatabase(file, selectedDbType, selectedCustomerId);
+        setRestoreJob(job);
+        // Restore runs in the background - poll until it finishes
+        while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+          await new Promise((resolve) => setTimeout(resolve, 2000));
+          job = await databaseApi.getRestoreJob(job.jobId);
+          setRestoreJob(job);
+        }
+        response = job.status === 'CANCELLED'
+          ? { ...job, success: false, error: job.error || 'Restore cancelled' }
+          : job;
       }
       
       setResult(response);
@@ -130,6 +141,14 @@ export default function DatabaseUpload({ onSuccess, databaseType = 'tracker' }:
       }
     } finally {
       setUploading(false);
+      setRestoreJob(null);
+    }
+  };
+
+  const handleCancel = async (e: React.MouseEvent) => {
+    e.stopPropagation();
+    if (restoreJob) {
+      await databaseApi.cancelRestoreJob(restoreJob.jobId);
     }
   };
 
@@ -244,7 +263,24 @@ export default function DatabaseUpload({ onSuccess, databaseType = 'tracker' }:
           {uploading ? (
             <div className="flex flex-col items-center">
               <div className="animate-spin rounded-full h-12 w-12 border-b-2 border-blue-600 mb-4"></div>
-              <p className="text-gray-600">Uploading and restoring database...</p>
+              {restoreJob ? (
+                <>
+                  <p className="text-gray-600">
+                    {restoreJob.status === 'QUEUED'
+                      ? 'Waiting for another restore to finish...'
+                      : `Restoring database: ${restoreJob.stage.toLowerCase()} (step ${restoreJob.completedStages.length + 1})`}
+                  </p>
+                  <button
+                    type="button"
+                    onClick={handleCancel}
+                    className="mt-3 px-3 py-1 text-sm text-red-700 border border-red-300 rounded hover:bg-red-50"
+                  >
+                    Cancel restore
+                  </button>
+                </>
+              ) : (
+                <p className="text-gray-600">Uploading and restoring database...</p>
+              )}
             </div>
           ) : (
             <div className="flex flex-col items-center">
@@ -99,6 +99,7 @@ export interface ExportOptions {
   includeCharts?: boolean;
   includeForecast?: boolean;
   includeRawData?: boolean;
+  includeSizeHistogram?: boolean;
   template?: 'executive' | 'detailed' | 'minimal';
 }
 
@@ -107,6 +108,19 @@ export interface Bucket {
   source: 'blackpearl' | 'rio';
   objectCount: number;
   sizeBytes: number;
+  approximate?: boolean;
+}
+
+export type BucketSort = 'name' | 'size' | 'count';
+
+export interface BucketPage {
+  buckets: Bucket[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  sort: 'NAME' | 'SIZE' | 'COUNT';
+  prefix: string | null;
+  totalCount: number | null;
+  source: 'catalog' | 'postgres';
 }
 
 export interface BucketData {
@@ -121,3 +135,90 @@ export interface BucketData {
   sizeBytes: number;
   userId?: string;
 }
+
+export type ReconciliationStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+
+export interface ReconciliationJob {
+  id: string;
+  phaseId: string;
+  status: ReconciliationStatus;
+  submittedAt: string;
+  startedAt?: string;
+  finishedAt?: string;
+  error?: string;
+  sourceObjects: number;
+  targetObjects: number;
+  matched: number;
+  missing: number;
+  extra: number;
+  sizeMismatch: number;
+  missingBytes: number;
+}
+
+export interface ReconciliationRun {
+  id: string;
+  migrationPhaseId: string;
+  sourceDomain: string;
+  targetDomain: string;
+  status: Exclude<ReconciliationStatus, 'QUEUED' | 'RUNNING'>;
+  startedAt: string;
+  finishedAt: string;
+  sourceObjects: number;
+  targetObjects: number;
+  matched: number;
+  missing: number;
+  extra: number;
+  sizeMismatch: number;
+  missingBytes: number;
+  spillFile?: string;
+  error?: string;
+}
+
+export interface ReconciliationBucket {
+  runId: string;
+  bucketName: string;
+  matched: number;
+  missing: number;
+  extra: number;
+  sizeMismatch: number;
+  missingBytes: number;
+}
+
+export interface SketchCounts {
+  date: string;
+  precision: number;
+  sourceObjects: number;
+  targetObjects: number;
+  unionObjects: number | null;
+  bothObjects: number | null; // null when source and target are in different databases
+  buckets: {
+    bucketName: string;
+    sourceObjects: number;
+    targetObjects: number;
+    bothObjects: number | null;
+  }[];
+}
+
+export interface SizeClass {
+  sizeClass: number; // 0 = empty blobs, n = [2^(n-1), 2^n) bytes
+  minBytes: number;
+  maxBytes: number | null; // null for the last class
+  blobs: number;
+  bytes: number;
+}
+
+export interface DomainSizeHistogram {
+  storageDomain: string;
+  classes: SizeClass[];
+  buckets: {
+    bucketName: string;
+    classes: SizeClass[];
+  }[];
+}
+
+export interface SizeHistogramReport {
+  phaseId: string;
+  date: string;
+  source: DomainSizeHistogram;
+  target: DomainSizeHistogram;
+}
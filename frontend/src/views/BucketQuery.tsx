@@ -10,6 +10,7 @@ export default function BucketQuery() {
   const [selectedCustomerId, setSelectedCustomerId] = useState('');
   const [selectedBucket, setSelectedBucket] = useState('');
   const [databaseType, setDatabaseType] = useState<'blackpearl' | 'rio'>('blackpearl');
+  const [estimate, setEstimate] = useState(false);
 
   const { data: customers = [], isLoading: customersLoading } = useQuery({
     queryKey: ['customers'],
@@ -17,14 +18,14 @@ export default function BucketQuery() {
   });
 
   const { data: buckets = [], isLoading: bucketsLoading } = useQuery({
-    queryKey: ['customer-buckets', selectedCustomerId, databaseType],
-    queryFn: () => migrationApi.getBucketsForCustomer(selectedCustomerId, databaseType),
+    queryKey: ['customer-buckets', selectedCustomerId, databaseType, estimate],
+    queryFn: ({ signal }) => migrationApi.getBucketsForCustomer(selectedCustomerId, databaseType, estimate, signal),
     enabled: !!selectedCustomerId,
   });
 
   const { data: bucketSize, isLoading: sizeLoading } = useQuery({
-    queryKey: ['bucket-size', selectedCustomerId, selectedBucket, databaseType],
-    queryFn: () => migrationApi.getBucketSize(selectedCustomerId, selectedBucket, databaseType),
+    queryKey: ['bucket-size', selectedCustomerId, selectedBucket, databaseType, estimate],
+    queryFn: ({ signal }) => migrationApi.getBucketSize(selectedCustomerId, selectedBucket, databaseType, estimate, signal),
     enabled: !!selectedCustomerId && !!selectedBucket,
   });
 
@@ -91,6 +92,14 @@ export default function BucketQuery() {
               <option value="blackpearl">BlackPearl</option>
               <option value="rio">Rio</option>
             </select>
+            <label className="mt-3 flex items-center space-x-2 text-sm text-gray-700">
+              <input
+                type="checkbox"
+                checked={estimate}
+                onChange={(e) => setEstimate(e.target.checked)}
+              />
+              <span>Fast estimate (approximate counts from database statistics and sampling)</span>
+            </label>
           </div>
         )}
 
@@ -138,7 +147,12 @@ export default function BucketQuery() {
               </div>
             ) : bucketSize ? (
               <div className="space-y-4">
-                <h3 className="text-lg font-semibold text-gray-900">Bucket Size Information</h3>
+                <h3 className="text-lg font-semibold text-gray-900">
+                  Bucket Size Information
+                  {bucketSize.approximate && (
+                    <span className="ml-2 text-xs font-medium px-2 py-0.5 rounded bg-yellow-100 text-yellow-800">Approximate</span>
+                  )}
+                </h3>
                 <div className="grid grid-cols-1 md:grid-cols-3 gap-4">
                   <div className="bg-gray-50 rounded-lg p-4">
                     <div className="text-sm text-gray-600 mb-1">Bucket Name</div>
@@ -147,13 +161,13 @@ export default function BucketQuery() {
                   <div className="bg-gray-50 rounded-lg p-4">
                     <div className="text-sm text-gray-600 mb-1">Object Count</div>
                     <div className="text-xl font-semibold text-gray-900">
-                      {formatNumber(bucketSize.objectCount)}
+                      {bucketSize.approximate ? '≈ ' : ''}{formatNumber(bucketSize.objectCount)}
                     </div>
                   </div>
                   <div className="bg-gray-50 rounded-lg p-4">
                     <div className="text-sm text-gray-600 mb-1">Total Size</div>
                     <div className="text-xl font-semibold text-gray-900">
-                      {formatBytes(bucketSize.sizeBytes)}
+                      {bucketSize.approximate ? '≈ ' : ''}{formatBytes(bucketSize.sizeBytes)}
                     </div>
                   </div>
                 </div>
@@ -1,6 +1,6 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useLocation } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient, keepPreviousData } from '@tanstack/react-query';
 import { customersApi } from '../api/customers';
 import { projectsApi } from '../api/projects';
 import { phasesApi } from '../api/phases';
@@ -10,6 +10,7 @@ import { formatBytes, formatNumber } from '../utils/format';
 import Breadcrumb from '../components/Breadcrumb';
 import PhaseForm from '../components/PhaseForm';
 import { useToastContext } from '../contexts/ToastContext';
+import { BucketSort } from '../types';
 
 export default function GatherData() {
   const location = useLocation();
@@ -19,7 +20,9 @@ export default function GatherData() {
   const [date, setDate] = useState(new Date().toISOString().split('T')[0]);
   const [selectedBuckets, setSelectedBuckets] = useState<Set<string>>(new Set());
   const [bucketSearchTerm, setBucketSearchTerm] = useState('');
+  const [bucketSort, setBucketSort] = useState<BucketSort>('name');
   const [showBucketSelection, setShowBucketSelection] = useState(false);
+  const [incremental, setIncremental] = useState(false);
   const [showPhaseForm, setShowPhaseForm] = useState(false);
   const queryClient = useQueryClient();
   const toast = useToastContext();
@@ -137,18 +140,33 @@ export default function GatherData() {
   // Check if date already has data
   const dateHasData = phaseData.some(d => d.timestamp === date);
 
-  // Fetch buckets for the selected customer and database type
+  // Fetch buckets for the selected customer and database type, one page at a time
   // Use effectiveCustomerId (from selected customer or from selected project)
   // Default databaseType to 'blackpearl' if not set
-  const { data: buckets = [], isLoading: bucketsLoading } = useQuery({
-    queryKey: ['buckets', effectiveCustomerId, effectiveDatabaseType],
-    queryFn: () => migrationApi.getBucketsForCustomer(effectiveCustomerId || '', effectiveDatabaseType),
+  // The search term is applied server-side as a bucket name prefix
+  const {
+    data: bucketPages,
+    isLoading: bucketsLoading,
+    fetchNextPage: fetchMoreBuckets,
+    hasNextPage: hasMoreBuckets,
+    isFetchingNextPage: loadingMoreBuckets,
+  } = useInfiniteQuery({
+    queryKey: ['buckets', effectiveCustomerId, effectiveDatabaseType, bucketSearchTerm, bucketSort],
+    queryFn: ({ pageParam, signal }) => migrationApi.getBucketPage(effectiveCustomerId || '', effectiveDatabaseType, {
+      prefix: bucketSearchTerm || undefined,
+      sort: bucketSort,
+      cursor: pageParam,
+      signal,
+    }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+    // Keep showing the current list (and the search box) while a new prefix/sort loads
+    placeholderData: keepPreviousData,
     enabled: !!effectiveCustomerId && !!effectiveDatabaseType,
   });
 
-  const filteredBuckets = buckets.filter(bucket =>
-    bucket.name.toLowerCase().includes(bucketSearchTerm.toLowerCase())
-  );
+  const filteredBuckets = bucketPages?.pages.flatMap(page => page.buckets) ?? [];
+  const totalBuckets = bucketPages?.pages[0]?.totalCount ?? filteredBuckets.length;
 
   const toggleBucket = (bucketName: string) => {
     const newSelected = new Set(selectedBuckets);
@@ -168,9 +186,15 @@ export default function GatherData() {
     setSelectedBuckets(new Set());
   };
 
+  // Aborting cancels the gather's database queries on the server (Cancel button, or leaving the page)
+  const gatherAbort = useRef<AbortController | null>(null);
+  useEffect(() => () => gatherAbort.current?.abort(), []);
+
   const gatherMutation = useMutation({
-    mutationFn: (data: { projectId: string; phaseId: string; date: string; selectedBuckets?: string[] }) =>
-      migrationApi.gatherData(data),
+    mutationFn: (data: { projectId: string; phaseId: string; date: string; selectedBuckets?: string[]; incremental?: boolean }) => {
+      gatherAbort.current = new AbortController();
+      return migrationApi.gatherData(data, gatherAbort.current.signal);
+    },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['reports'] });
       queryClient.invalidateQueries({ queryKey: ['dashboard'] });
@@ -182,8 +206,15 @@ export default function GatherData() {
       setSelectedBuckets(new Set());
     },
     onError: (error: any) => {
+      if (gatherAbort.current?.signal.aborted) {
+        toast.info('Gather cancelled');
+        return;
+      }
       toast.error(`Failed to gather data: ${error.message || 'Unknown error'}`);
     },
+    onSettled: () => {
+      gatherAbort.current = null;
+    },
   });
 
   const handleSubmit = (e: React.FormEvent) => {
@@ -213,6 +244,7 @@ export default function GatherData() {
       phaseId: selectedPhase,
       date,
       selectedBuckets: selectedBuckets.size > 0 ? Array.from(selectedBuckets) : undefined,
+      incremental,
     });
   };
 
@@ -331,6 +363,15 @@ export default function GatherData() {
                 </div>
               )}
 
+              <label className="flex items-center space-x-2 text-sm text-gray-700">
+                <input
+                  type="checkbox"
+                  checked={incremental}
+                  onChange={(e) => setIncremental(e.target.checked)}
+                />
+                <span>Incremental (count only what was written to tape since the last gather)</span>
+              </label>
+
               {/* Warnings */}
               {dateHasData && (
                 <div className="flex items-start space-x-2 p-3 bg-yellow-50 border border-yellow-200 rounded-lg">
@@ -390,7 +431,7 @@ export default function GatherData() {
                     <Loader2 className="w-6 h-6 animate-spin mx-auto mb-2" />
                     <p>Loading buckets...</p>
                   </div>
-                ) : buckets.length === 0 ? (
+                ) : filteredBuckets.length === 0 && !bucketSearchTerm ? (
                   <div className="text-center py-8 text-gray-500">
                     <p className="mb-2">No buckets found.</p>
                     <p className="text-sm">This is expected if PostgreSQL databases are not configured.</p>
@@ -403,19 +444,30 @@ export default function GatherData() {
                   <>
                     {/* Search and Select All */}
                     <div className="mb-4 space-y-2">
-                      <div className="relative">
-                        <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 w-4 h-4" />
-                        <input
-                          type="text"
-                          placeholder="Search buckets..."
-                          value={bucketSearchTerm}
-                          onChange={(e) => setBucketSearchTerm(e.target.value)}
-                          className="input pl-10 text-sm"
-                        />
+                      <div className="flex items-center space-x-2">
+                        <div className="relative flex-1">
+                          <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 w-4 h-4" />
+                          <input
+                            type="text"
+                            placeholder="Bucket name starts with..."
+                            value={bucketSearchTerm}
+                            onChange={(e) => setBucketSearchTerm(e.target.value)}
+                            className="input pl-10 text-sm"
+                          />
+                        </div>
+                        <select
+                          value={bucketSort}
+                          onChange={(e) => setBucketSort(e.target.value as BucketSort)}
+                          className="input text-sm w-40"
+                        >
+                          <option value="name">Sort by name</option>
+                          <option value="size">Largest first</option>
+                          <option value="count">Most objects first</option>
+                        </select>
                       </div>
                       <div className="flex items-center justify-between text-sm">
                         <span className="text-gray-600">
-                          {selectedBuckets.size} of {filteredBuckets.length} selected
+                          {selectedBuckets.size} selected • showing {filteredBuckets.length} of {totalBuckets}
                         </span>
                         <div className="space-x-2">
                           <button
@@ -469,7 +521,7 @@ export default function GatherData() {
                                   </span>
                                 </div>
                                 <div className="text-xs text-gray-500 mt-1">
-                                  {formatNumber(bucket.objectCount)} objects • {formatBytes(bucket.sizeBytes)}
+                                  {bucket.approximate ? '≈ ' : ''}{formatNumber(bucket.objectCount)} objects • {formatBytes(bucket.sizeBytes)}
                                 </div>
                               </div>
                             </div>
@@ -477,6 +529,18 @@ export default function GatherData() {
                         );
                       })}
                     </div>
+                    {hasMoreBuckets && (
+                      <div className="text-center mt-3">
+                        <button
+                          type="button"
+                          onClick={() => fetchMoreBuckets()}
+                          disabled={loadingMoreBuckets}
+                          className="btn btn-secondary text-sm"
+                        >
+                          {loadingMoreBuckets ? 'Loading...' : 'Load more buckets'}
+                        </button>
+                      </div>
+                    )}
                   </>
                 )}
               </div>
@@ -510,6 +574,15 @@ export default function GatherData() {
             >
               Reset
             </button>
+            {gatherMutation.isPending && (
+              <button
+                type="button"
+                onClick={() => gatherAbort.current?.abort()}
+                className="btn btn-secondary"
+              >
+                Cancel
+              </button>
+            )}
             <button
               type="submit"
               disabled={gatherMutation.isPending || !selectedProject || !selectedPhase}